@@ -0,0 +1,39 @@
+package net.osslabz.mexc.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Loads the captured sample payloads from src/jmh/resources/payloads.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+
+    public static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8).trim();
+    }
+
+
+    public static ByteBuffer base64(String name) {
+        return ByteBuffer.wrap(Base64.getDecoder().decode(text(name))).asReadOnlyBuffer();
+    }
+
+
+    private static byte[] bytes(String name) {
+        try (InputStream in = BenchmarkPayloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
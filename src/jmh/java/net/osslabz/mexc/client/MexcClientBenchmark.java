@@ -0,0 +1,124 @@
+package net.osslabz.mexc.client;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
+import net.osslabz.mexc.client.ws.dto.MessageFormat;
+import net.osslabz.mexc.client.ws.dto.OhlcSubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.SubscriptionState;
+import net.osslabz.mexc.client.ws.dto.raw.RawCandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of a received frame: decoding, mapping and handing the result to the consumer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MexcClientBenchmark {
+
+    private static final CurrencyPair BTC_USDT = new CurrencyPair("BTC", "USDT");
+
+    private PublicMexcClient client;
+
+    private PublicMexcClient candleClient;
+
+    private String klineJson;
+
+    private ByteBuffer klineProtobuf;
+
+    private String subscriptionResponse;
+
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.client = new PublicMexcClient();
+        this.register(MessageFormat.JSON, blackhole);
+        this.register(MessageFormat.PROTOBUF, blackhole);
+
+        this.candleClient = new PublicMexcClient();
+        this.registerCandles(MessageFormat.JSON, blackhole);
+        this.registerCandles(MessageFormat.PROTOBUF, blackhole);
+
+        this.klineJson = BenchmarkPayloads.text("kline.json");
+        this.klineProtobuf = BenchmarkPayloads.base64("kline.pb.b64");
+        this.subscriptionResponse = BenchmarkPayloads.text("subscription-response.json");
+    }
+
+
+    private void register(MessageFormat format, Blackhole blackhole) {
+        String identifier = this.client.mapper.calcSubscriptionIdentifier(BTC_USDT, Interval.PT15M, format);
+        // registered directly, the benchmark never opens a connection
+        this.client.activeSubscriptions.put(identifier, OhlcSubscriptionInfo.builder()
+                .currencyPair(BTC_USDT)
+                .interval(Interval.PT15M)
+                .decodeContext(DecodeContext.kline(SymbolTable.global().intern(BTC_USDT), Interval.PT15M))
+                .subscriptionIdentifier(identifier)
+                .subscribeRequestId(Integer.MAX_VALUE)
+                .state(SubscriptionState.SUBSCRIBED)
+                .consumer(blackhole::consume)
+                .build());
+    }
+
+
+    private void registerCandles(MessageFormat format, Blackhole blackhole) {
+        String identifier = this.candleClient.mapper.calcSubscriptionIdentifier(BTC_USDT, Interval.PT15M, format);
+        this.candleClient.activeSubscriptions.put(identifier, OhlcSubscriptionInfo.builder()
+                .currencyPair(BTC_USDT)
+                .interval(Interval.PT15M)
+                .decodeContext(DecodeContext.kline(SymbolTable.global().intern(BTC_USDT), Interval.PT15M))
+                .subscriptionIdentifier(identifier)
+                .subscribeRequestId(Integer.MAX_VALUE)
+                .state(SubscriptionState.SUBSCRIBED)
+                .consumer(blackhole::consume)
+                .rawCandle(new RawCandle(new CandleView(BTC_USDT, Interval.PT15M)))
+                .build());
+    }
+
+
+    @Benchmark
+    public void handleJsonKline() {
+        this.client.handleMessage(this.klineJson);
+    }
+
+
+    @Benchmark
+    public void handleProtobufKline() {
+        this.client.handleMessage(this.klineProtobuf);
+    }
+
+
+    @Benchmark
+    public void handleJsonCandle() {
+        this.candleClient.handleMessage(this.klineJson);
+    }
+
+
+    @Benchmark
+    public void handleProtobufCandle() {
+        this.candleClient.handleMessage(this.klineProtobuf);
+    }
+
+
+    @Benchmark
+    public void handleSubscriptionResponse() {
+        this.client.handleMessage(this.subscriptionResponse);
+    }
+}
@@ -0,0 +1,96 @@
+package net.osslabz.mexc.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.crypto.Order;
+import net.osslabz.mexc.client.ws.JsonPushMessageReader;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
+import net.osslabz.mexc.client.ws.dto.SubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
+import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of already decoded raw messages into the crypto-commons model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MexcMapperBenchmark {
+
+    private static final CurrencyPair BTC_USDT = new CurrencyPair("BTC", "USDT");
+
+    private final MexcMapper mapper = new MexcMapper();
+
+    private final DecodeContext klineContext = DecodeContext.kline(SymbolTable.global().intern(BTC_USDT), Interval.PT15M);
+
+    private final SubscriptionInfo orderSubscription = SubscriptionInfo.builder()
+            .subscriptionIdentifier("spot@private.orders.v3.api")
+            .decodeContext(DecodeContext.ORDERS)
+            .build();
+
+    private RawOhlc rawOhlc;
+
+    private RawOrder rawOrder;
+
+
+    @Setup
+    public void setup() throws IOException {
+        JsonFactory jsonFactory = new JsonFactory();
+
+        try (JsonParser parser = jsonFactory.createParser(BenchmarkPayloads.text("kline.json"))) {
+            this.rawOhlc = new RawOhlc();
+            this.rawOhlc.setData(JsonPushMessageReader.readOhlcData(moveToData(parser)));
+            this.rawOhlc.setTime(1661932016878L);
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(BenchmarkPayloads.text("order.json"))) {
+            this.rawOrder = new RawOrder();
+            this.rawOrder.setData(JsonPushMessageReader.readOrderData(moveToData(parser)));
+            this.rawOrder.setSymbol("MXUSDT");
+            this.rawOrder.setTime(1661938138193L);
+        }
+    }
+
+
+    private static JsonParser moveToData(JsonParser parser) throws IOException {
+        while (parser.nextToken() != null) {
+            if (parser.currentToken() == JsonToken.FIELD_NAME && "d".equals(parser.currentName())) {
+                parser.nextToken();
+                return parser;
+            }
+        }
+        throw new IllegalStateException("Payload has no data element");
+    }
+
+
+    @Benchmark
+    public Ohlc mapOhlc() {
+        return this.mapper.map(this.klineContext, this.rawOhlc);
+    }
+
+
+    @Benchmark
+    public Order mapOrder() {
+        return this.mapper.map(this.orderSubscription, this.rawOrder);
+    }
+}
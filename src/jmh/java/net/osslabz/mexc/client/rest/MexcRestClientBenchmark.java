@@ -0,0 +1,62 @@
+package net.osslabz.mexc.client.rest;
+
+import net.osslabz.mexc.client.BenchmarkPayloads;
+import net.osslabz.mexc.client.rest.dto.ListenKeys;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of REST responses, the response is created in memory so no network is involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MexcRestClientBenchmark {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final Request request = new Request.Builder().url("https://api.mexc.com/api/v3/userDataStream").build();
+
+    private MexcRestClient restClient;
+
+    private byte[] listenKeys;
+
+
+    @Setup
+    public void setup() {
+        this.restClient = new MexcRestClient("access-key", "secret-key");
+        this.listenKeys = BenchmarkPayloads.text("listen-keys.json").getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    @Benchmark
+    public ListenKeys handleResponse() {
+        Response response = new Response.Builder()
+                .request(this.request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(this.listenKeys, JSON))
+                .build();
+        return this.restClient.handleResponse(response, ListenKeys.class);
+    }
+}
@@ -0,0 +1,62 @@
+package net.osslabz.mexc.client.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing cost of a typical order request, one-off via {@link SignatureUtil} and with a key bound {@link RequestSigner}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureUtilBenchmark {
+
+    private static final String SECRET_KEY = "45d0b3c26f2644f19bfb98b07741b2f5";
+
+    private static final String QUERY = "symbol=BTCUSDT&side=BUY&type=LIMIT&quantity=0.0012&price=20281.31&newClientOrderId=strategy-1%2042&timestamp=1661938138000";
+
+    private final RequestSigner signer = new RequestSigner(SECRET_KEY);
+
+    private final Map<String, String> params = new LinkedHashMap<>();
+
+    {
+        this.params.put("symbol", "BTCUSDT");
+        this.params.put("side", "BUY");
+        this.params.put("type", "LIMIT");
+        this.params.put("quantity", "0.0012");
+        this.params.put("price", "20281.31");
+        this.params.put("newClientOrderId", "strategy-1 42");
+    }
+
+
+    @Benchmark
+    public String actualSignature() {
+        return SignatureUtil.actualSignature(QUERY, SECRET_KEY);
+    }
+
+
+    @Benchmark
+    public String sign() {
+        return this.signer.sign(QUERY);
+    }
+
+
+    @Benchmark
+    public String toQueryStringWithEncoding() {
+        return SignatureUtil.toQueryStringWithEncoding(this.params);
+    }
+}
@@ -0,0 +1,204 @@
+package net.osslabz.mexc.client;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.orderbook.OrderBook;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Delivers only the newest of the updates it receives, at most once per interval and never while the consumer is
+ * still busy with the previous update. Updates arriving in between overwrite the pending one, so nothing queues up
+ * no matter how slow the consumer is. An interval of 0 delivers as soon as the consumer is free.
+ * <p>
+ * The consumer is called on one of the scheduler's threads, never on two at once, the producer never waits for it.
+ * A scheduler with several threads keeps a slow consumer from delaying the others sharing it.
+ */
+@Slf4j
+public abstract class ConflatingConsumer<T> implements Consumer<T> {
+
+    private final Consumer<T> consumer;
+
+    private final long intervalNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile long lastDelivery;
+
+
+    protected ConflatingConsumer(Consumer<T> consumer, Duration interval, ScheduledExecutorService scheduler) {
+        this.consumer = consumer;
+        this.intervalNanos = interval.toNanos();
+        this.scheduler = scheduler;
+        this.lastDelivery = System.nanoTime() - this.intervalNanos;
+    }
+
+
+    /**
+     * Conflates immutable updates (e.g. {@link net.osslabz.crypto.Ohlc}) by keeping a reference to the newest one.
+     */
+    public static <T> ConflatingConsumer<T> latest(Consumer<T> consumer, Duration interval, ScheduledExecutorService scheduler) {
+        return new ConflatingConsumer<>(consumer, interval, scheduler) {
+
+            private final AtomicReference<T> pending = new AtomicReference<>();
+
+            @Override
+            protected void store(T update) {
+                this.pending.set(update);
+            }
+
+            @Override
+            protected T take() {
+                return this.pending.getAndSet(null);
+            }
+
+            @Override
+            protected boolean hasPending() {
+                return this.pending.get() != null;
+            }
+        };
+    }
+
+
+    /**
+     * Conflates the reused views of a candle subscription, the newest update is copied into a pending view and handed
+     * over in a second one, so no objects are allocated.
+     */
+    public static ConflatingConsumer<CandleView> candles(Consumer<CandleView> consumer, Duration interval, ScheduledExecutorService scheduler) {
+        return new ConflatingConsumer<>(consumer, interval, scheduler) {
+
+            private CandleView pending;
+
+            private CandleView delivering;
+
+            private boolean dirty = false;
+
+            @Override
+            protected synchronized void store(CandleView update) {
+                if (this.pending == null) {
+                    this.pending = new CandleView(update.getCurrencyPair(), update.getInterval());
+                    this.delivering = new CandleView(update.getCurrencyPair(), update.getInterval());
+                }
+                this.pending.set(update);
+                this.dirty = true;
+            }
+
+            @Override
+            protected synchronized CandleView take() {
+                if (!this.dirty) {
+                    return null;
+                }
+                this.delivering.set(this.pending);
+                this.dirty = false;
+                return this.delivering;
+            }
+
+            @Override
+            protected synchronized boolean hasPending() {
+                return this.dirty;
+            }
+        };
+    }
+
+
+    /**
+     * Conflates the order book of a subscription like {@link #candles(Consumer, Duration, ScheduledExecutorService)},
+     * the copies reuse their arrays once they have grown to the book's size.
+     */
+    public static ConflatingConsumer<OrderBook> orderBooks(Consumer<OrderBook> consumer, Duration interval, ScheduledExecutorService scheduler) {
+        return new ConflatingConsumer<>(consumer, interval, scheduler) {
+
+            private OrderBook pending;
+
+            private OrderBook delivering;
+
+            private boolean dirty = false;
+
+            @Override
+            protected synchronized void store(OrderBook update) {
+                if (this.pending == null) {
+                    this.pending = new OrderBook(update.getCurrencyPair());
+                    this.delivering = new OrderBook(update.getCurrencyPair());
+                }
+                this.pending.set(update);
+                this.dirty = true;
+            }
+
+            @Override
+            protected synchronized OrderBook take() {
+                if (!this.dirty) {
+                    return null;
+                }
+                this.delivering.set(this.pending);
+                this.dirty = false;
+                return this.delivering;
+            }
+
+            @Override
+            protected synchronized boolean hasPending() {
+                return this.dirty;
+            }
+        };
+    }
+
+
+    @Override
+    public void accept(T update) {
+        this.store(update);
+        this.scheduleDelivery();
+    }
+
+
+    /**
+     * Replaces the pending update.
+     */
+    protected abstract void store(T update);
+
+    /**
+     * Returns and clears the pending update, null if there is none.
+     */
+    protected abstract T take();
+
+    protected abstract boolean hasPending();
+
+
+    private void scheduleDelivery() {
+        if (!this.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(0, this.lastDelivery + this.intervalNanos - System.nanoTime());
+        try {
+            this.scheduler.schedule(this::deliver, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the client has been closed
+            this.scheduled.set(false);
+        }
+    }
+
+
+    private void deliver() {
+        try {
+            T update = this.take();
+            if (update != null) {
+                this.lastDelivery = System.nanoTime();
+                this.consumer.accept(update);
+            }
+        } catch (Exception e) {
+            log.warn("Consumer failed to process a conflated update. Error: {}", e.getMessage(), e);
+        } finally {
+            this.scheduled.set(false);
+            // an update that arrived while delivering couldn't schedule itself
+            if (this.hasPending()) {
+                this.scheduleDelivery();
+            }
+        }
+    }
+}
@@ -1,34 +1,67 @@
 package net.osslabz.mexc.client;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.jfr.DecodeEvent;
+import net.osslabz.mexc.client.jfr.SubscriptionCommandEvent;
+import net.osslabz.mexc.client.metrics.LatencyMetrics;
+import net.osslabz.mexc.client.metrics.LatencyRecorder;
+import net.osslabz.mexc.client.metrics.LatencyStage;
+import net.osslabz.mexc.client.ws.DispatchPipeline;
+import net.osslabz.mexc.client.ws.EndpointSelector;
+import net.osslabz.mexc.client.ws.FrameJournalReader;
+import net.osslabz.mexc.client.ws.FrameJournalWriter;
+import net.osslabz.mexc.client.ws.JsonPushMessageReader;
 import net.osslabz.mexc.client.ws.MexcWebSocketClient;
-import net.osslabz.mexc.client.ws.WebSocketListener;
+import net.osslabz.mexc.client.ws.PingPolicy;
+import net.osslabz.mexc.client.ws.ProtobufPushMessageReader;
+import net.osslabz.mexc.client.ws.ProtobufReader;
+import net.osslabz.mexc.client.ws.ReconnectBackoff;
+import net.osslabz.mexc.client.ws.RttStats;
+import net.osslabz.mexc.client.ws.WebSocketConnectionPool;
 import net.osslabz.mexc.client.ws.dto.Method;
 import net.osslabz.mexc.client.ws.dto.SubscriptionCommand;
 import net.osslabz.mexc.client.ws.dto.SubscriptionCommandResponse;
 import net.osslabz.mexc.client.ws.dto.SubscriptionInfo;
 import net.osslabz.mexc.client.ws.dto.SubscriptionState;
+import net.osslabz.mexc.client.ws.dto.raw.RawBaseMessage;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Slf4j
 public abstract class MexcClient implements Closeable {
 
     protected static final String BASE_URI = "wss://wbs.mexc.com/ws";
 
+    /**
+     * Receive time of a frame whose latency isn't measured.
+     */
+    private static final long NOT_MEASURED = 0;
+
     protected final ObjectMapper objectMapper;
 
     protected final MexcMapper mapper = new MexcMapper();
@@ -37,47 +70,129 @@ public abstract class MexcClient implements Closeable {
 
     private final AtomicInteger requestIdCounter = new AtomicInteger(0);
 
-    protected String uri;
+    /**
+     * Query appended to the endpoint a connection connects to, e.g. the listen key of a private client, null for none.
+     */
+    protected String uriQuery;
+
+    protected final MexcClientConfig config;
+
+    /**
+     * The (un)subscribe commands that haven't been answered yet, by request id.
+     */
+    private final Map<Integer, PendingCommand> pendingCommands = new ConcurrentHashMap<>();
+
+    /**
+     * Guards the lazy creation of the connection pool and the conflation scheduler.
+     */
+    private final Object initLock = new Object();
+
+    private volatile WebSocketConnectionPool connectionPool;
+
+    private volatile DispatchPipeline dispatchPipeline;
 
-    private MexcWebSocketClient webSocketClient;
+    private volatile FrameJournalWriter journal;
+
+    /**
+     * Delivers the updates of conflating subscriptions and closed bars, created with the first one that needs it. Its
+     * threads are shared, but each subscription is delivered to on one of them at a time, so a slow consumer only holds
+     * up itself.
+     */
+    private volatile ScheduledExecutorService conflationScheduler;
+
+    /**
+     * Wall clock and {@link System#nanoTime()} at the same instant, to turn receive times into epoch nanos.
+     */
+    private final long epochNanosBase;
+
+    private final long nanoTimeBase;
+
+    /**
+     * Counts decoded messages to sample the decode events, shared by the read threads and dispatch workers.
+     */
+    private final AtomicInteger decodeCounter = new AtomicInteger();
 
 
     public MexcClient() {
+        this(MexcClientConfig.DEFAULT);
+    }
+
+
+    public MexcClient(MexcClientConfig config) {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        this.uri = BASE_URI;
+        if (config.getDecodeEventSampleRate() < 1) {
+            throw new IllegalArgumentException("decodeEventSampleRate must be positive but was " + config.getDecodeEventSampleRate());
+        }
+        this.config = config;
+        Instant now = Instant.now();
+        this.epochNanosBase = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.nanoTimeBase = System.nanoTime();
     }
 
-    private void initWebSocketClient() {
+    private void initConnectionPool() {
 
-        try {
-            this.webSocketClient = new MexcWebSocketClient(new URI(this.uri), new WebSocketListener() {
-                @Override
-                public void onOpen() {
-                    resubscribe();
-                }
+        if (this.config.getJournalDirectory() != null) {
+            this.journal = new FrameJournalWriter(this.config.getJournalDirectory(), this.config.getJournalSegmentSize());
+        }
 
+        if (this.config.getDispatchThreads() > 0) {
+            this.dispatchPipeline = new DispatchPipeline(this.config.getDispatchThreads(), this.config.getDispatchQueueCapacity(), new DispatchPipeline.FrameHandler() {
                 @Override
-                public void onMessage(String message) {
-                    log.trace("Received message: {}", message);
-                    handleMessage(message);
+                public void onMessage(String message, long receiveNanos) {
+                    handleMessage(message, receiveNanos);
                 }
 
                 @Override
-                public void onMessage(ByteBuffer bytes) {
-                    throw new IllegalArgumentException("Not implemented");
+                public void onMessage(ByteBuffer bytes, long receiveNanos) {
+                    handleMessage(bytes, receiveNanos);
                 }
+            });
+        }
 
-                @Override
-                public void onError(Exception e) {
+        this.connectionPool = new WebSocketConnectionPool(new EndpointSelector(this.config.getEndpoints()), this::createUri,
+                new ReconnectBackoff(this.config.getReconnectInitialDelay(), this.config.getReconnectMaxDelay()),
+                new PingPolicy(this.config.getPingInterval(), this.config.getDegradedRttFactor(), this.config.getDegradedRttFloor()), this.config.getMaxSubscriptionsPerConnection(),
+                this.config.getMaxMessagesPerSecond(), this.config.getMaxParamsPerFrame(), new WebSocketConnectionPool.PoolListener() {
+            @Override
+            public void onOpen(int connectionId, Set<String> subscriptionIdentifiers) {
+                resubscribe(connectionId, subscriptionIdentifiers);
+            }
 
-                }
+            @Override
+            public void onClose(MexcWebSocketClient connection) {
+                dropPendingCommands(connection);
+            }
 
-                @Override
-                public void onClose(int code, String reason, boolean remote) {
+            @Override
+            public void onMessage(String message, long receiveNanos) {
+                log.trace("Received message: {}", message);
+                FrameJournalWriter journal = MexcClient.this.journal;
+                if (journal != null) {
+                    journal.append(message);
+                }
+                route(message, receiveNanos);
+            }
 
+            @Override
+            public void onMessage(ByteBuffer bytes, long receiveNanos) {
+                log.trace("Received binary message: {}", bytes);
+                FrameJournalWriter journal = MexcClient.this.journal;
+                if (journal != null) {
+                    journal.append(bytes);
                 }
-            });
+                route(bytes, receiveNanos);
+            }
+        }, this::sendCommand);
+    }
+
+
+    private URI createUri(URI endpoint) {
+        if (this.uriQuery == null) {
+            return endpoint;
+        }
+        try {
+            return new URI(endpoint + "?" + this.uriQuery);
         } catch (URISyntaxException e) {
             throw new RuntimeException(e);
         }
@@ -87,87 +202,424 @@ public abstract class MexcClient implements Closeable {
     @Override
     public void close() {
 
-        if (this.webSocketClient == null) {
+        if (this.connectionPool == null) {
             return;
         }
 
         if (!activeSubscriptions.isEmpty()) {
             log.info("Cancelling {} subscription(s) before closing...", activeSubscriptions.size());
-            this.activeSubscriptions.forEach((identifier, ohlcSubscriptionInfo) -> {
-                try {
-                    this.unsubscribe(identifier);
-                } catch (Exception e) {
-                    log.warn("Couldn't unsubscribe {}. Error: {}", identifier, e.getMessage());
-                }
-            });
+            try {
+                this.unsubscribe(List.copyOf(this.activeSubscriptions.keySet()));
+            } catch (Exception e) {
+                log.warn("Couldn't unsubscribe {} subscription(s). Error: {}", activeSubscriptions.size(), e.getMessage());
+            }
+        }
+
+        this.connectionPool.close();
+        this.connectionPool = null;
+        this.dropPendingCommands(pendingCommand -> true);
+
+        if (this.dispatchPipeline != null) {
+            this.dispatchPipeline.close();
+            this.dispatchPipeline = null;
+        }
+
+        if (this.journal != null) {
+            this.journal.close();
+            this.journal = null;
         }
 
-        this.webSocketClient.close();
-        this.webSocketClient = null;
+        if (this.conflationScheduler != null) {
+            this.conflationScheduler.shutdown();
+            this.conflationScheduler = null;
+        }
     }
 
 
-    private void resubscribe() {
-        if (!activeSubscriptions.isEmpty()) {
-            log.info("Trying to (re-)subscribe {} subscription(s)", activeSubscriptions.size());
-            this.activeSubscriptions.forEach((identifier, ohlcSubscriptionInfo) -> this.subscribe(ohlcSubscriptionInfo));
+    /**
+     * Feeds the frames of a journal recorded via {@link MexcClientConfig#getJournalDirectory()} through the same path
+     * as received frames, so only messages of active subscriptions are delivered. Combine with
+     * {@link MexcClientConfig#isOffline()} to replay without a connection. A speed of 1 keeps the original pace,
+     * higher values replay faster, 0 as fast as possible. Returns the number of frames replayed, frames may still be
+     * queued in the dispatch pipeline at that point. Latencies of replayed frames aren't measured.
+     */
+    public long replay(Path journalDirectory, double speed) {
+        this.getConnectionPool();
+        return new FrameJournalReader(journalDirectory).replay(new FrameJournalReader.FrameListener() {
+            @Override
+            public void onMessage(long receiveTime, String message) {
+                route(message, NOT_MEASURED);
+            }
+
+            @Override
+            public void onMessage(long receiveTime, ByteBuffer message) {
+                route(message, NOT_MEASURED);
+            }
+        }, speed);
+    }
+
+
+    /**
+     * Returns the number of open WebSocket connections.
+     */
+    public int getConnectionCount() {
+        WebSocketConnectionPool pool = this.connectionPool;
+        return pool == null ? 0 : pool.getConnectionCount();
+    }
+
+
+    /**
+     * Returns the PING round trip times per connection id.
+     */
+    public Map<Integer, RttStats> getRoundTripTimes() {
+        WebSocketConnectionPool pool = this.connectionPool;
+        return pool == null ? Map.of() : pool.getRttStats();
+    }
+
+
+    /**
+     * Returns the number of push messages waiting to be processed, always 0 without a dispatch pipeline.
+     */
+    public int getDispatchQueueDepth() {
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        return pipeline == null ? 0 : pipeline.getQueueDepth();
+    }
+
+
+    /**
+     * Returns the number of push messages that were dropped or rejected because a dispatch queue was full.
+     */
+    public long getDispatchOverflowCount() {
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        return pipeline == null ? 0 : pipeline.getDroppedCount() + pipeline.getRejectedCount();
+    }
+
+
+    /**
+     * Returns the number of push messages of the subscription that were dropped or rejected because its dispatch
+     * queue was full.
+     */
+    public long getDispatchOverflowCount(String subscriptionIdentifier) {
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        return pipeline == null ? 0 : pipeline.getDroppedCount(subscriptionIdentifier) + pipeline.getRejectedCount(subscriptionIdentifier);
+    }
+
+
+    private void resubscribe(int connectionId, Set<String> subscriptionIdentifiers) {
+        if (!subscriptionIdentifiers.isEmpty()) {
+            log.info("Trying to (re-)subscribe {} subscription(s) on connection {}", subscriptionIdentifiers.size(), connectionId);
+            List<SubscriptionInfo> subscriptionInfos = subscriptionIdentifiers.stream()
+                    .map(this.activeSubscriptions::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            this.beforeResubscribe(subscriptionInfos);
+            this.getConnectionPool().subscribe(subscriptionInfos.stream().map(SubscriptionInfo::getSubscriptionIdentifier).toList());
+        }
+    }
+
+
+    /**
+     * Called on the socket thread when a connection has been (re-)opened, before its subscriptions are sent again.
+     */
+    protected void beforeResubscribe(Collection<SubscriptionInfo> subscriptionInfos) {
+    }
+
+
+    /**
+     * Hands a push message to the dispatch pipeline if there is one, only the channel is looked at on the socket
+     * thread. Command responses and messages of unknown channels are handled right away.
+     */
+    private void route(String message, long receiveNanos) {
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        SubscriptionInfo subscriptionInfo = pipeline == null ? null : this.findSubscription(JsonPushMessageReader.peekChannel(message));
+        if (subscriptionInfo == null) {
+            this.handleMessage(message, receiveNanos);
+            return;
         }
+        pipeline.submit(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo.getShardKey(), message, receiveNanos, subscriptionInfo.getOptions().getOverflowPolicy());
     }
 
-    protected String getIdentifier(JsonNode jsonNode) {
 
-        if (jsonNode.has("c") && jsonNode.get("c") != null && StringUtils.isNotBlank(jsonNode.get("c").asText())) {
-            return jsonNode.get("c").asText();
+    private void route(ByteBuffer message, long receiveNanos) {
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        SubscriptionInfo subscriptionInfo = pipeline == null ? null : this.findSubscription(ProtobufPushMessageReader.peekChannel(message));
+        if (subscriptionInfo == null) {
+            this.handleMessage(message, receiveNanos);
+            return;
         }
-        return null;
+        // Java-WebSocket allocates a new buffer per frame, so it can be handed over without copying
+        pipeline.submit(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo.getShardKey(), message, receiveNanos, subscriptionInfo.getOptions().getOverflowPolicy());
+    }
 
+
+    private SubscriptionInfo findSubscription(String identifier) {
+        return identifier == null ? null : this.activeSubscriptions.get(identifier);
     }
 
 
-    private void handleMessage(String message) {
-        try {
-            JsonNode jsonNode = this.objectMapper.readTree(message);
+    void handleMessage(String message) {
+        this.handleMessage(message, System.nanoTime());
+    }
 
-            if (this.isSubscriptionCommandResponse(jsonNode)) {
-                this.processSubscriptionCommandResponse(jsonNode);
+
+    /**
+     * @param receiveNanos {@link System#nanoTime()} the frame arrived at, {@link #NOT_MEASURED} if unknown
+     */
+    void handleMessage(String message, long receiveNanos) {
+        DecodeEvent decodeEvent = this.sampleDecode("json", message.length());
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(message)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Received a message that isn't a JSON object, won't be processed: {}", message);
                 return;
             }
 
-            String identifier = this.getIdentifier(jsonNode);
-            if (identifier == null) {
-                log.warn("Received a message without an identifier, won't be processed: {}", message);
+            String identifier = null;
+            SubscriptionInfo subscriptionInfo = null;
+            RawBaseMessage rawMessage = null;
+            TokenBuffer deferredData = null;
+
+            String symbol = null;
+            long time = 0;
+
+            Integer id = null;
+            Integer code = null;
+            String msg = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "c" -> {
+                        identifier = parser.getValueAsString();
+                        if (StringUtils.isBlank(identifier)) {
+                            log.warn("Received a message without an identifier, won't be processed: {}", message);
+                            return;
+                        }
+                        subscriptionInfo = this.activeSubscriptions.get(identifier);
+                        if (subscriptionInfo == null) {
+                            log.warn("Received a message without an unmanaged identifier, won't be processed: {}", message);
+                            return;
+                        }
+                    }
+                    case "d" -> {
+                        if (subscriptionInfo != null) {
+                            rawMessage = this.readData(subscriptionInfo, parser);
+                        } else {
+                            // the channel usually comes first, keep the tokens for the rare case it doesn't
+                            deferredData = TokenBuffer.asCopyOfValue(parser);
+                        }
+                    }
+                    case "s" -> symbol = this.readSymbol(parser);
+                    case "t" -> time = parser.getValueAsLong();
+                    case "id" -> id = parser.getValueAsInt();
+                    case "code" -> code = parser.getValueAsInt();
+                    case "msg" -> msg = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (code != null && msg != null) {
+                this.processSubscriptionCommandResponse(new SubscriptionCommandResponse(id == null ? 0 : id, code, msg));
                 return;
             }
 
-            SubscriptionInfo subscriptionInfo = this.activeSubscriptions.get(identifier);
             if (subscriptionInfo == null) {
-                log.warn("Received a message without an unmanaged identifier, won't be processed: {}", message);
+                log.warn("Received a message without an identifier, won't be processed: {}", message);
                 return;
             }
 
+            if (rawMessage == null && deferredData != null) {
+                try (JsonParser deferredParser = deferredData.asParserOnFirstToken()) {
+                    rawMessage = this.readData(subscriptionInfo, deferredParser);
+                }
+            }
 
-            Object mapped = this.doHandleMessage(subscriptionInfo, jsonNode);
-            if (mapped == null) {
-                log.warn("Unknown message received that won't be processed: {}", jsonNode);
+            if (rawMessage == null) {
+                log.warn("Unknown message received that won't be processed: {}", message);
+                return;
             }
 
-            subscriptionInfo.getConsumer().accept(mapped);
+            this.dispatch(subscriptionInfo, rawMessage, identifier, symbol, time, receiveNanos, decodeEvent);
 
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             throw new MexcClientException(e);
         }
     }
 
-    protected abstract Object doHandleMessage(SubscriptionInfo subscriptionInfo, JsonNode jsonNode);
+
+    /**
+     * Returns the interned symbol name, known symbols are looked up without creating a String.
+     */
+    private String readSymbol(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return parser.getValueAsString();
+        }
+        return SymbolTable.global().lookup(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()).getName();
+    }
 
 
-    private void processSubscriptionCommandResponse(JsonNode jsonNode) throws JsonProcessingException {
+    /**
+     * Handles a protobuf encoded push message (PushDataV3ApiWrapper). The frame is read in place, the body is decoded
+     * once the channel is known regardless of the field order.
+     */
+    void handleMessage(ByteBuffer message) {
+        this.handleMessage(message, System.nanoTime());
+    }
 
-        SubscriptionCommandResponse subscriptionCommandResponse = this.objectMapper.treeToValue(jsonNode, SubscriptionCommandResponse.class);
-        String subscriptionIdentifier = subscriptionCommandResponse.getMessage();
+
+    void handleMessage(ByteBuffer message, long receiveNanos) {
+
+        DecodeEvent decodeEvent = this.sampleDecode("protobuf", message.remaining());
+        ProtobufReader reader = new ProtobufReader(message);
+
+        String identifier = null;
+        String symbol = null;
+        long createTime = 0;
+        long sendTime = 0;
+
+        int bodyField = 0;
+        ProtobufReader body = null;
+
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            int field = ProtobufReader.fieldNumber(tag);
+            switch (field) {
+                case ProtobufPushMessageReader.WRAPPER_CHANNEL -> identifier = reader.readString();
+                case ProtobufPushMessageReader.WRAPPER_SYMBOL -> symbol = reader.readSymbol(SymbolTable.global()).getName();
+                case ProtobufPushMessageReader.WRAPPER_CREATE_TIME -> createTime = reader.readInt64();
+                case ProtobufPushMessageReader.WRAPPER_SEND_TIME -> sendTime = reader.readInt64();
+                default -> {
+                    if (ProtobufReader.wireType(tag) == ProtobufReader.WIRE_TYPE_LENGTH_DELIMITED && body == null && field > ProtobufPushMessageReader.WRAPPER_SEND_TIME) {
+                        bodyField = field;
+                        body = reader.readMessage();
+                    } else {
+                        reader.skipField(tag);
+                    }
+                }
+            }
+        }
+
+        if (StringUtils.isBlank(identifier)) {
+            log.warn("Received a binary message without an identifier, won't be processed: {}", message);
+            return;
+        }
+
+        SubscriptionInfo subscriptionInfo = this.activeSubscriptions.get(identifier);
+        if (subscriptionInfo == null) {
+            log.warn("Received a binary message with an unmanaged identifier {}, won't be processed", identifier);
+            return;
+        }
+
+        RawBaseMessage rawMessage = body == null ? null : this.readData(subscriptionInfo, bodyField, body);
+        if (rawMessage == null) {
+            log.warn("Unknown binary message received for {} that won't be processed (body field={})", identifier, bodyField);
+            return;
+        }
+
+        this.dispatch(subscriptionInfo, rawMessage, identifier, symbol, createTime > 0 ? createTime : sendTime, receiveNanos, decodeEvent);
+    }
+
+
+    /**
+     * Returns a begun decode event for every n-th message while the event is enabled, null otherwise.
+     */
+    private DecodeEvent sampleDecode(String encoding, int size) {
+        if (this.decodeCounter.incrementAndGet() % this.config.getDecodeEventSampleRate() != 0) {
+            return null;
+        }
+        DecodeEvent event = new DecodeEvent(encoding, size);
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+
+    /**
+     * @param decodeEvent committed once the message is mapped, null if it isn't sampled
+     */
+    private void dispatch(SubscriptionInfo subscriptionInfo, RawBaseMessage rawMessage, String identifier, String symbol, long time, long receiveNanos,
+                          DecodeEvent decodeEvent) {
+
+        rawMessage.setIdentifier(identifier);
+        rawMessage.setSymbol(symbol);
+        rawMessage.setTime(time);
+
+        Object mapped = this.doHandleMessage(subscriptionInfo, rawMessage);
+        if (mapped == null) {
+            log.warn("Unknown message received that won't be processed: {}", rawMessage);
+            return;
+        }
+        if (decodeEvent != null) {
+            decodeEvent.commit(identifier);
+        }
+
+        LatencyRecorder recorder = subscriptionInfo.getLatencyRecorder();
+        if (recorder == null || receiveNanos == NOT_MEASURED) {
+            this.deliver(subscriptionInfo, mapped);
+            return;
+        }
+
+        long decodedNanos = System.nanoTime();
+        this.deliver(subscriptionInfo, mapped);
+        long consumedNanos = System.nanoTime();
+
+        if (time > 0) {
+            recorder.record(LatencyStage.EXCHANGE_TO_RECEIVE, this.epochNanosBase + (receiveNanos - this.nanoTimeBase) - time * 1_000_000);
+        }
+        recorder.record(LatencyStage.RECEIVE_TO_DECODED, decodedNanos - receiveNanos);
+        recorder.record(LatencyStage.DECODED_TO_CONSUMED, consumedNanos - decodedNanos);
+    }
+
+
+    /**
+     * Hands a mapped message to the subscription's consumer.
+     */
+    protected void deliver(SubscriptionInfo subscriptionInfo, Object mapped) {
+        subscriptionInfo.getConsumer().accept(mapped);
+    }
+
+
+    /**
+     * Reads the data part ("d") of a push message for the given subscription. The parser is positioned on the first
+     * token of the value and has to be left on its last token. Returns null if the message type isn't supported.
+     */
+    protected abstract RawBaseMessage readData(SubscriptionInfo subscriptionInfo, JsonParser parser) throws IOException;
+
+    /**
+     * Reads the body of a protobuf push message for the given subscription. bodyField is the field number of the
+     * wrapper's body (e.g. 308 for klines). Returns null if the message type isn't supported.
+     */
+    protected abstract RawBaseMessage readData(SubscriptionInfo subscriptionInfo, int bodyField, ProtobufReader body);
+
+    protected abstract Object doHandleMessage(SubscriptionInfo subscriptionInfo, RawBaseMessage rawMessage);
+
+
+    private void processSubscriptionCommandResponse(SubscriptionCommandResponse subscriptionCommandResponse) {
+
+        // a command may carry several channels, MEXC answers once per command
+        PendingCommand pendingCommand = this.pendingCommands.remove(subscriptionCommandResponse.getId());
+        List<String> subscriptionIdentifiers;
+        if (pendingCommand != null) {
+            pendingCommand.event().commit(subscriptionCommandResponse.isSuccess(), subscriptionCommandResponse.getCode());
+            subscriptionIdentifiers = pendingCommand.subscriptionIdentifiers();
+            WebSocketConnectionPool pool = this.connectionPool;
+            if (pool != null && pendingCommand.method() == Method.SUBSCRIPTION && subscriptionCommandResponse.isSuccess()) {
+                pool.confirmSubscribed(pendingCommand.connection(), subscriptionIdentifiers);
+            }
+        } else {
+            subscriptionIdentifiers = List.of(StringUtils.split(subscriptionCommandResponse.getMessage(), ','));
+        }
+        subscriptionIdentifiers.forEach(subscriptionIdentifier -> this.processSubscriptionCommandResponse(subscriptionCommandResponse, subscriptionIdentifier));
+    }
+
+
+    private void processSubscriptionCommandResponse(SubscriptionCommandResponse subscriptionCommandResponse, String subscriptionIdentifier) {
 
         if (!this.activeSubscriptions.containsKey(subscriptionIdentifier)) {
-            log.warn("Unexpected message for subscriptionIdentifier={}: {}", subscriptionIdentifier, jsonNode);
+            log.warn("Unexpected message for subscriptionIdentifier={}: {}", subscriptionIdentifier, subscriptionCommandResponse);
             return;
         }
 
@@ -187,6 +639,11 @@ public abstract class MexcClient implements Closeable {
         if (Objects.equals(subscriptionCommandResponse.getId(), ohlcSubscriptionInfo.getUnsubscribeRequestId())) {
             if (subscriptionCommandResponse.isSuccess()) {
                 activeSubscriptions.remove(subscriptionIdentifier);
+                this.removeSubscriptionState(subscriptionIdentifier);
+                WebSocketConnectionPool pool = this.connectionPool;
+                if (pool != null) {
+                    pool.release(subscriptionIdentifier);
+                }
                 log.info("Subscription {} successfully unsubscribed", subscriptionIdentifier);
                 if (this.activeSubscriptions.isEmpty()) {
                     log.info("No open subscriptions, closing connection.");
@@ -200,24 +657,139 @@ public abstract class MexcClient implements Closeable {
     }
 
 
-    private boolean isSubscriptionCommandResponse(JsonNode jsonNode) {
-        return jsonNode.has("code") && jsonNode.has("msg");
+    protected void subscribe(SubscriptionInfo subscriptionInfo) {
+        this.subscribe(List.of(subscriptionInfo));
     }
 
 
-    protected void subscribe(SubscriptionInfo subscriptionInfo) {
-        int requestId = this.getNextRequestId();
-        subscriptionInfo.setSubscribeRequestId(requestId);
-        activeSubscriptions.put(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo);
-
-        this.send(new SubscriptionCommand(requestId, Method.SUBSCRIPTION, List.of(subscriptionInfo.getSubscriptionIdentifier())));
+    /**
+     * Queues the subscriptions, they are sent packed into as few frames as the rate limit allows.
+     */
+    protected void subscribe(Collection<? extends SubscriptionInfo> subscriptionInfos) {
+        subscriptionInfos.forEach(subscriptionInfo -> {
+            Duration conflationInterval = subscriptionInfo.getOptions().getConflationInterval();
+            if (conflationInterval != null) {
+                subscriptionInfo.setConsumer(this.createConflatingConsumer(subscriptionInfo, conflationInterval));
+            }
+            LatencyMetrics latencyMetrics = this.config.getLatencyMetrics();
+            if (latencyMetrics != null) {
+                subscriptionInfo.setLatencyRecorder(latencyMetrics.createRecorder(subscriptionInfo.getSubscriptionIdentifier()));
+            }
+            activeSubscriptions.put(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo);
+        });
+        WebSocketConnectionPool pool = this.getConnectionPool();
+        if (this.config.isOffline()) {
+            subscriptionInfos.forEach(subscriptionInfo -> subscriptionInfo.setState(SubscriptionState.SUBSCRIBED));
+            return;
+        }
+        pool.subscribe(subscriptionInfos.stream().map(SubscriptionInfo::getSubscriptionIdentifier).toList());
     }
 
 
     protected void unsubscribe(String subscriptionIdentifier) {
+        this.unsubscribe(List.of(subscriptionIdentifier));
+    }
+
+
+    protected void unsubscribe(Collection<String> subscriptionIdentifiers) {
+        if (this.config.isOffline()) {
+            subscriptionIdentifiers.forEach(subscriptionIdentifier -> {
+                this.activeSubscriptions.remove(subscriptionIdentifier);
+                this.removeSubscriptionState(subscriptionIdentifier);
+            });
+            return;
+        }
+        this.getConnectionPool().unsubscribe(subscriptionIdentifiers);
+    }
+
+
+    private void removeSubscriptionState(String subscriptionIdentifier) {
+        LatencyMetrics latencyMetrics = this.config.getLatencyMetrics();
+        if (latencyMetrics != null) {
+            latencyMetrics.remove(subscriptionIdentifier);
+        }
+        DispatchPipeline pipeline = this.dispatchPipeline;
+        if (pipeline != null) {
+            pipeline.remove(subscriptionIdentifier);
+        }
+    }
+
+
+    /**
+     * Wraps the consumer of a subscription that conflates its updates. Mapped updates are immutable, so the newest
+     * one is simply referenced, subclasses delivering reused objects have to copy them.
+     */
+    @SuppressWarnings("unchecked")
+    protected Consumer<?> createConflatingConsumer(SubscriptionInfo subscriptionInfo, Duration conflationInterval) {
+        return ConflatingConsumer.latest((Consumer<Object>) subscriptionInfo.getConsumer(), conflationInterval, this.getConflationScheduler());
+    }
+
+
+    protected ScheduledExecutorService getConflationScheduler() {
+        if (this.conflationScheduler == null) {
+            synchronized (this.initLock) {
+                if (this.conflationScheduler == null) {
+                    AtomicInteger threadCounter = new AtomicInteger();
+                    this.conflationScheduler = Executors.newScheduledThreadPool(this.config.getConflationThreads(), runnable -> {
+                        Thread thread = new Thread(runnable);
+                        thread.setDaemon(true);
+                        thread.setName("mexc-conflation-" + threadCounter.incrementAndGet());
+                        return thread;
+                    });
+                }
+            }
+        }
+        return this.conflationScheduler;
+    }
+
+
+    /**
+     * Sends a single (un)subscribe frame, called by the outbound queue of the connection.
+     */
+    private void sendCommand(MexcWebSocketClient connection, Method method, List<String> subscriptionIdentifiers) {
         int requestId = this.getNextRequestId();
-        this.activeSubscriptions.get(subscriptionIdentifier).setUnsubscribeRequestId(requestId);
-        this.send(new SubscriptionCommand(requestId, Method.UNSUBSCRIPTION, List.of(subscriptionIdentifier)));
+        subscriptionIdentifiers.forEach(subscriptionIdentifier -> {
+            SubscriptionInfo subscriptionInfo = this.activeSubscriptions.get(subscriptionIdentifier);
+            if (subscriptionInfo == null) {
+                return;
+            }
+            if (method == Method.SUBSCRIPTION) {
+                subscriptionInfo.setSubscribeRequestId(requestId);
+            } else {
+                subscriptionInfo.setUnsubscribeRequestId(requestId);
+            }
+        });
+        SubscriptionCommandEvent event = new SubscriptionCommandEvent(requestId, method.name(), subscriptionIdentifiers);
+        event.begin();
+        this.pendingCommands.put(requestId, new PendingCommand(connection, method, subscriptionIdentifiers, event));
+        try {
+            this.send(connection, new SubscriptionCommand(requestId, method, subscriptionIdentifiers));
+        } catch (RuntimeException e) {
+            this.dropPendingCommands(pendingCommand -> pendingCommand.event() == event);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Forgets the commands sent on a closed connection, they won't be answered. Its subscriptions are sent again
+     * when it reconnects.
+     */
+    private void dropPendingCommands(MexcWebSocketClient connection) {
+        this.dropPendingCommands(pendingCommand -> pendingCommand.connection() == connection);
+    }
+
+
+    /**
+     * Forgets the matching commands, their events are recorded as unanswered.
+     */
+    private void dropPendingCommands(Predicate<PendingCommand> filter) {
+        this.pendingCommands.forEach((requestId, pendingCommand) -> {
+            // an answer arriving meanwhile has committed the event already
+            if (filter.test(pendingCommand) && this.pendingCommands.remove(requestId, pendingCommand)) {
+                pendingCommand.event().commit(false, SubscriptionCommandEvent.UNANSWERED);
+            }
+        });
     }
 
 
@@ -226,21 +798,21 @@ public abstract class MexcClient implements Closeable {
     }
 
 
-    private void send(Object o) {
+    private void send(MexcWebSocketClient connection, Object o) {
         String jsonString = asJsonString(o);
 
-        this.getWebSocketClient().send(jsonString);
+        connection.send(jsonString);
     }
 
-    private MexcWebSocketClient getWebSocketClient() {
-        if (this.webSocketClient == null) {
-            synchronized (this.objectMapper) {
-                if (this.webSocketClient == null) {
-                    initWebSocketClient();
+    private WebSocketConnectionPool getConnectionPool() {
+        if (this.connectionPool == null) {
+            synchronized (this.initLock) {
+                if (this.connectionPool == null) {
+                    initConnectionPool();
                 }
             }
         }
-        return webSocketClient;
+        return connectionPool;
     }
 
 
@@ -251,4 +823,8 @@ public abstract class MexcClient implements Closeable {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+
+    private record PendingCommand(MexcWebSocketClient connection, Method method, List<String> subscriptionIdentifiers, SubscriptionCommandEvent event) {
+    }
+}
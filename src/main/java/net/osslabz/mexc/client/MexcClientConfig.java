@@ -0,0 +1,172 @@
+package net.osslabz.mexc.client;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import net.osslabz.mexc.client.metrics.LatencyMetrics;
+import net.osslabz.mexc.client.rest.MexcRestClientConfig;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Connection level settings of a {@link MexcClient}, the defaults follow MEXC's documented limits.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class MexcClientConfig {
+
+    public static final MexcClientConfig DEFAULT = MexcClientConfig.builder().build();
+
+    /**
+     * Subscriptions are spread across as many connections as needed to stay within this limit.
+     */
+    @Builder.Default
+    private final int maxSubscriptionsPerConnection = 30;
+
+    /**
+     * Max. number of (un)subscribe frames sent per connection and second.
+     */
+    @Builder.Default
+    private final int maxMessagesPerSecond = 10;
+
+    /**
+     * Max. number of channels packed into a single (un)subscribe frame.
+     */
+    @Builder.Default
+    private final int maxParamsPerFrame = 30;
+
+    /**
+     * WebSocket endpoints a connection rotates through when it can't connect, the one with the lowest recent
+     * handshake latency is preferred, see {@link net.osslabz.mexc.client.ws.EndpointSelector}.
+     */
+    @Builder.Default
+    private final List<URI> endpoints = List.of(URI.create(MexcClient.BASE_URI));
+
+    /**
+     * Wait before the first reconnect attempt after a connection has been lost, doubled with every failed attempt.
+     * Each wait is jittered down to half of it.
+     */
+    @Builder.Default
+    private final Duration reconnectInitialDelay = Duration.ofMillis(100);
+
+    /**
+     * Upper limit of the wait between reconnect attempts.
+     */
+    @Builder.Default
+    private final Duration reconnectMaxDelay = Duration.ofSeconds(30);
+
+    /**
+     * Time between two application level PINGs per connection, Duration.ZERO doesn't send any. MEXC drops connections
+     * that stay silent for too long.
+     */
+    @Builder.Default
+    private final Duration pingInterval = Duration.ofSeconds(15);
+
+    /**
+     * A PING round trip longer than this factor times the recent median marks the connection as degraded, its
+     * subscriptions are moved to another connection.
+     */
+    @Builder.Default
+    private final double degradedRttFactor = 3;
+
+    /**
+     * Round trips up to this time never mark a connection as degraded.
+     */
+    @Builder.Default
+    private final Duration degradedRttFloor = Duration.ofMillis(250);
+
+    /**
+     * Number of worker threads parsing and dispatching push messages, messages of a symbol are always handled by the
+     * same worker. 0 processes messages on the socket threads.
+     */
+    @Builder.Default
+    private final int dispatchThreads = 0;
+
+    /**
+     * Max. number of push messages queued per subscription in the dispatch pipeline.
+     */
+    @Builder.Default
+    private final int dispatchQueueCapacity = 1024;
+
+    /**
+     * After a reconnect the klines that closed while the connection was down are fetched via REST and delivered
+     * before the live updates.
+     */
+    @Builder.Default
+    private final boolean gapFill = true;
+
+    /**
+     * Settings of the REST client used for gap fills.
+     */
+    @Builder.Default
+    private final MexcRestClientConfig restClientConfig = MexcRestClientConfig.DEFAULT;
+
+    /**
+     * Number of candles kept per currency pair and interval in the client's {@link net.osslabz.mexc.client.candle.CandleStore},
+     * 0 doesn't keep any.
+     */
+    @Builder.Default
+    private final int candleStoreCapacity = 0;
+
+    /**
+     * Time after its close time a bar is closed if no update of the next bar has arrived, MEXC's last update of a bar
+     * may arrive shortly after the boundary.
+     */
+    @Builder.Default
+    private final Duration barCloseGrace = Duration.ofSeconds(1);
+
+    /**
+     * Number of levels per side of the REST snapshot an order book subscription starts from, MEXC allows up to 5000.
+     */
+    @Builder.Default
+    private final int orderBookSnapshotLimit = 1000;
+
+    /**
+     * Wait before an order book snapshot is requested again after it failed or was too old to catch up.
+     */
+    @Builder.Default
+    private final Duration orderBookSnapshotRetryDelay = Duration.ofSeconds(1);
+
+    /**
+     * Directory every received frame is recorded to, see {@link net.osslabz.mexc.client.ws.FrameJournalWriter}. Null
+     * doesn't record anything.
+     */
+    private final Path journalDirectory;
+
+    /**
+     * Size of a journal segment file in bytes.
+     */
+    @Builder.Default
+    private final int journalSegmentSize = 64 * 1024 * 1024;
+
+    /**
+     * Subscriptions are only registered, no connection is opened. Used to feed recorded frames in via
+     * {@link MexcClient#replay(Path, double)}.
+     */
+    @Builder.Default
+    private final boolean offline = false;
+
+    /**
+     * Number of threads delivering the updates of conflating subscriptions and closed bars, a subscription uses one
+     * of them at a time. As many slow consumers as there are threads can delay the others.
+     */
+    @Builder.Default
+    private final int conflationThreads = 4;
+
+    /**
+     * Receives the latencies of every subscription's push messages, see {@link LatencyMetrics}. Null doesn't measure
+     * anything.
+     */
+    private final LatencyMetrics latencyMetrics;
+
+    /**
+     * Every n-th decoded push message is recorded as {@link net.osslabz.mexc.client.jfr.DecodeEvent} while a JFR
+     * recording has the event enabled, 1 records all of them.
+     */
+    @Builder.Default
+    private final int decodeEventSampleRate = 100;
+}
@@ -4,4 +4,12 @@ public class MexcClientException extends RuntimeException {
     public MexcClientException(Exception e) {
         super(e);
     }
+
+    public MexcClientException(String message) {
+        super(message);
+    }
+
+    public MexcClientException(String message, Exception e) {
+        super(message, e);
+    }
 }
\ No newline at end of file
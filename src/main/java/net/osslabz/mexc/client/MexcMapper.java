@@ -2,15 +2,16 @@ package net.osslabz.mexc.client;
 
 import net.osslabz.crypto.CryptoMathUtils;
 import net.osslabz.crypto.CurrencyPair;
-import net.osslabz.crypto.Exchange;
 import net.osslabz.crypto.Interval;
 import net.osslabz.crypto.Ohlc;
-import net.osslabz.crypto.OhlcAsset;
 import net.osslabz.crypto.Order;
 import net.osslabz.crypto.OrderAction;
 import net.osslabz.crypto.OrderStatus;
 import net.osslabz.crypto.OrderType;
 import net.osslabz.crypto.TradingAsset;
+import net.osslabz.mexc.client.rest.dto.Kline;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
+import net.osslabz.mexc.client.ws.dto.MessageFormat;
 import net.osslabz.mexc.client.ws.dto.SubscriptionInfo;
 import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
 import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
@@ -25,12 +26,12 @@ public class MexcMapper {
 
     public static final ZoneId ZONE_ID_UTC = ZoneId.of("UTC");
 
-    Ohlc map(CurrencyPair currencyPair, Interval interval, RawOhlc rawOhlc) {
+    Ohlc map(DecodeContext decodeContext, RawOhlc rawOhlc) {
 
         RawOhlc.OhlData.OhlcContent content = rawOhlc.getData().getContent();
 
         return Ohlc.builder()
-                .asset(new OhlcAsset(new TradingAsset(Exchange.MEXC, currencyPair), interval))
+                .asset(decodeContext.getOhlcAsset())
 
                 .updateTime(this.epochMillisToDate(rawOhlc.getTime()))
 
@@ -50,6 +51,33 @@ public class MexcMapper {
                 .build();
     }
 
+    /**
+     * Maps a kline of the REST API. Its close time is the last milli of the interval, it's mapped to the end of the
+     * interval like the websocket channel's.
+     */
+    public Ohlc map(DecodeContext decodeContext, Kline kline) {
+
+        return Ohlc.builder()
+                .asset(decodeContext.getOhlcAsset())
+
+                .updateTime(this.epochMillisToDate(kline.getCloseTime()))
+
+                .openTime(this.epochMillisToDate(kline.getOpenTime()))
+                .closeTime(this.epochMillisToDate(kline.getOpenTime() + decodeContext.getInterval().getDuration().toMillis()))
+
+                .openPrice(kline.getOpenPrice())
+                .highPrice(kline.getHighPrice())
+                .lowPrice(kline.getLowPrice())
+                .closePrice(kline.getClosePrice())
+
+                .volume(kline.getVolume())
+                .quantity(kline.getQuantity())
+
+                .avgPrice(this.calcAvgPrice(kline.getVolume(), kline.getQuantity(), kline.getClosePrice()))
+
+                .build();
+    }
+
     Order map(SubscriptionInfo subscriptionInfo, RawOrder rawOrder) {
 
         if (rawOrder == null || rawOrder.getData() == null) {
@@ -61,7 +89,7 @@ public class MexcMapper {
         return Order.builder()
                 .exchangeOrderId(data.getOrderId())
                 .clientOrderId(data.getClientOrderId())
-                .asset(new TradingAsset(Exchange.MEXC, this.mapCurrencyPair(rawOrder.getSymbol())))
+                .asset(this.mapTradingAsset(rawOrder.getSymbol()))
                 .action(this.mapAction(data.getType()))
                 .type(this.mapType(data.getTradeType()))
                 .status(this.mapStatus(data.getStatus()))
@@ -118,12 +146,12 @@ public class MexcMapper {
     }
 
 
-    private CurrencyPair mapCurrencyPair(String symbol) {
-        if (symbol.endsWith("USDT")) {
-            String baseCurrencyCode = symbol.substring(0, symbol.indexOf("USDT"));
-            return new CurrencyPair(baseCurrencyCode, "USDT");
+    private TradingAsset mapTradingAsset(String symbol) {
+        TradingAsset tradingAsset = SymbolTable.global().lookup(symbol).getTradingAsset();
+        if (tradingAsset == null) {
+            throw new IllegalArgumentException("Unsupported currency pair: " + symbol);
         }
-        throw new IllegalArgumentException("Unsupported currency pair: " + symbol);
+        return tradingAsset;
     }
 
 
@@ -138,7 +166,12 @@ public class MexcMapper {
 
 
     BigDecimal calcAvgPrice(RawOhlc.OhlData.OhlcContent content) {
-        return CryptoMathUtils.isLargerZero(content.getVolume()) && CryptoMathUtils.isLargerZero(content.getQuantity()) ? content.getVolume().divide(content.getQuantity(), 8, RoundingMode.HALF_UP) : content.getClosePrice();
+        return this.calcAvgPrice(content.getVolume(), content.getQuantity(), content.getClosePrice());
+    }
+
+
+    BigDecimal calcAvgPrice(BigDecimal volume, BigDecimal quantity, BigDecimal closePrice) {
+        return CryptoMathUtils.isLargerZero(volume) && CryptoMathUtils.isLargerZero(quantity) ? volume.divide(quantity, 8, RoundingMode.HALF_UP) : closePrice;
     }
 
 
@@ -148,6 +181,7 @@ public class MexcMapper {
             case 5 * 60 -> "Min5";
             case 15 * 60 -> "Min15";
             case 30 * 60 -> "Min30";
+            case 60 * 60 -> "Min60";
             case 4 * 60 * 60 -> "Hour4";
             case 8 * 60 * 60 -> "Hour8";
             case 24 * 60 * 60 -> "Day1";
@@ -157,12 +191,57 @@ public class MexcMapper {
     }
 
 
+    /**
+     * The REST API uses other interval codes than the websocket channels.
+     */
+    public String mapRestInterval(Interval interval) {
+        String restInterval = restIntervalCode(interval);
+        if (restInterval == null) {
+            throw new IllegalArgumentException("Unsupported interval %s".formatted(interval));
+        }
+        return restInterval;
+    }
+
+
+    /**
+     * Not every websocket interval can be fetched via REST, there's no 8 hour kline endpoint for example.
+     */
+    public boolean hasRestInterval(Interval interval) {
+        return restIntervalCode(interval) != null;
+    }
+
+
+    private static String restIntervalCode(Interval interval) {
+        return switch ((int) interval.getDuration().getSeconds()) {
+            case 60 -> "1m";
+            case 5 * 60 -> "5m";
+            case 15 * 60 -> "15m";
+            case 30 * 60 -> "30m";
+            case 60 * 60 -> "60m";
+            case 4 * 60 * 60 -> "4h";
+            case 24 * 60 * 60 -> "1d";
+            case 7 * 24 * 60 * 60 -> "1W";
+            default -> null;
+        };
+    }
+
+
     public String mapSymbol(CurrencyPair currencyPair) {
         return "%s%s".formatted(currencyPair.baseCurrencyCode(), currencyPair.counterCurrencyCode());
     }
 
 
     String calcSubscriptionIdentifier(CurrencyPair currencyPair, Interval interval) {
-        return "spot@public.kline.v3.api@" + currencyPair.baseCurrencyCode() + currencyPair.counterCurrencyCode() + "@" + mapInterval(interval);
+        return calcSubscriptionIdentifier(currencyPair, interval, MessageFormat.JSON);
+    }
+
+
+    String calcSubscriptionIdentifier(CurrencyPair currencyPair, Interval interval, MessageFormat format) {
+        return "spot@public.kline.v3.api" + format.getChannelSuffix() + "@" + currencyPair.baseCurrencyCode() + currencyPair.counterCurrencyCode() + "@" + mapInterval(interval);
+    }
+
+
+    String calcDepthSubscriptionIdentifier(CurrencyPair currencyPair, MessageFormat format) {
+        return "spot@public.increase.depth.v3.api" + format.getChannelSuffix() + "@" + currencyPair.baseCurrencyCode() + currencyPair.counterCurrencyCode();
     }
 }
\ No newline at end of file
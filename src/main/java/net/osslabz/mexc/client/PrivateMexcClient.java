@@ -1,16 +1,23 @@
 package net.osslabz.mexc.client;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import net.osslabz.crypto.Ohlc;
 import net.osslabz.crypto.Order;
 import net.osslabz.mexc.client.rest.UserDataClient;
+import net.osslabz.mexc.client.ws.JsonPushMessageReader;
+import net.osslabz.mexc.client.ws.ProtobufPushMessageReader;
+import net.osslabz.mexc.client.ws.ProtobufReader;
+import net.osslabz.mexc.client.ws.dto.ChannelType;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
 import net.osslabz.mexc.client.ws.dto.SubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.SubscriptionOptions;
 import net.osslabz.mexc.client.ws.dto.SubscriptionState;
+import net.osslabz.mexc.client.ws.dto.raw.RawBaseMessage;
 import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -20,6 +27,8 @@ public class PrivateMexcClient extends MexcClient {
 
     private final UserDataClient userDataClient;
 
+    private String orderSubscriptionIdentifier = ORDER_SUBSCRIPTION_IDENTIFIER;
+
 
     public PrivateMexcClient(String accessKey, String secretKey) {
         this.userDataClient = new UserDataClient(accessKey, secretKey);
@@ -27,14 +36,23 @@ public class PrivateMexcClient extends MexcClient {
 
 
     public void subscribeToOrders(Consumer<Ohlc> callback) {
+        this.subscribeToOrders(callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    public void subscribeToOrders(Consumer<Ohlc> callback, SubscriptionOptions options) {
 
         String listenKey = this.getActiveListenKey();
-        this.uri = BASE_URI + "?listenKey=" + listenKey;
+        this.uriQuery = "listenKey=" + listenKey;
+
+        this.orderSubscriptionIdentifier = ORDER_SUBSCRIPTION_IDENTIFIER + options.getFormat().getChannelSuffix();
 
         SubscriptionInfo subscriptionInfo = SubscriptionInfo.builder()
-                .subscriptionIdentifier(ORDER_SUBSCRIPTION_IDENTIFIER)
+                .subscriptionIdentifier(this.orderSubscriptionIdentifier)
+                .decodeContext(DecodeContext.ORDERS)
                 .state(SubscriptionState.INIT)
                 .consumer(callback)
+                .options(options)
                 .build();
 
         this.subscribe(subscriptionInfo);
@@ -42,46 +60,61 @@ public class PrivateMexcClient extends MexcClient {
 
 
     public void unsubscribeFromOrders() {
-        this.unsubscribe(ORDER_SUBSCRIPTION_IDENTIFIER);
+        this.unsubscribe(this.orderSubscriptionIdentifier);
     }
 
 
-    protected Object doHandleMessage(SubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
-
-        if (isOrder(subscriptionInfo, jsonNode)) {
-            return processOrderMessage(subscriptionInfo, jsonNode);
+    @Override
+    protected RawBaseMessage readData(SubscriptionInfo subscriptionInfo, JsonParser parser) throws IOException {
+        if (isOrder(subscriptionInfo)) {
+            RawOrder rawOrder = new RawOrder();
+            rawOrder.setData(JsonPushMessageReader.readOrderData(parser));
+            return rawOrder;
         }
+        parser.skipChildren();
         return null;
     }
 
 
-    private boolean isOrder(SubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
-        return subscriptionInfo.getSubscriptionIdentifier().equals(ORDER_SUBSCRIPTION_IDENTIFIER);
+    @Override
+    protected RawBaseMessage readData(SubscriptionInfo subscriptionInfo, int bodyField, ProtobufReader body) {
+        if (isOrder(subscriptionInfo) && bodyField == ProtobufPushMessageReader.BODY_PRIVATE_ORDERS) {
+            RawOrder rawOrder = new RawOrder();
+            rawOrder.setData(ProtobufPushMessageReader.readOrderData(body));
+            return rawOrder;
+        }
+        return null;
     }
 
 
-    private Order processOrderMessage(SubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
+    @Override
+    protected Object doHandleMessage(SubscriptionInfo subscriptionInfo, RawBaseMessage rawMessage) {
 
-        try {
-            RawOrder rawOrder = this.objectMapper.treeToValue(jsonNode, RawOrder.class);
-            log.trace("Order from exchange: {}", rawOrder);
-            Order order = this.mapper.map(subscriptionInfo, rawOrder);
-            log.trace("Mapped order: {}", order);
-            return order;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        if (isOrder(subscriptionInfo)) {
+            return processOrderMessage(subscriptionInfo, (RawOrder) rawMessage);
         }
+        return null;
+    }
+
+
+    private boolean isOrder(SubscriptionInfo subscriptionInfo) {
+        return subscriptionInfo.getDecodeContext().getChannelType() == ChannelType.ORDERS;
+    }
+
+
+    private Order processOrderMessage(SubscriptionInfo subscriptionInfo, RawOrder rawOrder) {
+        log.trace("Order from exchange: {}", rawOrder);
+        Order order = this.mapper.map(subscriptionInfo, rawOrder);
+        log.trace("Mapped order: {}", order);
+        return order;
     }
 
 
     private String getActiveListenKey() {
-        String listenKey = null;
-        List<String> listenKeys = userDataClient.getListenKeys();
-        if (listenKeys.isEmpty()) {
-            listenKey = userDataClient.createListenKey();
-        } else {
-            listenKey = listenKeys.get(0);
+        try {
+            return userDataClient.getOrCreateListenKeyAsync().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
-        return listenKey;
     }
 }
\ No newline at end of file
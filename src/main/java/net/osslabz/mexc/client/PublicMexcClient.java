@@ -1,70 +1,576 @@
 package net.osslabz.mexc.client;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import net.osslabz.crypto.CurrencyPair;
 import net.osslabz.crypto.Interval;
 import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.candle.BarCloser;
+import net.osslabz.mexc.client.candle.CandleAggregator;
+import net.osslabz.mexc.client.candle.CandleConsumer;
+import net.osslabz.mexc.client.candle.CandleSeries;
+import net.osslabz.mexc.client.candle.CandleStore;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.orderbook.DepthUpdate;
+import net.osslabz.mexc.client.orderbook.OrderBook;
+import net.osslabz.mexc.client.orderbook.OrderBookConsumer;
+import net.osslabz.mexc.client.orderbook.OrderBookSynchronizer;
+import net.osslabz.mexc.client.rest.MarketDataClient;
+import net.osslabz.mexc.client.utils.TimingWheel;
+import net.osslabz.mexc.client.ws.JsonPushMessageReader;
+import net.osslabz.mexc.client.ws.ProtobufPushMessageReader;
+import net.osslabz.mexc.client.ws.ProtobufReader;
+import net.osslabz.mexc.client.ws.dto.ChannelType;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
+import net.osslabz.mexc.client.ws.dto.DepthSubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.MessageFormat;
 import net.osslabz.mexc.client.ws.dto.OhlcSubscriptionInfo;
 import net.osslabz.mexc.client.ws.dto.SubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.SubscriptionOptions;
 import net.osslabz.mexc.client.ws.dto.SubscriptionState;
+import net.osslabz.mexc.client.ws.dto.raw.RawBaseMessage;
+import net.osslabz.mexc.client.ws.dto.raw.RawCandle;
+import net.osslabz.mexc.client.ws.dto.raw.RawDepth;
 import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 @Slf4j
 public class PublicMexcClient extends MexcClient {
 
+    /**
+     * Interval of the upstream subscription aggregated candles are built from.
+     */
+    public static final Interval AGGREGATION_BASE_INTERVAL = Interval.PT1M;
+
+    private static final long BAR_CLOSE_TICK_MILLIS = 100;
+
+    /**
+     * Aggregators fed by the base subscription of a currency pair.
+     */
+    private final Map<CurrencyPair, List<CandleAggregator>> aggregators = new HashMap<>();
+
+    /**
+     * Fetches the klines missed during a reconnect and the order book snapshots, created when first needed.
+     */
+    private volatile MarketDataClient marketDataClient;
+
+    /**
+     * Closes the bars of all subscriptions with a closed bar consumer, created with the first one.
+     */
+    private volatile TimingWheel barCloseWheel;
+
+    private final CandleStore candleStore = this.config.getCandleStoreCapacity() > 0 ? new CandleStore(this.config.getCandleStoreCapacity()) : null;
+
+
     public PublicMexcClient() {
     }
 
 
+    public PublicMexcClient(MexcClientConfig config) {
+        super(config);
+    }
+
+
     public void subscribeToOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback) {
+        this.subscribeToOhlc(currencyPair, interval, callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    public void subscribeToOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback, SubscriptionOptions options) {
+        this.subscribe(this.createOhlcSubscriptionInfo(currencyPair, interval, callback, options));
+    }
+
+
+    /**
+     * Delivers every update to the callback and each bar once it's final to the closedBarCallback, see
+     * {@link #subscribeToClosedOhlc(CurrencyPair, Interval, Consumer, SubscriptionOptions)}.
+     */
+    public void subscribeToOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback, Consumer<Ohlc> closedBarCallback, SubscriptionOptions options) {
+        this.subscribe(this.createOhlcSubscriptionInfo(currencyPair, interval, callback, closedBarCallback, options));
+    }
+
+
+    public void subscribeToClosedOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback) {
+        this.subscribeToClosedOhlc(currencyPair, interval, callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    /**
+     * Delivers each bar once it's final: when the first update of the next bar arrives or at its close time plus
+     * {@link MexcClientConfig#getBarCloseGrace()}, whichever comes first. A bar without trades is delivered flat at
+     * the previous close. The updates in between are decoded like a candle subscription and not delivered at all.
+     * Uses the same channel as an OHLC subscription, so it's cancelled via {@link #unsubscribeFromOhlc(CurrencyPair, Interval)}.
+     */
+    public void subscribeToClosedOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback, SubscriptionOptions options) {
+        this.subscribeToCandles(currencyPair, interval, candle -> {
+        }, callback, options);
+    }
+
+
+    public void subscribeToOhlc(Collection<CurrencyPair> currencyPairs, Interval interval, Consumer<Ohlc> callback) {
+        this.subscribeToOhlc(currencyPairs, interval, callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    /**
+     * Subscribes to several currency pairs at once, the subscriptions are packed into as few frames as possible.
+     */
+    public void subscribeToOhlc(Collection<CurrencyPair> currencyPairs, Interval interval, Consumer<Ohlc> callback, SubscriptionOptions options) {
+        this.subscribe(currencyPairs.stream()
+                .map(currencyPair -> this.createOhlcSubscriptionInfo(currencyPair, interval, callback, options))
+                .toList());
+    }
+
+
+    public void subscribeToCandles(CurrencyPair currencyPair, Interval interval, CandleConsumer callback) {
+        this.subscribeToCandles(currencyPair, interval, callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    /**
+     * Allocation free alternative to {@link #subscribeToOhlc(CurrencyPair, Interval, Consumer, SubscriptionOptions)}:
+     * every update is decoded into the same {@link CandleView}, which is only valid during the callback. Uses the
+     * same channel as an OHLC subscription, so it's cancelled via {@link #unsubscribeFromOhlc(CurrencyPair, Interval)}.
+     */
+    public void subscribeToCandles(CurrencyPair currencyPair, Interval interval, CandleConsumer callback, SubscriptionOptions options) {
+        this.subscribeToCandles(currencyPair, interval, callback, null, options);
+    }
+
+
+    /**
+     * Candle subscription that delivers each bar once it's final to the closedBarCallback as well.
+     */
+    public void subscribeToCandles(CurrencyPair currencyPair, Interval interval, CandleConsumer callback, Consumer<Ohlc> closedBarCallback, SubscriptionOptions options) {
+        Consumer<CandleView> consumer = callback::onCandle;
+        OhlcSubscriptionInfo subscriptionInfo = this.createOhlcSubscriptionInfo(currencyPair, interval, consumer, closedBarCallback, options).toBuilder()
+                .rawCandle(new RawCandle(new CandleView(currencyPair, interval)))
+                .build();
+        this.subscribe(subscriptionInfo);
+    }
+
+
+    /**
+     * Delivers candles of the interval built locally from a single {@link #AGGREGATION_BASE_INTERVAL} candle
+     * subscription per currency pair, which all aggregated intervals of the pair share. Works for intervals MEXC
+     * doesn't offer as well (e.g. 2h or 12h), the interval has to be a multiple of the base interval. The first
+     * candle only covers the updates received since subscribing.
+     * <p>
+     * The base subscription uses the regular channel, so the pair's base interval shouldn't be subscribed to directly
+     * as well.
+     */
+    public void subscribeToAggregatedOhlc(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> callback) {
+        if (interval.getDuration().toMillis() % AGGREGATION_BASE_INTERVAL.getDuration().toMillis() != 0) {
+            throw new IllegalArgumentException("%s isn't a multiple of %s".formatted(interval, AGGREGATION_BASE_INTERVAL));
+        }
+        CandleAggregator aggregator = new CandleAggregator(currencyPair, interval, callback);
+        synchronized (this.aggregators) {
+            List<CandleAggregator> pairAggregators = this.aggregators.get(currencyPair);
+            if (pairAggregators != null) {
+                pairAggregators.add(aggregator);
+                return;
+            }
+            List<CandleAggregator> fanOut = new CopyOnWriteArrayList<>(List.of(aggregator));
+            this.aggregators.put(currencyPair, fanOut);
+            this.subscribeToCandles(currencyPair, AGGREGATION_BASE_INTERVAL, candle -> {
+                for (CandleAggregator pairAggregator : fanOut) {
+                    pairAggregator.onCandle(candle);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Stops the aggregation of the interval, the base subscription is cancelled with the last aggregated interval of
+     * the pair.
+     */
+    public void unsubscribeFromAggregatedOhlc(CurrencyPair currencyPair, Interval interval) {
+        synchronized (this.aggregators) {
+            List<CandleAggregator> pairAggregators = this.aggregators.get(currencyPair);
+            if (pairAggregators == null) {
+                return;
+            }
+            pairAggregators.removeIf(aggregator -> aggregator.getInterval() == interval);
+            if (pairAggregators.isEmpty()) {
+                this.aggregators.remove(currencyPair);
+                this.unsubscribeFromOhlc(currencyPair, AGGREGATION_BASE_INTERVAL);
+            }
+        }
+    }
+
+
+    public void unsubscribeFromOhlc(CurrencyPair currencyPair, Interval interval) {
+        for (MessageFormat format : MessageFormat.values()) {
+            String subscriptionIdentifier = mapper.calcSubscriptionIdentifier(currencyPair, interval, format);
+            SubscriptionInfo subscriptionInfo = this.activeSubscriptions.get(subscriptionIdentifier);
+            if (subscriptionInfo != null) {
+                BarCloser barCloser = ((OhlcSubscriptionInfo) subscriptionInfo).getBarCloser();
+                if (barCloser != null) {
+                    barCloser.stop();
+                }
+                this.unsubscribe(subscriptionIdentifier);
+            }
+        }
+    }
 
-        String subscriptionIdentifier = mapper.calcSubscriptionIdentifier(currencyPair, interval);
 
-        OhlcSubscriptionInfo subscriptionInfo = OhlcSubscriptionInfo.builder()
+    public void subscribeToOrderBook(CurrencyPair currencyPair, OrderBookConsumer callback) {
+        this.subscribeToOrderBook(currencyPair, callback, SubscriptionOptions.DEFAULT);
+    }
+
+
+    /**
+     * Maintains a local order book from the incremental depth channel, seeded from a REST snapshot of
+     * {@link MexcClientConfig#getOrderBookSnapshotLimit()} levels and resynced automatically whenever an update is
+     * missing, see {@link OrderBookSynchronizer}. The callback receives the book after every applied update, it's
+     * updated in place and only consistent during the call.
+     */
+    public void subscribeToOrderBook(CurrencyPair currencyPair, OrderBookConsumer callback, SubscriptionOptions options) {
+        Consumer<OrderBook> consumer = callback::onOrderBook;
+        DepthSubscriptionInfo subscriptionInfo = DepthSubscriptionInfo.builder()
+                .currencyPair(currencyPair)
+                .rawDepth(new RawDepth(new DepthUpdate()))
+                .decodeContext(DecodeContext.depth(SymbolTable.global().intern(currencyPair)))
+                .subscriptionIdentifier(mapper.calcDepthSubscriptionIdentifier(currencyPair, options.getFormat()))
+                .state(SubscriptionState.INIT)
+                .consumer(consumer)
+                .options(options)
+                .build();
+        subscriptionInfo.setSynchronizer(new OrderBookSynchronizer(currencyPair,
+                () -> this.getMarketDataClient().getDepthAsync(currencyPair, this.config.getOrderBookSnapshotLimit()),
+                this.config.getOrderBookSnapshotRetryDelay(),
+                book -> subscriptionInfo.getConsumer().accept(book)));
+        this.subscribe(subscriptionInfo);
+    }
+
+
+    public void unsubscribeFromOrderBook(CurrencyPair currencyPair) {
+        for (MessageFormat format : MessageFormat.values()) {
+            String subscriptionIdentifier = mapper.calcDepthSubscriptionIdentifier(currencyPair, format);
+            SubscriptionInfo subscriptionInfo = this.activeSubscriptions.get(subscriptionIdentifier);
+            if (subscriptionInfo != null) {
+                ((DepthSubscriptionInfo) subscriptionInfo).getSynchronizer().stop();
+                this.unsubscribe(subscriptionIdentifier);
+            }
+        }
+    }
+
+
+    OhlcSubscriptionInfo createOhlcSubscriptionInfo(CurrencyPair currencyPair, Interval interval, Consumer<?> callback, SubscriptionOptions options) {
+        return this.createOhlcSubscriptionInfo(currencyPair, interval, callback, null, options);
+    }
+
+
+    OhlcSubscriptionInfo createOhlcSubscriptionInfo(CurrencyPair currencyPair, Interval interval, Consumer<?> callback, Consumer<Ohlc> closedBarCallback, SubscriptionOptions options) {
+
+        String subscriptionIdentifier = mapper.calcSubscriptionIdentifier(currencyPair, interval, options.getFormat());
+
+        return OhlcSubscriptionInfo.builder()
                 .currencyPair(currencyPair)
                 .interval(interval)
+                .decodeContext(DecodeContext.kline(SymbolTable.global().intern(currencyPair), interval))
+                .candleSeries(this.candleStore == null ? null : this.candleStore.getOrCreate(currencyPair, interval))
+                .barCloser(closedBarCallback == null ? null
+                        : new BarCloser(currencyPair, interval, this.config.getBarCloseGrace().toMillis(), this.getBarCloseWheel(), closedBarCallback, this.getConflationScheduler()))
+                .lastUpdate(new CandleView(currencyPair, interval))
                 .subscriptionIdentifier(subscriptionIdentifier)
                 .state(SubscriptionState.INIT)
                 .consumer(callback)
+                .options(options)
                 .build();
-
-        this.subscribe(subscriptionInfo);
     }
 
 
-    public void unsubscribeFromOhlc(CurrencyPair currencyPair, Interval interval) {
-        String subscriptionIdentifier = mapper.calcSubscriptionIdentifier(currencyPair, interval);
-        this.unsubscribe(subscriptionIdentifier);
+    /**
+     * Returns the store holding the last candles of every OHLC and candle subscription, null unless enabled via
+     * {@link MexcClientConfig#getCandleStoreCapacity()}.
+     */
+    public CandleStore getCandleStore() {
+        return this.candleStore;
     }
 
 
-    public Object doHandleMessage(SubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
-        if (isOhlc(subscriptionInfo, jsonNode)) {
-            return processOhlcMessage((OhlcSubscriptionInfo) subscriptionInfo, jsonNode);
+    @Override
+    public void close() {
+        // no more snapshot requests once the REST client is closed
+        this.activeSubscriptions.values().forEach(subscriptionInfo -> {
+            if (subscriptionInfo instanceof DepthSubscriptionInfo depthSubscriptionInfo) {
+                depthSubscriptionInfo.getSynchronizer().stop();
+            }
+        });
+        super.close();
+        synchronized (this.aggregators) {
+            this.aggregators.clear();
+        }
+        MarketDataClient client = this.marketDataClient;
+        if (client != null) {
+            this.marketDataClient = null;
+            client.close();
+        }
+        TimingWheel wheel = this.barCloseWheel;
+        if (wheel != null) {
+            this.barCloseWheel = null;
+            wheel.close();
         }
-        return null;
     }
 
 
-    private boolean isOhlc(SubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
-        return subscriptionInfo.getSubscriptionIdentifier().startsWith("spot@public.kline.v3.api");
+    /**
+     * Starts a gap fill for every OHLC subscription that has delivered klines before, live updates are held back until
+     * the missed klines have been delivered.
+     */
+    @Override
+    protected void beforeResubscribe(Collection<SubscriptionInfo> subscriptionInfos) {
+        if (!this.config.isGapFill()) {
+            return;
+        }
+        subscriptionInfos.stream()
+                .filter(this::isOhlc)
+                .map(OhlcSubscriptionInfo.class::cast)
+                .forEach(this::startGapFill);
     }
 
 
-    private Ohlc processOhlcMessage(OhlcSubscriptionInfo subscriptionInfo, JsonNode jsonNode) {
+    private void startGapFill(OhlcSubscriptionInfo subscriptionInfo) {
+        long from;
+        synchronized (subscriptionInfo) {
+            // nothing to fill if nothing has been delivered yet, a running fill covers the new gap as well
+            if (subscriptionInfo.getLastOpenTime() == 0 || subscriptionInfo.getPendingUpdates() != null) {
+                return;
+            }
+            if (!this.mapper.hasRestInterval(subscriptionInfo.getInterval())) {
+                log.debug("Can't fill the gap of {}, its interval can't be fetched via REST", subscriptionInfo.getSubscriptionIdentifier());
+                return;
+            }
+            subscriptionInfo.setPendingUpdates(new ArrayList<>());
+            from = subscriptionInfo.getLastOpenTime();
+        }
+        Instant to = Instant.now();
+        log.info("Filling the gap of {} from {} to {}", subscriptionInfo.getSubscriptionIdentifier(), Instant.ofEpochMilli(from), to);
 
+        // the last delivered kline is fetched again, it may have changed before it closed
+        CompletableFuture<List<Ohlc>> klines;
         try {
-            RawOhlc rawOhlc = this.objectMapper.treeToValue(jsonNode, RawOhlc.class);
-            log.trace("OHLC from exchange: {}", rawOhlc);
-            Ohlc mappedOhlc = this.mapper.map(subscriptionInfo.getCurrencyPair(), subscriptionInfo.getInterval(), rawOhlc);
-            log.trace("Mapped OHLC: {}", mappedOhlc);
-            return mappedOhlc;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            klines = this.getMarketDataClient().getKlinesAsync(subscriptionInfo.getCurrencyPair(), subscriptionInfo.getInterval(), Instant.ofEpochMilli(from), to);
+        } catch (RuntimeException e) {
+            // the updates must not be held back forever and the resubscription has to go on
+            klines = CompletableFuture.failedFuture(e);
+        }
+        klines.whenComplete((ohlcs, e) -> {
+            if (e != null) {
+                log.warn("Couldn't fill the gap of {}, continuing with live updates. Error: {}", subscriptionInfo.getSubscriptionIdentifier(), e.getMessage());
+            }
+            this.finishGapFill(subscriptionInfo, e == null ? ohlcs : List.of());
+        });
+    }
+
+
+    private void finishGapFill(OhlcSubscriptionInfo subscriptionInfo, List<Ohlc> ohlcs) {
+        synchronized (subscriptionInfo) {
+            boolean active = this.activeSubscriptions.get(subscriptionInfo.getSubscriptionIdentifier()) == subscriptionInfo;
+            if (active) {
+                for (Ohlc ohlc : ohlcs) {
+                    this.deliverInOrder(subscriptionInfo, subscriptionInfo.getRawCandle() == null ? ohlc : this.toCandle(subscriptionInfo, ohlc));
+                }
+            }
+            List<Object> pendingUpdates = subscriptionInfo.getPendingUpdates();
+            subscriptionInfo.setPendingUpdates(null);
+            if (active) {
+                log.debug("Delivered {} kline(s) of {} missed during the reconnect and {} held back update(s)", ohlcs.size(), subscriptionInfo.getSubscriptionIdentifier(), pendingUpdates.size());
+                pendingUpdates.forEach(update -> this.deliverInOrder(subscriptionInfo, update));
+            }
+        }
+    }
+
+
+    @Override
+    protected void deliver(SubscriptionInfo subscriptionInfo, Object mapped) {
+        if (subscriptionInfo instanceof DepthSubscriptionInfo depthSubscriptionInfo) {
+            depthSubscriptionInfo.getSynchronizer().onUpdate((DepthUpdate) mapped);
+            return;
+        }
+        if (!isOhlc(subscriptionInfo)) {
+            super.deliver(subscriptionInfo, mapped);
+            return;
         }
+        OhlcSubscriptionInfo ohlcSubscriptionInfo = (OhlcSubscriptionInfo) subscriptionInfo;
+        synchronized (ohlcSubscriptionInfo) {
+            List<Object> pendingUpdates = ohlcSubscriptionInfo.getPendingUpdates();
+            if (pendingUpdates != null) {
+                // the view is reused for the next update, so a copy is held back
+                pendingUpdates.add(mapped instanceof CandleView candle ? this.copy(ohlcSubscriptionInfo, candle) : mapped);
+                return;
+            }
+            this.deliverInOrder(ohlcSubscriptionInfo, mapped);
+        }
+    }
+
+
+    /**
+     * Stores the update and hands it to the consumer unless it belongs to a kline older than the last delivered one
+     * or repeats the last update exactly.
+     */
+    private void deliverInOrder(OhlcSubscriptionInfo subscriptionInfo, Object update) {
+        CandleView candle = update instanceof CandleView view ? view : null;
+        long openTime = candle != null ? candle.getOpenTime() : ((Ohlc) update).getOpenTime().toInstant().toEpochMilli();
+        if (openTime < subscriptionInfo.getLastOpenTime()) {
+            log.debug("Dropping outdated update of {} opened at {}", subscriptionInfo.getSubscriptionIdentifier(), openTime);
+            return;
+        }
+        CandleView lastUpdate = subscriptionInfo.getLastUpdate();
+        if (!(candle != null ? lastUpdate.set(candle) : lastUpdate.set((Ohlc) update))) {
+            log.trace("Dropping duplicate update of {} opened at {}", subscriptionInfo.getSubscriptionIdentifier(), openTime);
+            return;
+        }
+        subscriptionInfo.setLastOpenTime(openTime);
+
+        CandleSeries candleSeries = subscriptionInfo.getCandleSeries();
+        if (candleSeries != null) {
+            if (candle != null) {
+                candleSeries.update(candle);
+            } else {
+                candleSeries.update((Ohlc) update);
+            }
+        }
+        BarCloser barCloser = subscriptionInfo.getBarCloser();
+        if (barCloser != null) {
+            barCloser.onUpdate(lastUpdate);
+        }
+        subscriptionInfo.getConsumer().accept(update);
+    }
+
+
+    private CandleView toCandle(OhlcSubscriptionInfo subscriptionInfo, Ohlc ohlc) {
+        CandleView candle = new CandleView(subscriptionInfo.getCurrencyPair(), subscriptionInfo.getInterval());
+        candle.set(ohlc);
+        return candle;
+    }
+
+
+    private CandleView copy(OhlcSubscriptionInfo subscriptionInfo, CandleView candle) {
+        CandleView copy = new CandleView(subscriptionInfo.getCurrencyPair(), subscriptionInfo.getInterval());
+        copy.set(candle);
+        return copy;
+    }
+
+
+    private TimingWheel getBarCloseWheel() {
+        if (this.barCloseWheel == null) {
+            synchronized (this) {
+                if (this.barCloseWheel == null) {
+                    this.barCloseWheel = new TimingWheel(BAR_CLOSE_TICK_MILLIS, "mexc-bar-close");
+                }
+            }
+        }
+        return this.barCloseWheel;
+    }
+
+
+    private MarketDataClient getMarketDataClient() {
+        if (this.marketDataClient == null) {
+            synchronized (this) {
+                if (this.marketDataClient == null) {
+                    this.marketDataClient = new MarketDataClient(this.config.getRestClientConfig());
+                }
+            }
+        }
+        return this.marketDataClient;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Consumer<?> createConflatingConsumer(SubscriptionInfo subscriptionInfo, Duration conflationInterval) {
+        if (isOhlc(subscriptionInfo) && ((OhlcSubscriptionInfo) subscriptionInfo).getRawCandle() != null) {
+            return ConflatingConsumer.candles((Consumer<CandleView>) subscriptionInfo.getConsumer(), conflationInterval, this.getConflationScheduler());
+        }
+        if (subscriptionInfo instanceof DepthSubscriptionInfo) {
+            return ConflatingConsumer.orderBooks((Consumer<OrderBook>) subscriptionInfo.getConsumer(), conflationInterval, this.getConflationScheduler());
+        }
+        return super.createConflatingConsumer(subscriptionInfo, conflationInterval);
+    }
+
+
+    @Override
+    protected RawBaseMessage readData(SubscriptionInfo subscriptionInfo, JsonParser parser) throws IOException {
+        if (isOhlc(subscriptionInfo)) {
+            RawCandle rawCandle = ((OhlcSubscriptionInfo) subscriptionInfo).getRawCandle();
+            if (rawCandle != null) {
+                JsonPushMessageReader.readCandle(parser, rawCandle.getCandle());
+                return rawCandle;
+            }
+            RawOhlc rawOhlc = new RawOhlc();
+            rawOhlc.setData(JsonPushMessageReader.readOhlcData(parser));
+            return rawOhlc;
+        }
+        if (subscriptionInfo instanceof DepthSubscriptionInfo depthSubscriptionInfo) {
+            RawDepth rawDepth = depthSubscriptionInfo.getRawDepth();
+            JsonPushMessageReader.readDepthUpdate(parser, rawDepth.getUpdate());
+            return rawDepth;
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+
+    @Override
+    protected RawBaseMessage readData(SubscriptionInfo subscriptionInfo, int bodyField, ProtobufReader body) {
+        if (isOhlc(subscriptionInfo) && bodyField == ProtobufPushMessageReader.BODY_PUBLIC_SPOT_KLINE) {
+            RawCandle rawCandle = ((OhlcSubscriptionInfo) subscriptionInfo).getRawCandle();
+            if (rawCandle != null) {
+                ProtobufPushMessageReader.readCandle(body, rawCandle.getCandle());
+                return rawCandle;
+            }
+            RawOhlc rawOhlc = new RawOhlc();
+            rawOhlc.setData(ProtobufPushMessageReader.readOhlcData(body));
+            return rawOhlc;
+        }
+        if (subscriptionInfo instanceof DepthSubscriptionInfo depthSubscriptionInfo && bodyField == ProtobufPushMessageReader.BODY_PUBLIC_INCREASE_DEPTHS) {
+            RawDepth rawDepth = depthSubscriptionInfo.getRawDepth();
+            ProtobufPushMessageReader.readDepthUpdate(body, rawDepth.getUpdate());
+            return rawDepth;
+        }
+        return null;
+    }
+
+
+    @Override
+    protected Object doHandleMessage(SubscriptionInfo subscriptionInfo, RawBaseMessage rawMessage) {
+        if (rawMessage instanceof RawCandle rawCandle) {
+            rawCandle.getCandle().setEventTime(rawCandle.getTime());
+            return rawCandle.getCandle();
+        }
+        if (rawMessage instanceof RawDepth rawDepth) {
+            rawDepth.getUpdate().setEventTime(rawDepth.getTime());
+            return rawDepth.getUpdate();
+        }
+        if (isOhlc(subscriptionInfo)) {
+            return processOhlcMessage((OhlcSubscriptionInfo) subscriptionInfo, (RawOhlc) rawMessage);
+        }
+        return null;
+    }
+
+
+    private boolean isOhlc(SubscriptionInfo subscriptionInfo) {
+        return subscriptionInfo.getDecodeContext().getChannelType() == ChannelType.KLINE;
+    }
+
+
+    private Ohlc processOhlcMessage(OhlcSubscriptionInfo subscriptionInfo, RawOhlc rawOhlc) {
+        log.trace("OHLC from exchange: {}", rawOhlc);
+        Ohlc mappedOhlc = this.mapper.map(subscriptionInfo.getDecodeContext(), rawOhlc);
+        log.trace("Mapped OHLC: {}", mappedOhlc);
+        return mappedOhlc;
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package net.osslabz.mexc.client;
+
+import lombok.Getter;
+import lombok.ToString;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Exchange;
+import net.osslabz.crypto.TradingAsset;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns MEXC symbols (e.g. "BTCUSDT") to compact int ids with shared {@link CurrencyPair} and {@link TradingAsset}
+ * instances. Symbols can be looked up straight from a parser's char buffer or a frame's bytes, so a known symbol
+ * costs neither a String nor any parsing. Lookups don't lock, new symbols are added under a lock.
+ * <p>
+ * Symbols are never removed, the {@link #global()} table holds every symbol the process has seen, which is bounded by
+ * the symbols MEXC lists.
+ */
+public final class SymbolTable {
+
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    private static final String DEFAULT_COUNTER_CURRENCY = "USDT";
+
+    /**
+     * Open addressing with linear probing. Slots are only ever filled or replaced by a symbol of the same name, so
+     * readers can probe while a symbol is added in place, the arrays are only copied when they grow.
+     */
+    private volatile AtomicReferenceArray<Symbol> slots = new AtomicReferenceArray<>(256);
+
+    private volatile AtomicReferenceArray<Symbol> symbolsById = new AtomicReferenceArray<>(128);
+
+    private int size = 0;
+
+
+    /**
+     * The table shared by all clients of the process, it only grows.
+     */
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+
+    /**
+     * Returns the symbol of the currency pair, adding it if it's unknown.
+     */
+    public Symbol intern(CurrencyPair currencyPair) {
+        String name = currencyPair.baseCurrencyCode() + currencyPair.counterCurrencyCode();
+        Symbol symbol = this.lookup(name);
+        return symbol.currencyPair != null ? symbol : this.add(name, currencyPair);
+    }
+
+
+    public Symbol lookup(String name) {
+        AtomicReferenceArray<Symbol> slots = this.slots;
+        int hash = name.hashCode();
+        Symbol symbol;
+        for (int i = index(hash, slots.length()); (symbol = slots.get(i)) != null; i = (i + 1) & (slots.length() - 1)) {
+            if (symbol.hash == hash && symbol.name.equals(name)) {
+                return symbol;
+            }
+        }
+        return this.add(name, null);
+    }
+
+
+    public Symbol lookup(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        AtomicReferenceArray<Symbol> slots = this.slots;
+        Symbol symbol;
+        for (int i = index(hash, slots.length()); (symbol = slots.get(i)) != null; i = (i + 1) & (slots.length() - 1)) {
+            if (symbol.hash == hash && symbol.matches(chars, offset, length)) {
+                return symbol;
+            }
+        }
+        return this.add(new String(chars, offset, length), null);
+    }
+
+
+    /**
+     * Looks up an ASCII encoded symbol at an absolute position of the buffer.
+     */
+    public Symbol lookup(ByteBuffer buffer, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (buffer.get(offset + i) & 0xFF);
+        }
+        AtomicReferenceArray<Symbol> slots = this.slots;
+        Symbol symbol;
+        for (int i = index(hash, slots.length()); (symbol = slots.get(i)) != null; i = (i + 1) & (slots.length() - 1)) {
+            if (symbol.hash == hash && symbol.matches(buffer, offset, length)) {
+                return symbol;
+            }
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return this.add(new String(bytes, StandardCharsets.US_ASCII), null);
+    }
+
+
+    /**
+     * Returns the symbol with the given id or null if there is none.
+     */
+    public Symbol get(int id) {
+        AtomicReferenceArray<Symbol> symbolsById = this.symbolsById;
+        return id >= 0 && id < symbolsById.length() ? symbolsById.get(id) : null;
+    }
+
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+
+    private synchronized Symbol add(String name, CurrencyPair currencyPair) {
+        int hash = name.hashCode();
+        AtomicReferenceArray<Symbol> slots = this.slots;
+        int index = index(hash, slots.length());
+        Symbol existing;
+        for (; (existing = slots.get(index)) != null; index = (index + 1) & (slots.length() - 1)) {
+            if (existing.hash == hash && existing.name.equals(name)) {
+                if (currencyPair == null || existing.currencyPair != null) {
+                    return existing;
+                }
+                // a symbol seen in a message before its pair was known, replace it keeping the id
+                Symbol symbol = new Symbol(existing.id, name, currencyPair);
+                this.publish(index, symbol);
+                return symbol;
+            }
+        }
+
+        Symbol symbol = new Symbol(this.size, name, currencyPair != null ? currencyPair : parseCurrencyPair(name));
+        this.size++;
+        if (this.size * 2 > slots.length()) {
+            this.rehash(symbol);
+        } else {
+            this.publish(index, symbol);
+        }
+        return symbol;
+    }
+
+
+    /**
+     * Stores the symbol in place, by id first, so a reader finding it in its slot finds it by id as well. The id
+     * array is copied only when it has to grow.
+     */
+    private void publish(int index, Symbol symbol) {
+        this.setById(symbol);
+        this.slots.set(index, symbol);
+    }
+
+
+    /**
+     * Copies the symbols into a table twice the size, readers keep probing the old one until it's swapped in.
+     */
+    private void rehash(Symbol added) {
+        AtomicReferenceArray<Symbol> old = this.slots;
+        AtomicReferenceArray<Symbol> slots = new AtomicReferenceArray<>(old.length() * 2);
+        for (int i = 0; i < old.length(); i++) {
+            Symbol symbol = old.get(i);
+            if (symbol != null) {
+                insert(slots, symbol);
+            }
+        }
+        insert(slots, added);
+
+        this.setById(added);
+        this.slots = slots;
+    }
+
+
+    private void setById(Symbol symbol) {
+        AtomicReferenceArray<Symbol> symbolsById = this.symbolsById;
+        if (symbol.id >= symbolsById.length()) {
+            AtomicReferenceArray<Symbol> grown = new AtomicReferenceArray<>(symbolsById.length() * 2);
+            for (int i = 0; i < symbolsById.length(); i++) {
+                grown.set(i, symbolsById.get(i));
+            }
+            grown.set(symbol.id, symbol);
+            this.symbolsById = grown;
+            return;
+        }
+        symbolsById.set(symbol.id, symbol);
+    }
+
+
+    private static void insert(AtomicReferenceArray<Symbol> slots, Symbol symbol) {
+        int index = index(symbol.hash, slots.length());
+        while (slots.get(index) != null) {
+            index = (index + 1) & (slots.length() - 1);
+        }
+        slots.set(index, symbol);
+    }
+
+
+    private static int index(int hash, int length) {
+        return (hash ^ (hash >>> 16)) & (length - 1);
+    }
+
+
+    /**
+     * MEXC doesn't separate base and counter currency, only USDT pairs can be split without further information.
+     */
+    private static CurrencyPair parseCurrencyPair(String name) {
+        if (name.endsWith(DEFAULT_COUNTER_CURRENCY) && name.length() > DEFAULT_COUNTER_CURRENCY.length()) {
+            return new CurrencyPair(name.substring(0, name.length() - DEFAULT_COUNTER_CURRENCY.length()), DEFAULT_COUNTER_CURRENCY);
+        }
+        return null;
+    }
+
+
+    @Getter
+    @ToString(of = {"id", "name"})
+    public static final class Symbol {
+
+        private final int id;
+
+        private final String name;
+
+        private final int hash;
+
+        /**
+         * Null if the symbol couldn't be split into base and counter currency.
+         */
+        private final CurrencyPair currencyPair;
+
+        private final TradingAsset tradingAsset;
+
+
+        private Symbol(int id, String name, CurrencyPair currencyPair) {
+            this.id = id;
+            this.name = name;
+            this.hash = name.hashCode();
+            this.currencyPair = currencyPair;
+            this.tradingAsset = currencyPair == null ? null : new TradingAsset(Exchange.MEXC, currencyPair);
+        }
+
+
+        private boolean matches(char[] chars, int offset, int length) {
+            if (this.name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.name.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private boolean matches(ByteBuffer buffer, int offset, int length) {
+            if (this.name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.name.charAt(i) != (buffer.get(offset + i) & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package net.osslabz.mexc.client.candle;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.utils.TimingWheel;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Turns the updates of a (pair, interval) subscription into closed bars: a bar is final once an update of a later
+ * bar arrives or its close time plus a grace period has passed, whichever comes first. The timers run on a shared
+ * {@link TimingWheel}, so a bar is closed on time even if no update is sent at the boundary.
+ * <p>
+ * If nothing is traded in an interval MEXC doesn't send an update for it, the bar is closed flat: open, high, low and
+ * close are the previous close, volume and quantity 0. That happens while the connection is down as well, updates of
+ * a bar that has already been closed are ignored. Flat bars are only started for intervals that haven't ended yet, so
+ * old updates (e.g. replayed from a journal) don't cause a burst of them.
+ * <p>
+ * Closed bars are handed to the consumer on the executor, in order and one at a time, so a slow consumer holds up
+ * neither the wheel nor the thread delivering the updates.
+ */
+@Slf4j
+public class BarCloser {
+
+    private final long intervalMillis;
+
+    private final long graceMillis;
+
+    private final TimingWheel wheel;
+
+    private final Consumer<Ohlc> consumer;
+
+    private final Executor executor;
+
+    /**
+     * Closed bars waiting to be handed to the consumer.
+     */
+    private final Queue<Ohlc> closedBars = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean delivering = new AtomicBoolean();
+
+    /**
+     * The current bar, open time 0 before the first update.
+     */
+    private final CandleView bar;
+
+    private boolean closed = false;
+
+    private TimingWheel.Timer timer;
+
+    private boolean stopped = false;
+
+
+    /**
+     * @param executor runs the consumer
+     */
+    public BarCloser(CurrencyPair currencyPair, Interval interval, long graceMillis, TimingWheel wheel, Consumer<Ohlc> consumer, Executor executor) {
+        this.intervalMillis = interval.getDuration().toMillis();
+        this.graceMillis = graceMillis;
+        this.wheel = wheel;
+        this.consumer = consumer;
+        this.executor = executor;
+        this.bar = new CandleView(currencyPair, interval);
+    }
+
+
+    public void onUpdate(CandleView update) {
+        this.update(update);
+        this.deliverClosedBars();
+    }
+
+
+    private synchronized void update(CandleView update) {
+        if (this.stopped || update.getOpenTime() < this.bar.getOpenTime() || (update.getOpenTime() == this.bar.getOpenTime() && this.closed)) {
+            return;
+        }
+        if (update.getOpenTime() > this.bar.getOpenTime()) {
+            if (this.bar.getOpenTime() != 0 && !this.closed) {
+                this.close();
+            }
+            this.bar.set(update);
+            this.closed = false;
+            this.schedule();
+        } else {
+            this.bar.set(update);
+        }
+    }
+
+
+    /**
+     * Cancels the pending timer, no further bars are closed.
+     */
+    public synchronized void stop() {
+        this.stopped = true;
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+    }
+
+
+    private void schedule() {
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+        long openTime = this.bar.getOpenTime();
+        this.timer = this.wheel.schedule(this.bar.getCloseTime() + this.graceMillis, () -> this.onCloseTime(openTime));
+    }
+
+
+    private void onCloseTime(long openTime) {
+        this.closeAt(openTime);
+        this.deliverClosedBars();
+    }
+
+
+    private synchronized void closeAt(long openTime) {
+        if (this.stopped || this.closed || this.bar.getOpenTime() != openTime) {
+            return;
+        }
+        this.close();
+
+        long nextOpenTime = this.bar.getCloseTime();
+        if (nextOpenTime + this.intervalMillis + this.graceMillis <= System.currentTimeMillis()) {
+            this.timer = null;
+            return;
+        }
+        // no update of the next bar so far, it starts flat
+        this.closed = false;
+        double price = this.bar.getClosePrice();
+        this.bar.setEventTime(nextOpenTime);
+        this.bar.setOpenTime(nextOpenTime);
+        this.bar.setCloseTime(nextOpenTime + this.intervalMillis);
+        this.bar.setOpenPrice(price);
+        this.bar.setHighPrice(price);
+        this.bar.setLowPrice(price);
+        this.bar.setClosePrice(price);
+        this.bar.setVolume(0);
+        this.bar.setQuantity(0);
+        this.schedule();
+    }
+
+
+    /**
+     * Queues the current bar, it's delivered once the lock is released.
+     */
+    private void close() {
+        this.closed = true;
+        this.closedBars.add(this.bar.toOhlc());
+    }
+
+
+    private void deliverClosedBars() {
+        if (this.closedBars.isEmpty() || !this.delivering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.executor.execute(this::drainClosedBars);
+        } catch (RejectedExecutionException e) {
+            // the client has been closed
+            this.delivering.set(false);
+        }
+    }
+
+
+    private void drainClosedBars() {
+        try {
+            Ohlc closedBar;
+            while ((closedBar = this.closedBars.poll()) != null) {
+                try {
+                    this.consumer.accept(closedBar);
+                } catch (Exception e) {
+                    log.warn("Consumer failed to process closed bar {}. Error: {}", closedBar, e.getMessage(), e);
+                }
+            }
+        } finally {
+            this.delivering.set(false);
+            // a bar closed after the queue ran empty couldn't start a delivery
+            this.deliverClosedBars();
+        }
+    }
+}
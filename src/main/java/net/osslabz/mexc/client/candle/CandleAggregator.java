@@ -0,0 +1,126 @@
+package net.osslabz.mexc.client.candle;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Builds the candles of a coarser interval from the updates of a finer one, e.g. 1h candles from 1m updates. Each
+ * update costs O(1): the fine candles closed within the current coarse candle are folded into running values, only
+ * the fine candle still open is kept separately since MEXC sends its cumulated values with every update.
+ * <p>
+ * Coarse candles are aligned to the epoch (UTC midnight for days), weeks start on Monday like MEXC's. The fine
+ * updates have to arrive in order, older ones are ignored.
+ */
+public class CandleAggregator implements CandleConsumer {
+
+    private static final long MONDAY_OFFSET = Duration.ofDays(4).toMillis();
+
+    private final long intervalMillis;
+
+    private final long alignmentOffset;
+
+    private final Consumer<Ohlc> consumer;
+
+    private final CandleView candle;
+
+    private long fineOpenTime = Long.MIN_VALUE;
+
+    private double fineHigh;
+
+    private double fineLow;
+
+    private double fineVolume;
+
+    private double fineQuantity;
+
+    private double closedHigh;
+
+    private double closedLow;
+
+    private double closedVolume;
+
+    private double closedQuantity;
+
+
+    public CandleAggregator(CurrencyPair currencyPair, Interval interval, Consumer<Ohlc> consumer) {
+        this.intervalMillis = interval.getDuration().toMillis();
+        this.alignmentOffset = interval.getDuration().equals(Duration.ofDays(7)) ? MONDAY_OFFSET : 0;
+        this.consumer = consumer;
+        this.candle = new CandleView(currencyPair, interval);
+    }
+
+
+    public Interval getInterval() {
+        return this.candle.getInterval();
+    }
+
+
+    @Override
+    public void onCandle(CandleView fine) {
+        long openTime = fine.getOpenTime();
+        if (openTime < this.fineOpenTime) {
+            return;
+        }
+        long bucket = Math.floorDiv(openTime - this.alignmentOffset, this.intervalMillis) * this.intervalMillis + this.alignmentOffset;
+
+        if (bucket != this.candle.getOpenTime() || this.fineOpenTime == Long.MIN_VALUE) {
+            this.startCandle(bucket, fine.getOpenPrice());
+        } else if (openTime != this.fineOpenTime) {
+            // the previous fine candle has closed
+            this.closedHigh = max(this.closedHigh, this.fineHigh);
+            this.closedLow = min(this.closedLow, this.fineLow);
+            this.closedVolume += this.fineVolume;
+            this.closedQuantity += this.fineQuantity;
+        }
+
+        this.fineOpenTime = openTime;
+        this.fineHigh = fine.getHighPrice();
+        this.fineLow = fine.getLowPrice();
+        this.fineVolume = zeroIfNaN(fine.getVolume());
+        this.fineQuantity = zeroIfNaN(fine.getQuantity());
+
+        this.candle.setEventTime(fine.getEventTime());
+        this.candle.setHighPrice(max(this.closedHigh, this.fineHigh));
+        this.candle.setLowPrice(min(this.closedLow, this.fineLow));
+        this.candle.setClosePrice(fine.getClosePrice());
+        this.candle.setVolume(this.closedVolume + this.fineVolume);
+        this.candle.setQuantity(this.closedQuantity + this.fineQuantity);
+
+        this.consumer.accept(this.candle.toOhlc());
+    }
+
+
+    private void startCandle(long openTime, double openPrice) {
+        this.candle.reset();
+        this.candle.setOpenTime(openTime);
+        this.candle.setCloseTime(openTime + this.intervalMillis);
+        this.candle.setOpenPrice(openPrice);
+        this.closedHigh = Double.NaN;
+        this.closedLow = Double.NaN;
+        this.closedVolume = 0;
+        this.closedQuantity = 0;
+    }
+
+
+    /*
+     * Unlike Math.max/min a missing (NaN) value is ignored.
+     */
+
+    private static double max(double a, double b) {
+        return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.max(a, b);
+    }
+
+
+    private static double min(double a, double b) {
+        return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.min(a, b);
+    }
+
+
+    private static double zeroIfNaN(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+}
@@ -0,0 +1,48 @@
+package net.osslabz.mexc.client.candle;
+
+import lombok.Getter;
+
+/**
+ * A copy of consecutive candles of a {@link CandleSeries}, one array per value, oldest candle first. Times are epoch
+ * millis, missing values NaN.
+ */
+@Getter
+public class CandleColumns {
+
+    private final int size;
+
+    private final long[] openTimes;
+
+    private final long[] closeTimes;
+
+    private final double[] openPrices;
+
+    private final double[] highPrices;
+
+    private final double[] lowPrices;
+
+    private final double[] closePrices;
+
+    /**
+     * Quote volumes.
+     */
+    private final double[] volumes;
+
+    /**
+     * Base quantities.
+     */
+    private final double[] quantities;
+
+
+    CandleColumns(int size) {
+        this.size = size;
+        this.openTimes = new long[size];
+        this.closeTimes = new long[size];
+        this.openPrices = new double[size];
+        this.highPrices = new double[size];
+        this.lowPrices = new double[size];
+        this.closePrices = new double[size];
+        this.volumes = new double[size];
+        this.quantities = new double[size];
+    }
+}
@@ -0,0 +1,11 @@
+package net.osslabz.mexc.client.candle;
+
+/**
+ * Receives kline updates as a reused {@link CandleView}. The view is only valid during the call, use
+ * {@link CandleView#toOhlc()} to keep a copy.
+ */
+@FunctionalInterface
+public interface CandleConsumer {
+
+    void onCandle(CandleView candle);
+}
@@ -0,0 +1,280 @@
+package net.osslabz.mexc.client.candle;
+
+import lombok.Getter;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The last {@link #getCapacity() capacity} candles of a currency pair and interval, kept in a ring of primitive
+ * column arrays. An update of the current candle overwrites it in place, a newer one replaces the oldest candle.
+ * <p>
+ * Meant for a single writer (the subscription's socket or dispatch thread) and any number of readers. Reads are
+ * optimistic and only fall back to a read lock if they overlapped with a write, so they don't slow the writer down.
+ */
+public class CandleSeries {
+
+    @Getter
+    private final CurrencyPair currencyPair;
+
+    @Getter
+    private final Interval interval;
+
+    @Getter
+    private final int capacity;
+
+    private final long[] openTimes;
+
+    private final long[] closeTimes;
+
+    private final double[] openPrices;
+
+    private final double[] highPrices;
+
+    private final double[] lowPrices;
+
+    private final double[] closePrices;
+
+    private final double[] volumes;
+
+    private final double[] quantities;
+
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Physical index the next new candle is written to.
+     */
+    private int next = 0;
+
+    private int size = 0;
+
+
+    public CandleSeries(CurrencyPair currencyPair, Interval interval, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.currencyPair = currencyPair;
+        this.interval = interval;
+        this.capacity = capacity;
+        this.openTimes = new long[capacity];
+        this.closeTimes = new long[capacity];
+        this.openPrices = new double[capacity];
+        this.highPrices = new double[capacity];
+        this.lowPrices = new double[capacity];
+        this.closePrices = new double[capacity];
+        this.volumes = new double[capacity];
+        this.quantities = new double[capacity];
+    }
+
+
+    public boolean update(CandleView candle) {
+        return this.update(candle.getOpenTime(), candle.getCloseTime(), candle.getOpenPrice(), candle.getHighPrice(), candle.getLowPrice(),
+                candle.getClosePrice(), candle.getVolume(), candle.getQuantity());
+    }
+
+
+    public boolean update(Ohlc ohlc) {
+        return this.update(toEpochMillis(ohlc.getOpenTime()), toEpochMillis(ohlc.getCloseTime()), toDouble(ohlc.getOpenPrice()), toDouble(ohlc.getHighPrice()),
+                toDouble(ohlc.getLowPrice()), toDouble(ohlc.getClosePrice()), toDouble(ohlc.getVolume()), toDouble(ohlc.getQuantity()));
+    }
+
+
+    /**
+     * Stores a candle: the candle with the same open time is overwritten, a candle newer than the last one is
+     * appended. Returns false if the candle is older than the ones kept and therefore not stored.
+     */
+    public boolean update(long openTime, long closeTime, double openPrice, double highPrice, double lowPrice, double closePrice, double volume, double quantity) {
+        long stamp = this.lock.writeLock();
+        try {
+            int index;
+            if (this.size == 0 || openTime > this.openTimes[this.physical(this.size - 1)]) {
+                index = this.next;
+                this.next = (this.next + 1) % this.capacity;
+                this.size = Math.min(this.size + 1, this.capacity);
+            } else {
+                int logical = this.search(openTime);
+                if (logical < 0) {
+                    return false;
+                }
+                index = this.physical(logical);
+            }
+            this.openTimes[index] = openTime;
+            this.closeTimes[index] = closeTime;
+            this.openPrices[index] = openPrice;
+            this.highPrices[index] = highPrice;
+            this.lowPrices[index] = lowPrice;
+            this.closePrices[index] = closePrice;
+            this.volumes[index] = volume;
+            this.quantities[index] = quantity;
+            return true;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    public int size() {
+        long stamp = this.lock.tryOptimisticRead();
+        int size = this.size;
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                size = this.size;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+
+    /**
+     * Copies the newest candle into the given view, returns false if there is none yet.
+     */
+    public boolean last(CandleView target) {
+        long stamp = this.lock.tryOptimisticRead();
+        boolean found = this.copyLast(target);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                found = this.copyLast(target);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * Returns the newest n candles, oldest first. Fewer are returned if fewer are kept.
+     */
+    public CandleColumns last(int n) {
+        long stamp = this.lock.tryOptimisticRead();
+        CandleColumns columns = this.copy(Math.max(0, this.size - n), this.size);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                columns = this.copy(Math.max(0, this.size - n), this.size);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return columns;
+    }
+
+
+    /**
+     * Returns the candles opened within [fromOpenTime, toOpenTime) (epoch millis), oldest first.
+     */
+    public CandleColumns range(long fromOpenTime, long toOpenTime) {
+        long stamp = this.lock.tryOptimisticRead();
+        CandleColumns columns = this.copyRange(fromOpenTime, toOpenTime);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                columns = this.copyRange(fromOpenTime, toOpenTime);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return columns;
+    }
+
+
+    /*
+     * The copy methods may run concurrently to a write during an optimistic read. The result is thrown away then, they
+     * only have to stay within the arrays' bounds, which is why size is always clamped to the capacity.
+     */
+
+    private boolean copyLast(CandleView target) {
+        int size = Math.min(this.size, this.capacity);
+        if (size == 0) {
+            return false;
+        }
+        int index = this.physical(size - 1);
+        target.setOpenTime(this.openTimes[index]);
+        target.setCloseTime(this.closeTimes[index]);
+        target.setOpenPrice(this.openPrices[index]);
+        target.setHighPrice(this.highPrices[index]);
+        target.setLowPrice(this.lowPrices[index]);
+        target.setClosePrice(this.closePrices[index]);
+        target.setVolume(this.volumes[index]);
+        target.setQuantity(this.quantities[index]);
+        return true;
+    }
+
+
+    private CandleColumns copyRange(long fromOpenTime, long toOpenTime) {
+        int from = this.lowerBound(fromOpenTime);
+        int to = this.lowerBound(toOpenTime);
+        return this.copy(from, Math.max(from, to));
+    }
+
+
+    /**
+     * Copies the logical range [from, to), logical index 0 is the oldest candle.
+     */
+    private CandleColumns copy(int from, int to) {
+        int length = Math.max(0, Math.min(to, this.capacity) - from);
+        CandleColumns columns = new CandleColumns(length);
+        for (int i = 0; i < length; i++) {
+            int index = this.physical(from + i);
+            columns.getOpenTimes()[i] = this.openTimes[index];
+            columns.getCloseTimes()[i] = this.closeTimes[index];
+            columns.getOpenPrices()[i] = this.openPrices[index];
+            columns.getHighPrices()[i] = this.highPrices[index];
+            columns.getLowPrices()[i] = this.lowPrices[index];
+            columns.getClosePrices()[i] = this.closePrices[index];
+            columns.getVolumes()[i] = this.volumes[index];
+            columns.getQuantities()[i] = this.quantities[index];
+        }
+        return columns;
+    }
+
+
+    /**
+     * Returns the logical index of the candle with the given open time, -1 if it isn't kept.
+     */
+    private int search(long openTime) {
+        int logical = this.lowerBound(openTime);
+        return logical < this.size && this.openTimes[this.physical(logical)] == openTime ? logical : -1;
+    }
+
+
+    /**
+     * Returns the logical index of the first candle opened at or after the given time, size if there is none.
+     */
+    private int lowerBound(long openTime) {
+        int low = 0;
+        int high = Math.min(this.size, this.capacity);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.openTimes[this.physical(mid)] < openTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+
+    private int physical(int logical) {
+        return Math.floorMod(this.next - Math.min(this.size, this.capacity) + logical, this.capacity);
+    }
+
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+
+    private static long toEpochMillis(ZonedDateTime date) {
+        return date == null ? 0 : date.toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,56 @@
+package net.osslabz.mexc.client.candle;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link CandleSeries} of the last {@link #getCapacity() capacity} candles per currency pair and interval.
+ * A candle costs 64 bytes in the series' columns, so 1000 candles of 2500 series fit into about 160 MB.
+ */
+public class CandleStore {
+
+    private final int capacity;
+
+    private final Map<Key, CandleSeries> series = new ConcurrentHashMap<>();
+
+
+    public CandleStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+
+    /**
+     * Returns the series of the currency pair and interval, null if nothing has been stored for them yet.
+     */
+    public CandleSeries get(CurrencyPair currencyPair, Interval interval) {
+        return this.series.get(new Key(currencyPair, interval));
+    }
+
+
+    /**
+     * Returns the series of the currency pair and interval, creating it if necessary.
+     */
+    public CandleSeries getOrCreate(CurrencyPair currencyPair, Interval interval) {
+        return this.series.computeIfAbsent(new Key(currencyPair, interval), key -> new CandleSeries(currencyPair, interval, this.capacity));
+    }
+
+
+    public void remove(CurrencyPair currencyPair, Interval interval) {
+        this.series.remove(new Key(currencyPair, interval));
+    }
+
+
+    private record Key(CurrencyPair currencyPair, Interval interval) {
+    }
+}
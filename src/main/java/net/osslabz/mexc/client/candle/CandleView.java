@@ -0,0 +1,179 @@
+package net.osslabz.mexc.client.candle;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Exchange;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.crypto.OhlcAsset;
+import net.osslabz.crypto.TradingAsset;
+import net.osslabz.mexc.client.MexcMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * Mutable, primitive backed kline of a single subscription. The decoder fills the same instance in place for every
+ * update, so no objects are allocated per message. Times are epoch millis, prices and volumes doubles, missing
+ * values are NaN.
+ */
+@Getter
+@Setter
+@ToString
+public class CandleView {
+
+    private final CurrencyPair currencyPair;
+
+    private final Interval interval;
+
+    /**
+     * Time the update was sent by MEXC.
+     */
+    private long eventTime;
+
+    private long openTime;
+
+    private long closeTime;
+
+    private double openPrice;
+
+    private double highPrice;
+
+    private double lowPrice;
+
+    private double closePrice;
+
+    /**
+     * Quote volume ("a").
+     */
+    private double volume;
+
+    /**
+     * Base quantity ("v").
+     */
+    private double quantity;
+
+
+    public CandleView(CurrencyPair currencyPair, Interval interval) {
+        this.currencyPair = currencyPair;
+        this.interval = interval;
+        this.reset();
+    }
+
+
+    /**
+     * Clears the values of the previous update.
+     */
+    public void reset() {
+        this.eventTime = 0;
+        this.openTime = 0;
+        this.closeTime = 0;
+        this.openPrice = Double.NaN;
+        this.highPrice = Double.NaN;
+        this.lowPrice = Double.NaN;
+        this.closePrice = Double.NaN;
+        this.volume = Double.NaN;
+        this.quantity = Double.NaN;
+    }
+
+
+    /**
+     * Copies the values of another view, e.g. to keep an update beyond its callback. Returns whether any value apart
+     * from the event time has changed.
+     */
+    public boolean set(CandleView other) {
+        return this.set(other.eventTime, other.openTime, other.closeTime, other.openPrice, other.highPrice, other.lowPrice, other.closePrice,
+                other.volume, other.quantity);
+    }
+
+
+    /**
+     * Takes the values of an {@link Ohlc}, e.g. one fetched via REST. Returns whether any value apart from the event
+     * time has changed.
+     */
+    public boolean set(Ohlc ohlc) {
+        return this.set(toEpochMillis(ohlc.getUpdateTime()), toEpochMillis(ohlc.getOpenTime()), toEpochMillis(ohlc.getCloseTime()),
+                toDouble(ohlc.getOpenPrice()), toDouble(ohlc.getHighPrice()), toDouble(ohlc.getLowPrice()), toDouble(ohlc.getClosePrice()),
+                toDouble(ohlc.getVolume()), toDouble(ohlc.getQuantity()));
+    }
+
+
+    private boolean set(long eventTime, long openTime, long closeTime, double openPrice, double highPrice, double lowPrice, double closePrice,
+                        double volume, double quantity) {
+        boolean changed = this.openTime != openTime
+                || this.closeTime != closeTime
+                || Double.compare(this.openPrice, openPrice) != 0
+                || Double.compare(this.highPrice, highPrice) != 0
+                || Double.compare(this.lowPrice, lowPrice) != 0
+                || Double.compare(this.closePrice, closePrice) != 0
+                || Double.compare(this.volume, volume) != 0
+                || Double.compare(this.quantity, quantity) != 0;
+        this.eventTime = eventTime;
+        this.openTime = openTime;
+        this.closeTime = closeTime;
+        this.openPrice = openPrice;
+        this.highPrice = highPrice;
+        this.lowPrice = lowPrice;
+        this.closePrice = closePrice;
+        this.volume = volume;
+        this.quantity = quantity;
+        return changed;
+    }
+
+
+    /**
+     * Volume weighted average price, the close price if nothing has been traded.
+     */
+    public double getAvgPrice() {
+        return this.volume > 0 && this.quantity > 0 ? this.volume / this.quantity : this.closePrice;
+    }
+
+
+    /**
+     * Returns an independent copy, mapped the same way as the {@link Ohlc}s of a regular subscription.
+     */
+    public Ohlc toOhlc() {
+        BigDecimal volume = toDecimal(this.volume);
+        BigDecimal quantity = toDecimal(this.quantity);
+        BigDecimal closePrice = toDecimal(this.closePrice);
+
+        return Ohlc.builder()
+                .asset(new OhlcAsset(new TradingAsset(Exchange.MEXC, this.currencyPair), this.interval))
+                .updateTime(toDate(this.eventTime))
+                .openTime(toDate(this.openTime))
+                .closeTime(toDate(this.closeTime))
+                .openPrice(toDecimal(this.openPrice))
+                .highPrice(toDecimal(this.highPrice))
+                .lowPrice(toDecimal(this.lowPrice))
+                .closePrice(closePrice)
+                .volume(volume)
+                .quantity(quantity)
+                .avgPrice(this.volume > 0 && this.quantity > 0 ? volume.divide(quantity, 8, RoundingMode.HALF_UP) : closePrice)
+                .build();
+    }
+
+
+    private static BigDecimal toDecimal(double value) {
+        // valueOf uses the shortest representation, so "20281.31" comes back as 20281.31
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+
+    private static long toEpochMillis(ZonedDateTime date) {
+        return date == null ? 0 : date.toInstant().toEpochMilli();
+    }
+
+
+    private static ZonedDateTime toDate(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), MexcMapper.ZONE_ID_UTC);
+    }
+}
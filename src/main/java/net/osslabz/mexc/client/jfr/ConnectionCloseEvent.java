@@ -0,0 +1,44 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+@Name("net.osslabz.mexc.ConnectionClose")
+@Label("Connection Close")
+@Category({"MEXC Client", "WebSocket"})
+@Description("Closed WebSocket connection, lasts as long as the connection was open, 0 if it never opened")
+@StackTrace(false)
+public class ConnectionCloseEvent extends Event {
+
+    @Label("Endpoint")
+    private String endpoint;
+
+    @Label("Code")
+    private int code;
+
+    @Label("Reason")
+    private String reason;
+
+    @Label("Remote")
+    @Description("Closed by the server")
+    private boolean remote;
+
+
+    public ConnectionCloseEvent(URI endpoint) {
+        this.endpoint = String.valueOf(endpoint);
+    }
+
+
+    public void commit(int code, String reason, boolean remote) {
+        this.code = code;
+        this.reason = reason;
+        this.remote = remote;
+        this.commit();
+    }
+}
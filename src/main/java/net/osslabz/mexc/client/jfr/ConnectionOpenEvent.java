@@ -0,0 +1,31 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+@Name("net.osslabz.mexc.ConnectionOpen")
+@Label("Connection Open")
+@Category({"MEXC Client", "WebSocket"})
+@Description("WebSocket handshake, from connecting until the connection is open")
+@StackTrace(false)
+public class ConnectionOpenEvent extends Event {
+
+    @Label("Endpoint")
+    private String endpoint;
+
+    @Label("Attempt")
+    @Description("Reconnect attempt, 0 for the first connect")
+    private int attempt;
+
+
+    public ConnectionOpenEvent(URI endpoint, int attempt) {
+        this.endpoint = String.valueOf(endpoint);
+        this.attempt = attempt;
+    }
+}
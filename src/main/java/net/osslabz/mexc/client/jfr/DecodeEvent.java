@@ -0,0 +1,38 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.osslabz.mexc.Decode")
+@Label("Decode")
+@Category({"MEXC Client", "WebSocket"})
+@Description("Decoding of a sampled push message, from parsing the frame until it's mapped")
+@StackTrace(false)
+public class DecodeEvent extends Event {
+
+    @Label("Subscription")
+    private String subscription;
+
+    @Label("Encoding")
+    private String encoding;
+
+    @Label("Size")
+    @Description("Length of the frame, bytes for protobuf, characters for JSON")
+    private int size;
+
+
+    public DecodeEvent(String encoding, int size) {
+        this.encoding = encoding;
+        this.size = size;
+    }
+
+
+    public void commit(String subscription) {
+        this.subscription = subscription;
+        this.commit();
+    }
+}
@@ -0,0 +1,41 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+@Name("net.osslabz.mexc.Reconnect")
+@Label("Reconnect")
+@Category({"MEXC Client", "WebSocket"})
+@Description("Backoff before a reconnect attempt, from scheduling it until it starts")
+@StackTrace(false)
+public class ReconnectEvent extends Event {
+
+    @Label("Attempt")
+    @Description("1 for the first attempt after the connection was lost")
+    private int attempt;
+
+    @Label("Previous Endpoint")
+    private String previousEndpoint;
+
+    @Label("Endpoint")
+    @Description("Endpoint selected for the attempt")
+    private String endpoint;
+
+
+    public ReconnectEvent(URI previousEndpoint, int attempt) {
+        this.previousEndpoint = String.valueOf(previousEndpoint);
+        this.attempt = attempt;
+    }
+
+
+    public void commit(URI endpoint) {
+        this.endpoint = String.valueOf(endpoint);
+        this.commit();
+    }
+}
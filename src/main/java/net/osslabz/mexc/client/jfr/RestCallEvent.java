@@ -0,0 +1,38 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.osslabz.mexc.RestCall")
+@Label("REST Call")
+@Category({"MEXC Client", "REST"})
+@Description("Signed REST call, from signing the request until the response headers arrived")
+@StackTrace(false)
+public class RestCallEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Status")
+    @Description("HTTP status, 0 if the call failed without a response")
+    private int status;
+
+
+    public RestCallEvent(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+
+    public void commit(int status) {
+        this.status = status;
+        this.commit();
+    }
+}
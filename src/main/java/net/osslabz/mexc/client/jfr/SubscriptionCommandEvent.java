@@ -0,0 +1,54 @@
+package net.osslabz.mexc.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+@Name("net.osslabz.mexc.SubscriptionCommand")
+@Label("Subscription Command")
+@Category({"MEXC Client", "WebSocket"})
+@Description("(Un)subscribe command, from sending it until MEXC acknowledged or rejected it")
+@StackTrace(false)
+public class SubscriptionCommandEvent extends Event {
+
+    /**
+     * Code of a command that has been dropped without an answer, e.g. because its connection was closed.
+     */
+    public static final int UNANSWERED = -1;
+
+    @Label("Request Id")
+    private int requestId;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Subscriptions")
+    @Description("Comma separated channels of the command")
+    private String subscriptions;
+
+    @Label("Success")
+    private boolean success;
+
+    @Label("Code")
+    @Description("Code MEXC answered with, -1 if the command wasn't answered")
+    private int code;
+
+
+    public SubscriptionCommandEvent(int requestId, String method, List<String> subscriptionIdentifiers) {
+        this.requestId = requestId;
+        this.method = method;
+        this.subscriptions = String.join(",", subscriptionIdentifiers);
+    }
+
+
+    public void commit(boolean success, int code) {
+        this.success = success;
+        this.code = code;
+        this.commit();
+    }
+}
@@ -0,0 +1,47 @@
+package net.osslabz.mexc.client.metrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link LatencyHistogram} per subscription and stage in memory, without any further dependency. The
+ * histograms cover the whole lifetime of a subscription and are dropped when it's unsubscribed.
+ */
+public class HistogramLatencyMetrics implements LatencyMetrics {
+
+    private final Map<String, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+
+
+    @Override
+    public LatencyRecorder createRecorder(String subscriptionIdentifier) {
+        LatencyHistogram[] stages = this.histograms.computeIfAbsent(subscriptionIdentifier, id -> {
+            LatencyHistogram[] created = new LatencyHistogram[LatencyStage.values().length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new LatencyHistogram();
+            }
+            return created;
+        });
+        return (stage, nanos) -> stages[stage.ordinal()].record(nanos);
+    }
+
+
+    @Override
+    public void remove(String subscriptionIdentifier) {
+        this.histograms.remove(subscriptionIdentifier);
+    }
+
+
+    public Set<String> getSubscriptionIdentifiers() {
+        return Set.copyOf(this.histograms.keySet());
+    }
+
+
+    /**
+     * Returns the histogram of the subscription's stage, null if the subscription is unknown.
+     */
+    public LatencyHistogram getHistogram(String subscriptionIdentifier, LatencyStage stage) {
+        LatencyHistogram[] stages = this.histograms.get(subscriptionIdentifier);
+        return stages == null ? null : stages[stage.ordinal()];
+    }
+}
@@ -0,0 +1,100 @@
+package net.osslabz.mexc.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of nanosecond values in the spirit of HdrHistogram: values below 64 get a bucket each, above
+ * that every power of two is split into 32 buckets, so a recorded value is off by at most ~3%. Values up to ~68s are
+ * kept apart, larger ones end up in the last bucket. Recording is lock free and doesn't allocate.
+ * <p>
+ * Readers see the counts as they are while reading, a percentile may miss values recorded concurrently.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final long MAX_TRACKABLE = (1L << 36) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_TRACKABLE) + 1);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.counts.incrementAndGet(index(Math.min(value, MAX_TRACKABLE)));
+        this.count.incrementAndGet();
+        this.total.addAndGet(value);
+        long max = this.max.get();
+        while (value > max && !this.max.compareAndSet(max, value)) {
+            max = this.max.get();
+        }
+    }
+
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+
+    /**
+     * Returns the largest value recorded, exact, 0 without values.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+
+    public double getMean() {
+        long count = this.count.get();
+        return count == 0 ? 0 : (double) this.total.get() / count;
+    }
+
+
+    /**
+     * Returns the percentile (0-100) in nanos, the highest value of its bucket but no more than the max. 0 without
+     * values.
+     */
+    public long getPercentile(double percentile) {
+        long count = this.count.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        // shifted, the value keeps its top SUB_BUCKET_BITS + 1 bits
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >> shift) - SUB_BUCKETS;
+    }
+
+
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,20 @@
+package net.osslabz.mexc.client.metrics;
+
+/**
+ * Where the client reports the latencies of push messages to, set via
+ * {@link net.osslabz.mexc.client.MexcClientConfig#getLatencyMetrics()}. See {@link HistogramLatencyMetrics} and
+ * {@link MicrometerLatencyMetrics}.
+ */
+public interface LatencyMetrics {
+
+    /**
+     * Called once per subscription when it's created.
+     */
+    LatencyRecorder createRecorder(String subscriptionIdentifier);
+
+    /**
+     * Called when the subscription has been unsubscribed.
+     */
+    default void remove(String subscriptionIdentifier) {
+    }
+}
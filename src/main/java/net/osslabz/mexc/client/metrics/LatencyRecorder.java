@@ -0,0 +1,10 @@
+package net.osslabz.mexc.client.metrics;
+
+/**
+ * Records the latencies of a single subscription. Called on the thread processing its messages, so it has to be
+ * cheap and must not block.
+ */
+public interface LatencyRecorder {
+
+    void record(LatencyStage stage, long nanos);
+}
@@ -0,0 +1,36 @@
+package net.osslabz.mexc.client.metrics;
+
+/**
+ * The stages the latency of a push message is measured in.
+ */
+public enum LatencyStage {
+
+    /**
+     * From the exchange's timestamp of the message to the arrival of the frame. Includes the clock offset between
+     * the exchange and this host, a negative difference is recorded as 0.
+     */
+    EXCHANGE_TO_RECEIVE("exchange_to_receive"),
+
+    /**
+     * From the arrival of the frame to the decoded message, including the time spent in the dispatch queue.
+     */
+    RECEIVE_TO_DECODED("receive_to_decoded"),
+
+    /**
+     * From the decoded message until the subscription's consumer has returned. A conflating subscription only hands
+     * the update over here, its consumer runs later.
+     */
+    DECODED_TO_CONSUMED("decoded_to_consumed");
+
+    private final String tagValue;
+
+
+    LatencyStage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+
+    public String getTagValue() {
+        return this.tagValue;
+    }
+}
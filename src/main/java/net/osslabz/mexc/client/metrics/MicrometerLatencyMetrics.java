@@ -0,0 +1,55 @@
+package net.osslabz.mexc.client.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the latencies as Micrometer timers named {@value #METER_NAME} with the tags subscription and stage (see
+ * {@link LatencyStage#getTagValue()}), including a percentile histogram. Micrometer is an optional dependency, it has
+ * to be on the classpath to use this class.
+ */
+public class MicrometerLatencyMetrics implements LatencyMetrics {
+
+    public static final String METER_NAME = "mexc.client.latency";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+
+    public MicrometerLatencyMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+
+    @Override
+    public LatencyRecorder createRecorder(String subscriptionIdentifier) {
+        Timer[] stages = this.timers.computeIfAbsent(subscriptionIdentifier, id -> {
+            Timer[] created = new Timer[LatencyStage.values().length];
+            for (LatencyStage stage : LatencyStage.values()) {
+                created[stage.ordinal()] = Timer.builder(METER_NAME)
+                        .tag("subscription", id)
+                        .tag("stage", stage.getTagValue())
+                        .publishPercentileHistogram()
+                        .register(this.registry);
+            }
+            return created;
+        });
+        return (stage, nanos) -> stages[stage.ordinal()].record(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+    }
+
+
+    @Override
+    public void remove(String subscriptionIdentifier) {
+        Timer[] stages = this.timers.remove(subscriptionIdentifier);
+        if (stages != null) {
+            for (Timer timer : stages) {
+                this.registry.remove(timer);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package net.osslabz.mexc.client.orderbook;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * One side of an {@link OrderBook}: price levels in primitive arrays, sorted from the worst to the best price so the
+ * best level is the last element. Most updates hit the levels near the top, so inserting or removing them shifts
+ * few elements. Levels are matched by their exact price, a level with quantity 0 is removed.
+ * <p>
+ * Level 0 is the best price for all accessors. Reading doesn't allocate.
+ */
+public class BookSide {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final boolean bids;
+
+    private double[] prices = new double[INITIAL_CAPACITY];
+
+    private double[] quantities = new double[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+
+    BookSide(boolean bids) {
+        this.bids = bids;
+    }
+
+
+    public boolean isBids() {
+        return this.bids;
+    }
+
+
+    public int size() {
+        return this.size;
+    }
+
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    public double getPrice(int level) {
+        return this.prices[this.index(level)];
+    }
+
+
+    public double getQuantity(int level) {
+        return this.quantities[this.index(level)];
+    }
+
+
+    /**
+     * Returns the price of the best level, NaN if the side is empty.
+     */
+    public double getBestPrice() {
+        return this.size == 0 ? Double.NaN : this.prices[this.size - 1];
+    }
+
+
+    /**
+     * Returns the quantity of the best level, NaN if the side is empty.
+     */
+    public double getBestQuantity() {
+        return this.size == 0 ? Double.NaN : this.quantities[this.size - 1];
+    }
+
+
+    /**
+     * Returns the quantity at the price, 0 if there is no such level.
+     */
+    public double getQuantityAt(double price) {
+        int index = this.indexOf(price);
+        return index < 0 ? 0 : this.quantities[index];
+    }
+
+
+    /**
+     * Copies the best n levels into the given arrays, best first, and returns the number of levels copied. Fewer
+     * are copied if the side or the arrays are shorter.
+     */
+    public int copyTop(int n, double[] prices, double[] quantities) {
+        int count = Math.min(Math.min(n, this.size), Math.min(prices.length, quantities.length));
+        for (int level = 0; level < count; level++) {
+            prices[level] = this.prices[this.size - 1 - level];
+            quantities[level] = this.quantities[this.size - 1 - level];
+        }
+        return count;
+    }
+
+
+    /**
+     * Sets the quantity of the price level, 0 removes it.
+     */
+    void update(double price, double quantity) {
+        if (Double.isNaN(price)) {
+            return;
+        }
+        int index = this.indexOf(price);
+        if (index >= 0) {
+            if (quantity == 0) {
+                System.arraycopy(this.prices, index + 1, this.prices, index, this.size - index - 1);
+                System.arraycopy(this.quantities, index + 1, this.quantities, index, this.size - index - 1);
+                this.size--;
+            } else {
+                this.quantities[index] = quantity;
+            }
+            return;
+        }
+        if (quantity == 0) {
+            return;
+        }
+        int insert = -index - 1;
+        if (this.size == this.prices.length) {
+            this.prices = Arrays.copyOf(this.prices, this.size * 2);
+            this.quantities = Arrays.copyOf(this.quantities, this.size * 2);
+        }
+        System.arraycopy(this.prices, insert, this.prices, insert + 1, this.size - insert);
+        System.arraycopy(this.quantities, insert, this.quantities, insert + 1, this.size - insert);
+        this.prices[insert] = price;
+        this.quantities[insert] = quantity;
+        this.size++;
+    }
+
+
+    void clear() {
+        this.size = 0;
+    }
+
+
+    void set(BookSide other) {
+        if (this.prices.length < other.size) {
+            this.prices = new double[other.prices.length];
+            this.quantities = new double[other.prices.length];
+        }
+        System.arraycopy(other.prices, 0, this.prices, 0, other.size);
+        System.arraycopy(other.quantities, 0, this.quantities, 0, other.size);
+        this.size = other.size;
+    }
+
+
+    private int index(int level) {
+        return this.size - 1 - Objects.checkIndex(level, this.size);
+    }
+
+
+    /**
+     * Binary search over the stored order, returns -(insertion point + 1) if the price isn't there.
+     */
+    private int indexOf(double price) {
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midPrice = this.prices[mid];
+            if (midPrice == price) {
+                return mid;
+            }
+            // worse than the price: bids are stored ascending, asks descending
+            if (this.bids ? midPrice < price : midPrice > price) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -(low + 1);
+    }
+}
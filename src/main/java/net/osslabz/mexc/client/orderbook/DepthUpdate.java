@@ -0,0 +1,103 @@
+package net.osslabz.mexc.client.orderbook;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * Decoded message of the incremental depth channel: the changed levels with their new quantity (0 removes the level)
+ * and the version the book has after applying them. A subscription decodes every message into the same instance.
+ */
+@Getter
+@Setter
+public class DepthUpdate {
+
+    private long version;
+
+    private long eventTime;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double[] bids = new double[32];
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double[] asks = new double[32];
+
+    @Setter(AccessLevel.NONE)
+    private int bidCount;
+
+    @Setter(AccessLevel.NONE)
+    private int askCount;
+
+
+    public void reset() {
+        this.version = 0;
+        this.eventTime = 0;
+        this.bidCount = 0;
+        this.askCount = 0;
+    }
+
+
+    public void addBid(double price, double quantity) {
+        this.bids = add(this.bids, this.bidCount++, price, quantity);
+    }
+
+
+    public void addAsk(double price, double quantity) {
+        this.asks = add(this.asks, this.askCount++, price, quantity);
+    }
+
+
+    public double getBidPrice(int i) {
+        return this.bids[2 * i];
+    }
+
+
+    public double getBidQuantity(int i) {
+        return this.bids[2 * i + 1];
+    }
+
+
+    public double getAskPrice(int i) {
+        return this.asks[2 * i];
+    }
+
+
+    public double getAskQuantity(int i) {
+        return this.asks[2 * i + 1];
+    }
+
+
+    public DepthUpdate copy() {
+        DepthUpdate copy = new DepthUpdate();
+        copy.version = this.version;
+        copy.eventTime = this.eventTime;
+        copy.bids = Arrays.copyOf(this.bids, Math.max(2, 2 * this.bidCount));
+        copy.asks = Arrays.copyOf(this.asks, Math.max(2, 2 * this.askCount));
+        copy.bidCount = this.bidCount;
+        copy.askCount = this.askCount;
+        return copy;
+    }
+
+
+    /**
+     * Levels are stored as price/quantity pairs in one array.
+     */
+    private static double[] add(double[] levels, int index, double price, double quantity) {
+        if (2 * index + 1 >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length * 2);
+        }
+        levels[2 * index] = price;
+        levels[2 * index + 1] = quantity;
+        return levels;
+    }
+
+
+    @Override
+    public String toString() {
+        return "DepthUpdate(version=%d, eventTime=%d, bids=%d, asks=%d)".formatted(this.version, this.eventTime, this.bidCount, this.askCount);
+    }
+}
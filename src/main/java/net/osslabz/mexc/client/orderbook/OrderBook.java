@@ -0,0 +1,98 @@
+package net.osslabz.mexc.client.orderbook;
+
+import lombok.Getter;
+import net.osslabz.crypto.CurrencyPair;
+
+/**
+ * Local copy of a currency pair's order book, maintained by an {@link OrderBookSynchronizer}. The book is updated in
+ * place and only consistent during the {@link OrderBookConsumer} callback, use {@link #set(OrderBook)} or
+ * {@link BookSide#copyTop(int, double[], double[])} to keep its state.
+ */
+@Getter
+public class OrderBook {
+
+    private final CurrencyPair currencyPair;
+
+    private final BookSide bids = new BookSide(true);
+
+    private final BookSide asks = new BookSide(false);
+
+    /**
+     * Version of the last applied update or snapshot, 0 before the first snapshot.
+     */
+    private long version = 0;
+
+    /**
+     * Exchange time (epoch millis) of the last applied update, 0 for a snapshot.
+     */
+    private long eventTime = 0;
+
+
+    public OrderBook(CurrencyPair currencyPair) {
+        this.currencyPair = currencyPair;
+    }
+
+
+    /**
+     * Returns the best bid price, NaN if there is no bid.
+     */
+    public double getBestBidPrice() {
+        return this.bids.getBestPrice();
+    }
+
+
+    public double getBestBidQuantity() {
+        return this.bids.getBestQuantity();
+    }
+
+
+    /**
+     * Returns the best ask price, NaN if there is no ask.
+     */
+    public double getBestAskPrice() {
+        return this.asks.getBestPrice();
+    }
+
+
+    public double getBestAskQuantity() {
+        return this.asks.getBestQuantity();
+    }
+
+
+    /**
+     * Copies the other book into this one, reusing its arrays once they are large enough.
+     */
+    public void set(OrderBook other) {
+        this.bids.set(other.bids);
+        this.asks.set(other.asks);
+        this.version = other.version;
+        this.eventTime = other.eventTime;
+    }
+
+
+    void apply(DepthUpdate update) {
+        for (int i = 0; i < update.getBidCount(); i++) {
+            this.bids.update(update.getBidPrice(i), update.getBidQuantity(i));
+        }
+        for (int i = 0; i < update.getAskCount(); i++) {
+            this.asks.update(update.getAskPrice(i), update.getAskQuantity(i));
+        }
+        this.version = update.getVersion();
+        this.eventTime = update.getEventTime();
+    }
+
+
+    void reset(long version) {
+        this.bids.clear();
+        this.asks.clear();
+        this.version = version;
+        this.eventTime = 0;
+    }
+
+
+    @Override
+    public String toString() {
+        return "OrderBook(%s, version=%d, bid=%s x %s, ask=%s x %s, levels=%d/%d)".formatted(this.currencyPair, this.version, this.getBestBidPrice(),
+                this.getBestBidQuantity(), this.getBestAskPrice(), this.getBestAskQuantity(), this.bids.size(), this.asks.size());
+    }
+}
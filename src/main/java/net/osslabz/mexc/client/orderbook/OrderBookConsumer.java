@@ -0,0 +1,11 @@
+package net.osslabz.mexc.client.orderbook;
+
+/**
+ * Receives the order book after every applied update. The book is only consistent during the call, see
+ * {@link OrderBook}.
+ */
+@FunctionalInterface
+public interface OrderBookConsumer {
+
+    void onOrderBook(OrderBook orderBook);
+}
@@ -0,0 +1,218 @@
+package net.osslabz.mexc.client.orderbook;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.mexc.client.rest.dto.Depth;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps an {@link OrderBook} in sync with the incremental depth channel as MEXC describes it: updates are buffered
+ * until a REST snapshot has been loaded, the ones it already contains (version &lt;= lastUpdateId) are dropped and
+ * the rest applied in order. From then on every update has to have the version of the previous one plus 1, a gap
+ * (e.g. after a reconnect) invalidates the book and starts over with a new snapshot. Older or repeated updates are
+ * ignored.
+ * <p>
+ * The consumer is only called while the book is in sync, after every applied update and once a snapshot has been
+ * caught up. A snapshot that is older than the first buffered update can't be caught up and is requested again after
+ * the retry delay, just like a failed one.
+ */
+@Slf4j
+public class OrderBookSynchronizer {
+
+    static final int MAX_BUFFERED_UPDATES = 10_000;
+
+    private final OrderBook book;
+
+    private final Supplier<CompletableFuture<Depth>> snapshotLoader;
+
+    private final Executor retryExecutor;
+
+    private final Consumer<OrderBook> consumer;
+
+    /**
+     * Copies of the updates received while not in sync, oldest first.
+     */
+    private final Deque<DepthUpdate> buffer = new ArrayDeque<>();
+
+    private boolean synced = false;
+
+    private boolean snapshotPending = false;
+
+    private boolean stopped = false;
+
+
+    public OrderBookSynchronizer(CurrencyPair currencyPair, Supplier<CompletableFuture<Depth>> snapshotLoader, Duration retryDelay,
+                                 Consumer<OrderBook> consumer) {
+        this.book = new OrderBook(currencyPair);
+        this.snapshotLoader = snapshotLoader;
+        this.retryExecutor = CompletableFuture.delayedExecutor(retryDelay.toNanos(), TimeUnit.NANOSECONDS);
+        this.consumer = consumer;
+    }
+
+
+    public synchronized void onUpdate(DepthUpdate update) {
+        if (this.stopped) {
+            return;
+        }
+        if (!this.synced) {
+            this.buffer(update);
+            this.requestSnapshot();
+            return;
+        }
+        long version = this.book.getVersion();
+        if (update.getVersion() <= version) {
+            return;
+        }
+        if (update.getVersion() != version + 1) {
+            log.info("{} order book is missing the updates from {} to {}, resyncing", this.book.getCurrencyPair(), version + 1, update.getVersion() - 1);
+            this.synced = false;
+            this.book.reset(0);
+            this.buffer(update);
+            this.requestSnapshot();
+            return;
+        }
+        this.book.apply(update);
+        this.notifyConsumer();
+    }
+
+
+    /**
+     * Stops processing updates and snapshots, pending snapshot requests aren't repeated.
+     */
+    public synchronized void stop() {
+        this.stopped = true;
+        this.buffer.clear();
+    }
+
+
+    public synchronized boolean isSynced() {
+        return this.synced;
+    }
+
+
+    OrderBook getBook() {
+        return this.book;
+    }
+
+
+    synchronized void onSnapshot(Depth snapshot) {
+        this.snapshotPending = false;
+        if (this.stopped || this.synced) {
+            return;
+        }
+        long lastUpdateId = snapshot.getLastUpdateId();
+        while (!this.buffer.isEmpty() && this.buffer.peekFirst().getVersion() <= lastUpdateId) {
+            this.buffer.pollFirst();
+        }
+        if (!this.buffer.isEmpty() && this.buffer.peekFirst().getVersion() > lastUpdateId + 1) {
+            log.debug("{} snapshot {} is older than the buffered update {}, requesting a new one", this.book.getCurrencyPair(), lastUpdateId,
+                    this.buffer.peekFirst().getVersion());
+            this.retrySnapshot();
+            return;
+        }
+
+        this.book.reset(lastUpdateId);
+        load(this.book.getBids(), snapshot.getBids());
+        load(this.book.getAsks(), snapshot.getAsks());
+        for (DepthUpdate update = this.buffer.pollFirst(); update != null; update = this.buffer.pollFirst()) {
+            if (update.getVersion() != this.book.getVersion() + 1) {
+                // a gap within the buffer, the next snapshot has to be newer than it
+                log.info("{} order book is missing the updates from {} to {}, resyncing", this.book.getCurrencyPair(), this.book.getVersion() + 1,
+                        update.getVersion() - 1);
+                this.book.reset(0);
+                this.buffer.addFirst(update);
+                this.retrySnapshot();
+                return;
+            }
+            this.book.apply(update);
+        }
+        this.synced = true;
+        log.debug("{} order book in sync at version {}", this.book.getCurrencyPair(), this.book.getVersion());
+        this.notifyConsumer();
+    }
+
+
+    private synchronized void onSnapshotFailure(Throwable e) {
+        this.snapshotPending = false;
+        if (this.stopped || this.synced) {
+            return;
+        }
+        log.warn("Loading the {} order book snapshot failed, retrying. Error: {}", this.book.getCurrencyPair(), e.getMessage());
+        this.retrySnapshot();
+    }
+
+
+    private void buffer(DepthUpdate update) {
+        if (this.buffer.size() >= MAX_BUFFERED_UPDATES) {
+            this.buffer.pollFirst();
+        }
+        this.buffer.addLast(update.copy());
+    }
+
+
+    private void requestSnapshot() {
+        if (this.snapshotPending || this.stopped) {
+            return;
+        }
+        this.snapshotPending = true;
+        CompletableFuture<Depth> snapshot;
+        try {
+            snapshot = this.snapshotLoader.get();
+        } catch (RuntimeException e) {
+            snapshot = CompletableFuture.failedFuture(e);
+        }
+        snapshot.whenComplete((depth, e) -> {
+            if (e != null) {
+                this.onSnapshotFailure(e);
+            } else {
+                this.onSnapshot(depth);
+            }
+        });
+    }
+
+
+    /**
+     * Requests the next snapshot after the retry delay, updates arriving in between don't request one.
+     */
+    private void retrySnapshot() {
+        this.snapshotPending = true;
+        this.retryExecutor.execute(() -> {
+            synchronized (this) {
+                this.snapshotPending = false;
+                if (!this.synced) {
+                    this.requestSnapshot();
+                }
+            }
+        });
+    }
+
+
+    private void notifyConsumer() {
+        try {
+            this.consumer.accept(this.book);
+        } catch (Exception e) {
+            log.warn("Consumer failed to process order book {}. Error: {}", this.book, e.getMessage(), e);
+        }
+    }
+
+
+    private static void load(BookSide side, double[][] levels) {
+        if (levels == null) {
+            return;
+        }
+        // worst level first, each one is appended
+        for (int i = levels.length - 1; i >= 0; i--) {
+            if (levels[i].length >= 2) {
+                side.update(levels[i][0], levels[i][1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.osslabz.mexc.client.rest;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs calls according to the {@link HttpLogMode}. The decision is taken per call and only if the logger is enabled,
+ * otherwise the call passes through untouched.
+ */
+class HttpLogInterceptor implements Interceptor {
+
+    private static final String HEADER_ACCESS_KEY = "X-MEXC-APIKEY";
+
+    private final Logger logger;
+
+    private final HttpLogMode mode;
+
+    private final int bodyLogSampleRate;
+
+    private final HttpLoggingInterceptor headers;
+
+    private final HttpLoggingInterceptor bodies;
+
+    private final AtomicLong callCounter = new AtomicLong();
+
+
+    HttpLogInterceptor(Logger logger, HttpLogMode mode, int bodyLogSampleRate) {
+        if (bodyLogSampleRate < 1) {
+            throw new IllegalArgumentException("bodyLogSampleRate must be positive but was " + bodyLogSampleRate);
+        }
+        this.logger = logger;
+        this.mode = mode;
+        this.bodyLogSampleRate = bodyLogSampleRate;
+        this.headers = this.createInterceptor(HttpLoggingInterceptor.Level.HEADERS);
+        this.bodies = this.createInterceptor(HttpLoggingInterceptor.Level.BODY);
+    }
+
+
+    private HttpLoggingInterceptor createInterceptor(HttpLoggingInterceptor.Level level) {
+        HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor(this.logger::debug);
+        interceptor.setLevel(level);
+        interceptor.redactHeader(HEADER_ACCESS_KEY);
+        return interceptor;
+    }
+
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        if (this.mode == HttpLogMode.NONE || !this.logger.isDebugEnabled()) {
+            return chain.proceed(chain.request());
+        }
+        if (this.mode == HttpLogMode.SAMPLED_BODIES && this.callCounter.getAndIncrement() % this.bodyLogSampleRate == 0) {
+            return this.bodies.intercept(chain);
+        }
+        return this.headers.intercept(chain);
+    }
+}
@@ -0,0 +1,20 @@
+package net.osslabz.mexc.client.rest;
+
+/**
+ * What the REST client logs about its HTTP calls. Logging happens at DEBUG level and costs nothing while that level
+ * is disabled.
+ */
+public enum HttpLogMode {
+
+    NONE,
+
+    /**
+     * Request and response lines and headers, the API key header is redacted.
+     */
+    HEADERS,
+
+    /**
+     * Like HEADERS, additionally the bodies of every n-th call, see {@link MexcRestClientConfig#getBodyLogSampleRate()}.
+     */
+    SAMPLED_BODIES
+}
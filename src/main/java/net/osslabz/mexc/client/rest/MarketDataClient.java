@@ -0,0 +1,257 @@
+package net.osslabz.mexc.client.rest;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.MexcMapper;
+import net.osslabz.mexc.client.SymbolTable;
+import net.osslabz.mexc.client.rest.dto.Depth;
+import net.osslabz.mexc.client.rest.dto.Kline;
+import net.osslabz.mexc.client.ws.dto.DecodeContext;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Historical klines of the public market data API. A time range is split into pages of at most
+ * {@link #MAX_KLINES_PER_PAGE} klines which are fetched in parallel, up to
+ * {@link MexcRestClientConfig#getBackfillParallelism()} pages at a time across all running requests, so backfills
+ * of many pairs keep the connection busy while the rate limiter keeps them within MEXC's request weight budget.
+ */
+@Slf4j
+public class MarketDataClient implements Closeable {
+
+    public static final String KLINES = "/api/v3/klines";
+
+    public static final String DEPTH = "/api/v3/depth";
+
+    static final int MAX_KLINES_PER_PAGE = 1000;
+
+    private final MexcRestClient restClient;
+
+    private final MexcMapper mapper = new MexcMapper();
+
+    private final int parallelism;
+
+    private final Deque<Runnable> pendingPages = new ArrayDeque<>();
+
+    private int pagesInFlight = 0;
+
+    /**
+     * Set while a thread starts pending pages, pages completing meanwhile leave the next start to it.
+     */
+    private boolean draining = false;
+
+
+    public MarketDataClient() {
+        this(MexcRestClientConfig.DEFAULT);
+    }
+
+
+    public MarketDataClient(MexcRestClientConfig config) {
+        this.restClient = new MexcRestClient(config);
+        this.parallelism = Math.max(1, config.getBackfillParallelism());
+    }
+
+
+    @Override
+    public void close() {
+        this.restClient.close();
+    }
+
+
+    /**
+     * Returns the klines opened within [from, to) in ascending order.
+     */
+    public List<Ohlc> getKlines(CurrencyPair currencyPair, Interval interval, Instant from, Instant to) {
+        try {
+            return this.getKlinesAsync(currencyPair, interval, from, to).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+
+    public CompletableFuture<List<Ohlc>> getKlinesAsync(CurrencyPair currencyPair, Interval interval, Instant from, Instant to) {
+        List<CompletableFuture<List<Ohlc>>> pages = this.fetchPages(currencyPair, interval, from, to);
+        return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new))
+                .thenApply(done -> pages.stream().flatMap(page -> page.join().stream()).toList());
+    }
+
+
+    /**
+     * Backfills several currency pairs at once, all of their pages share the parallelism of this client.
+     */
+    public CompletableFuture<Map<CurrencyPair, List<Ohlc>>> getKlinesAsync(Collection<CurrencyPair> currencyPairs, Interval interval, Instant from, Instant to) {
+        Map<CurrencyPair, CompletableFuture<List<Ohlc>>> futures = new LinkedHashMap<>();
+        currencyPairs.forEach(currencyPair -> futures.put(currencyPair, this.getKlinesAsync(currencyPair, interval, from, to)));
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<CurrencyPair, List<Ohlc>> klines = new LinkedHashMap<>();
+                    futures.forEach((currencyPair, future) -> klines.put(currencyPair, future.join()));
+                    return klines;
+                });
+    }
+
+
+    /**
+     * Like {@link #getKlines(CurrencyPair, Interval, Instant, Instant)} but the klines of a page can be consumed as
+     * soon as it and all pages before it have arrived, later pages are still being fetched.
+     */
+    public Stream<Ohlc> streamKlines(CurrencyPair currencyPair, Interval interval, Instant from, Instant to) {
+        return this.fetchPages(currencyPair, interval, from, to).stream()
+                .flatMap(page -> {
+                    try {
+                        return page.join().stream();
+                    } catch (CompletionException e) {
+                        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                    }
+                });
+    }
+
+
+    /**
+     * Returns the order book snapshot with up to limit levels per side.
+     */
+    public Depth getDepth(CurrencyPair currencyPair, int limit) {
+        try {
+            return this.getDepthAsync(currencyPair, limit).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+
+    public CompletableFuture<Depth> getDepthAsync(CurrencyPair currencyPair, int limit) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", SymbolTable.global().intern(currencyPair).getName());
+        params.put("limit", Integer.toString(limit));
+        return this.restClient.getAsync(DEPTH, params, Depth.class);
+    }
+
+
+    private List<CompletableFuture<List<Ohlc>>> fetchPages(CurrencyPair currencyPair, Interval interval, Instant from, Instant to) {
+        DecodeContext decodeContext = DecodeContext.kline(SymbolTable.global().intern(currencyPair), interval);
+        String symbol = decodeContext.getSymbol().getName();
+        String restInterval = this.mapper.mapRestInterval(interval);
+
+        long intervalMillis = interval.getDuration().toMillis();
+        long pageMillis = intervalMillis * MAX_KLINES_PER_PAGE;
+        long start = Math.floorDiv(from.toEpochMilli(), intervalMillis) * intervalMillis;
+        long end = to.toEpochMilli();
+
+        List<CompletableFuture<List<Ohlc>>> pages = new ArrayList<>();
+        for (long pageStart = start; pageStart < end; pageStart += pageMillis) {
+            long pageEnd = Math.min(pageStart + pageMillis, end);
+            long startTime = pageStart;
+            pages.add(this.schedule(() -> this.fetchPage(decodeContext, symbol, restInterval, startTime, pageEnd)));
+        }
+        log.debug("Fetching {} {} klines from {} to {} in {} page(s)", restInterval, symbol, from, to, pages.size());
+        return pages;
+    }
+
+
+    /**
+     * Fetches the klines opened within [startTime, endTime).
+     */
+    private CompletableFuture<List<Ohlc>> fetchPage(DecodeContext decodeContext, String symbol, String restInterval, long startTime, long endTime) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", symbol);
+        params.put("interval", restInterval);
+        params.put("startTime", Long.toString(startTime));
+        params.put("endTime", Long.toString(endTime - 1));
+        params.put("limit", Integer.toString(MAX_KLINES_PER_PAGE));
+
+        return this.restClient.getAsync(KLINES, params, Kline[].class).thenApply(klines -> {
+            List<Ohlc> ohlcs = new ArrayList<>(klines.length);
+            long lastOpenTime = Long.MIN_VALUE;
+            for (Kline kline : klines) {
+                // MEXC answers in ascending order, anything outside the page or repeated is dropped
+                if (kline.getOpenTime() < startTime || kline.getOpenTime() >= endTime || kline.getOpenTime() <= lastOpenTime) {
+                    continue;
+                }
+                lastOpenTime = kline.getOpenTime();
+                ohlcs.add(this.mapper.map(decodeContext, kline));
+            }
+            return ohlcs;
+        });
+    }
+
+
+    /**
+     * Starts the page fetch right away if fewer than {@link #parallelism} pages are in flight, otherwise once one of
+     * them has completed. A fetch that fails synchronously fails its page and frees the slot like any other.
+     */
+    private <T> CompletableFuture<T> schedule(Supplier<CompletableFuture<T>> fetch) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> page;
+            try {
+                page = fetch.get();
+            } catch (RuntimeException e) {
+                page = CompletableFuture.failedFuture(e);
+            }
+            page.whenComplete((value, e) -> {
+                this.onPageDone();
+                if (e != null) {
+                    result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this.pendingPages) {
+            this.pendingPages.add(start);
+        }
+        this.startPendingPages();
+        return result;
+    }
+
+
+    private void onPageDone() {
+        synchronized (this.pendingPages) {
+            this.pagesInFlight--;
+        }
+        this.startPendingPages();
+    }
+
+
+    /**
+     * Starts pending pages while slots are free. Pages may complete synchronously (e.g. rejected by the rate limiter),
+     * so they are started in a loop rather than from the completion of the previous one, which would nest a call per
+     * page.
+     */
+    private void startPendingPages() {
+        while (true) {
+            Runnable next;
+            synchronized (this.pendingPages) {
+                if (this.draining || this.pagesInFlight >= this.parallelism || this.pendingPages.isEmpty()) {
+                    return;
+                }
+                next = this.pendingPages.poll();
+                this.pagesInFlight++;
+                this.draining = true;
+            }
+            try {
+                next.run();
+            } finally {
+                synchronized (this.pendingPages) {
+                    this.draining = false;
+                }
+            }
+        }
+    }
+}
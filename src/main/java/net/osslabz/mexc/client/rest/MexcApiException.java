@@ -0,0 +1,26 @@
+package net.osslabz.mexc.client.rest;
+
+import lombok.Getter;
+import net.osslabz.mexc.client.MexcClientException;
+
+/**
+ * MEXC rejected a REST request. Carries the HTTP status and, if MEXC sent one, its error code (e.g. 700002 for an
+ * invalid signature).
+ */
+@Getter
+public class MexcApiException extends MexcClientException {
+
+    private final int httpStatus;
+
+    /**
+     * Null if the response didn't contain a MEXC error code.
+     */
+    private final Integer code;
+
+
+    public MexcApiException(int httpStatus, Integer code, String message) {
+        super("%s (httpStatus=%d, code=%s)".formatted(message, httpStatus, code));
+        this.httpStatus = httpStatus;
+        this.code = code;
+    }
+}
@@ -4,31 +4,51 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.MexcClientException;
 import net.osslabz.mexc.client.rest.dto.ErrorResponse;
 import net.osslabz.mexc.client.utils.SignatureInterceptor;
 import net.osslabz.mexc.client.utils.SignatureUtil;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.ResponseBody;
 import org.jetbrains.annotations.NotNull;
-import org.slf4j.LoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
-public class MexcRestClient {
-    private static final String REQUEST_HOST = "https://api.mexc.com";
-
+@Slf4j
+public class MexcRestClient implements Closeable {
     private static final ObjectMapper OBJECT_MAPPER;
 
     private final String accessKey;
     private final String secretKey;
+    private final String requestHost;
     private final OkHttpClient okHttpClient;
+    private final RestRateLimiter rateLimiter;
+
+    /**
+     * Runs the blocking calls of the async variants, null if they are based on {@link Call#enqueue(Callback)}.
+     */
+    private final ExecutorService asyncExecutor;
 
 
     static {
@@ -40,117 +60,305 @@ public class MexcRestClient {
     }
 
 
+    /**
+     * Client for the public endpoints only, requests aren't signed.
+     */
+    public MexcRestClient(MexcRestClientConfig config) {
+        this(null, null, config);
+    }
+
+
     public MexcRestClient(String accessKey, String secretKey) {
+        this(accessKey, secretKey, MexcRestClientConfig.DEFAULT);
+    }
+
+
+    public MexcRestClient(String accessKey, String secretKey, MexcRestClientConfig config) {
         this.accessKey = accessKey;
         this.secretKey = secretKey;
+        this.requestHost = StringUtils.removeEnd(config.getBaseUrl(), "/");
+
+        this.rateLimiter = config.getRateLimiter() != null ? config.getRateLimiter() : new RestRateLimiter(config);
+        this.okHttpClient = createOkHttpClient(config);
+        this.asyncExecutor = config.getAsyncMode() == AsyncMode.VIRTUAL_THREADS ? createVirtualThreadExecutor() : null;
+    }
+
 
-        this.okHttpClient = createOkHttpClient();
+    /**
+     * Virtual threads need Java 21, the client targets Java 17 so the executor is looked up at runtime.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads aren't available on Java {}, async requests are enqueued instead.", Runtime.version().feature());
+            return null;
+        }
     }
 
 
-    private OkHttpClient createOkHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(
-                message -> LoggerFactory.getLogger(this.getClass()).info(message)
-        );
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        return new OkHttpClient.Builder()
-                .connectTimeout(45, TimeUnit.SECONDS)
-                .readTimeout(45, TimeUnit.SECONDS)
-                .writeTimeout(45, TimeUnit.SECONDS)
-                .addInterceptor(new SignatureInterceptor(accessKey, secretKey))
-                .addInterceptor(loggingInterceptor)
+    private OkHttpClient createOkHttpClient(MexcRestClientConfig config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), config.getMaxRequestsPerHost()));
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(config.isHttp2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout())
+                .writeTimeout(config.getWriteTimeout());
+        if (this.accessKey != null) {
+            builder.addInterceptor(new RestCallEventInterceptor());
+            builder.addInterceptor(new SignatureInterceptor(this.accessKey, this.secretKey));
+        }
+        return builder
+                .addInterceptor(new HttpLogInterceptor(log, config.getLogMode(), config.getBodyLogSampleRate()))
+                .addInterceptor(this.rateLimiter)
                 .build();
     }
 
 
     <T> T get(String uri, Map<String, String> params, Class<T> clazz) {
-        try {
-            Response response = okHttpClient
-                    .newCall(new Request.Builder().url(createUrl(uri, params)).get().build())
-                    .execute();
-            return handleResponse(response, clazz);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return this.execute(createGetRequest(uri, params), clazz);
+    }
+
+
+    <T> CompletableFuture<T> getAsync(String uri, Map<String, String> params, Class<T> clazz) {
+        return this.executeAsync(createGetRequest(uri, params), clazz);
+    }
+
+
+    private Request createGetRequest(String uri, Map<String, String> params) {
+        return new Request.Builder().url(createUrl(uri, params)).get().build();
     }
 
     @NotNull
-    private static String createUrl(String uri, Map<String, String> params) {
-        String url = params != null && !params.isEmpty() ? REQUEST_HOST + uri + "?" + SignatureUtil.toQueryString(params) : REQUEST_HOST + uri;
+    private String createUrl(String uri, Map<String, String> params) {
+        String url = params != null && !params.isEmpty() ? this.requestHost + uri + "?" + SignatureUtil.toQueryString(params) : this.requestHost + uri;
         return url;
     }
 
 
     <T> T post(String uri, Map<String, String> params, Class<T> clazz) {
-        try {
-            String url = createUrl(uri, params);
-            Response response = okHttpClient
-                    .newCall(new Request.Builder()
-                            .url(url)
+        return this.execute(createPostRequest(uri, params), clazz);
+    }
 
-                            .post(RequestBody.create(new byte[0], null)).header("Content-Length", "0").build()).execute();
-            return handleResponse(response, clazz);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+
+    <T> CompletableFuture<T> postAsync(String uri, Map<String, String> params, Class<T> clazz) {
+        return this.executeAsync(createPostRequest(uri, params), clazz);
+    }
+
+
+    private Request createPostRequest(String uri, Map<String, String> params) {
+        return new Request.Builder()
+                .url(createUrl(uri, params))
+                .post(RequestBody.create(new byte[0], null)).header("Content-Length", "0").build();
     }
 
 
     <T> T postEmptyBody(String uri, Map<String, String> params, Class<T> clazz) {
-        try {
-            String timestamp = Instant.now().toEpochMilli() + "";
-            String paramsStr = SignatureUtil.toQueryStringWithEncoding(params);
-            paramsStr += "&timestamp=" + timestamp;
-            String signature = SignatureUtil.actualSignature(paramsStr, secretKey);
-            paramsStr += "&signature=" + signature;
-
-
-            RequestBody empty = RequestBody.create(null, new byte[0]);
-            Request.Builder body = new Request.Builder().url(REQUEST_HOST.concat(uri).concat("?").concat(paramsStr)).method("POST", empty).header("Content-Length", "0");
-            Response response = okHttpClient
-                    .newCall(body.build()).execute();
-            return handleResponse(response, clazz);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        String timestamp = Instant.now().toEpochMilli() + "";
+        String paramsStr = SignatureUtil.toQueryStringWithEncoding(params);
+        paramsStr += "&timestamp=" + timestamp;
+        String signature = SignatureUtil.actualSignature(paramsStr, secretKey);
+        paramsStr += "&signature=" + signature;
+
+
+        RequestBody empty = RequestBody.create(null, new byte[0]);
+        Request.Builder body = new Request.Builder().url(this.requestHost.concat(uri).concat("?").concat(paramsStr)).method("POST", empty).header("Content-Length", "0");
+        return this.execute(body.build(), clazz);
     }
 
 
     <T> T put(String uri, Map<String, String> params, Class<T> clazz) {
-        try {
-            Response response = okHttpClient
-                    .newCall(new Request.Builder()
-                            .url(REQUEST_HOST.concat(uri))
-                            .put(RequestBody.create(SignatureUtil.toQueryString(params), MediaType.get("text/plain"))).build()).execute();
-            return handleResponse(response, clazz);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return this.execute(createPutRequest(uri, params), clazz);
+    }
+
+
+    <T> CompletableFuture<T> putAsync(String uri, Map<String, String> params, Class<T> clazz) {
+        return this.executeAsync(createPutRequest(uri, params), clazz);
+    }
+
+
+    private Request createPutRequest(String uri, Map<String, String> params) {
+        return new Request.Builder()
+                .url(this.requestHost.concat(uri))
+                .put(RequestBody.create(SignatureUtil.toQueryString(params), MediaType.get("text/plain"))).build();
     }
 
 
     <T> T delete(String uri, Map<String, String> params, Class<T> clazz) {
+        return this.execute(createDeleteRequest(uri, params), clazz);
+    }
+
+
+    <T> CompletableFuture<T> deleteAsync(String uri, Map<String, String> params, Class<T> clazz) {
+        return this.executeAsync(createDeleteRequest(uri, params), clazz);
+    }
+
+
+    private Request createDeleteRequest(String uri, Map<String, String> params) {
+        return new Request.Builder()
+                .url(this.requestHost.concat(uri))
+                .delete(RequestBody.create(SignatureUtil.toQueryString(params), MediaType.get("text/plain"))).build();
+    }
+
+
+    /**
+     * Runs the request on the calling thread, which first waits for request weight if necessary.
+     */
+    private <T> T execute(Request request, Class<T> clazz) {
+        long waitNanos = this.rateLimiter.acquire(this.accessKey, request.url().encodedPath());
         try {
-            return handleResponse(okHttpClient
-                    .newCall(new Request.Builder()
-                            .url(REQUEST_HOST.concat(uri))
-                            .delete(RequestBody.create(SignatureUtil.toQueryString(params), MediaType.get("text/plain"))).build()).execute(), clazz);
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+            return handleResponse(this.okHttpClient.newCall(request).execute(), clazz);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new MexcClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MexcClientException("Interrupted while waiting for request weight", e);
         }
     }
 
 
-    private <T> T handleResponse(Response response, Class<T> clazz) {
+    /**
+     * Runs the request without blocking the caller, either enqueued on OkHttp's dispatcher or as blocking call on a
+     * virtual thread. A request that has to wait for request weight is started delayed. Cancelling the future cancels
+     * the call.
+     */
+    private <T> CompletableFuture<T> executeAsync(Request request, Class<T> clazz) {
+        long waitNanos;
         try {
+            waitNanos = this.rateLimiter.acquire(this.accessKey, request.url().encodedPath());
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Call call = this.okHttpClient.newCall(request);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        if (waitNanos > 0) {
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!future.isDone()) {
+                    start(call, future, clazz);
+                }
+            });
+        } else {
+            start(call, future, clazz);
+        }
+        return future;
+    }
+
+
+    /**
+     * Starts the call, a client that has been closed fails the future.
+     */
+    private <T> void start(Call call, CompletableFuture<T> future, Class<T> clazz) {
+        if (this.asyncExecutor != null) {
+            try {
+                this.asyncExecutor.execute(() -> {
+                    try {
+                        future.complete(handleResponse(call.execute(), clazz));
+                    } catch (Exception e) {
+                        future.completeExceptionally(e instanceof IOException ? new MexcClientException(e) : e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(new MexcClientException("The client has been closed", e));
+            }
+            return;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try {
+                    future.complete(handleResponse(response, clazz));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(new MexcClientException(e));
+            }
+        });
+    }
+
+
+    /**
+     * Decodes the body straight from its byte stream and always closes the response, which releases the connection.
+     * Error responses are turned into a {@link MexcApiException}.
+     */
+    <T> T handleResponse(Response response, Class<T> clazz) {
+        try (response) {
+            ResponseBody body = response.body();
             if (response.code() < 400) {
-                return OBJECT_MAPPER.readValue(response.body().string(), clazz);
-            } else {
-                ErrorResponse errorResponse = OBJECT_MAPPER.readValue(response.body().string(), ErrorResponse.class);
-                throw new RuntimeException(errorResponse.getMsg());
+                if (body == null) {
+                    throw new MexcClientException("Response of %s has no body".formatted(response.request().url().encodedPath()));
+                }
+                return OBJECT_MAPPER.readValue(body.byteStream(), clazz);
             }
+            throw createApiException(response, body);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new MexcClientException(e);
+        }
+    }
+
+
+    private static MexcApiException createApiException(Response response, ResponseBody body) {
+        ErrorResponse errorResponse = null;
+        if (body != null) {
+            try {
+                errorResponse = OBJECT_MAPPER.readValue(body.byteStream(), ErrorResponse.class);
+            } catch (IOException e) {
+                // e.g. an HTML error page of a proxy, the status line has to do
+                log.debug("Couldn't read error response of {}: {}", response.request().url().encodedPath(), e.getMessage());
+            }
         }
+        if (errorResponse == null || errorResponse.getMsg() == null) {
+            return new MexcApiException(response.code(), null, response.message());
+        }
+        String code = StringUtils.trim(errorResponse.getCode());
+        return new MexcApiException(response.code(), NumberUtils.isDigits(code) ? Integer.valueOf(code) : null, errorResponse.getMsg());
+    }
+
+
+    /**
+     * Stops the threads and closes the idle connections, async calls started afterwards fail.
+     */
+    @Override
+    public void close() {
+        if (this.asyncExecutor != null) {
+            this.asyncExecutor.shutdown();
+        }
+        this.okHttpClient.dispatcher().executorService().shutdown();
+        this.okHttpClient.connectionPool().evictAll();
+    }
+
+
+    /**
+     * How the async variants run their requests.
+     */
+    public enum AsyncMode {
+
+        /**
+         * Enqueued on OkHttp's dispatcher, the response is handled on one of its threads.
+         */
+        ENQUEUE,
+
+        /**
+         * Executed as blocking call on a virtual thread per request, falls back to ENQUEUE before Java 21.
+         */
+        VIRTUAL_THREADS
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package net.osslabz.mexc.client.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP level settings of a {@link MexcRestClient}.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class MexcRestClientConfig {
+
+    public static final MexcRestClientConfig DEFAULT = MexcRestClientConfig.builder().build();
+
+    @Builder.Default
+    private final String baseUrl = "https://api.mexc.com";
+
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(45);
+
+    @Builder.Default
+    private final Duration readTimeout = Duration.ofSeconds(45);
+
+    @Builder.Default
+    private final Duration writeTimeout = Duration.ofSeconds(45);
+
+    /**
+     * Max. number of idle connections kept in the pool.
+     */
+    @Builder.Default
+    private final int maxIdleConnections = 5;
+
+    @Builder.Default
+    private final Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * Max. number of concurrent requests to MEXC, OkHttp's default of 5 would serialize any fan-out.
+     */
+    @Builder.Default
+    private final int maxRequestsPerHost = 64;
+
+    /**
+     * Negotiates HTTP/2 if the server supports it, otherwise only HTTP/1.1 is used.
+     */
+    @Builder.Default
+    private final boolean http2 = true;
+
+    @Builder.Default
+    private final MexcRestClient.AsyncMode asyncMode = MexcRestClient.AsyncMode.ENQUEUE;
+
+    @Builder.Default
+    private final HttpLogMode logMode = HttpLogMode.HEADERS;
+
+    /**
+     * With {@link HttpLogMode#SAMPLED_BODIES} the bodies of every n-th call are logged, 1 logs all of them.
+     */
+    @Builder.Default
+    private final int bodyLogSampleRate = 100;
+
+
+    @Builder.Default
+    private final RateLimitMode rateLimitMode = RateLimitMode.QUEUE;
+
+    /**
+     * Max. time a call waits for request weight with {@link RateLimitMode#QUEUE}.
+     */
+    @Builder.Default
+    private final Duration maxRateLimitWait = Duration.ofSeconds(10);
+
+    /**
+     * Request weight MEXC allows per IP within {@link #rateLimitInterval}.
+     */
+    @Builder.Default
+    private final int ipWeightLimit = 500;
+
+    /**
+     * Request weight MEXC allows per API key within {@link #rateLimitInterval}.
+     */
+    @Builder.Default
+    private final int apiKeyWeightLimit = 500;
+
+    @Builder.Default
+    private final Duration rateLimitInterval = Duration.ofSeconds(10);
+
+    /**
+     * Response header carrying the request weight used by the IP in the current interval, null if MEXC doesn't send
+     * one. Used to correct the client side bucket.
+     */
+    private final String usedWeightHeader;
+
+    /**
+     * Weights of endpoints by path, overriding or adding to the built-in ones.
+     */
+    @Builder.Default
+    private final Map<String, Integer> endpointWeights = Map.of();
+
+    /**
+     * Limiter to share between clients using the same IP, each client creates its own if null.
+     */
+    private final RestRateLimiter rateLimiter;
+
+    /**
+     * Max. number of kline pages a {@link MarketDataClient} fetches concurrently, across all running backfills.
+     */
+    @Builder.Default
+    private final int backfillParallelism = 8;
+}
@@ -0,0 +1,24 @@
+package net.osslabz.mexc.client.rest;
+
+import lombok.Getter;
+import net.osslabz.mexc.client.MexcClientException;
+
+import java.time.Duration;
+
+/**
+ * A REST call was rejected client side because it would exceed MEXC's request weight limits, it hasn't been sent.
+ */
+@Getter
+public class RateLimitExceededException extends MexcClientException {
+
+    private final String path;
+
+    private final int weight;
+
+
+    public RateLimitExceededException(String path, int weight, Duration maxWait) {
+        super("Request weight limit reached, %s (weight %d) would have to wait longer than %s".formatted(path, weight, maxWait));
+        this.path = path;
+        this.weight = weight;
+    }
+}
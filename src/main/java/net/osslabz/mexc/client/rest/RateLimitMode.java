@@ -0,0 +1,23 @@
+package net.osslabz.mexc.client.rest;
+
+/**
+ * What the REST client does with a call that would exceed MEXC's request weight limits.
+ */
+public enum RateLimitMode {
+
+    /**
+     * Calls aren't limited client side.
+     */
+    DISABLED,
+
+    /**
+     * The call waits until the buckets have refilled, up to {@link MexcRestClientConfig#getMaxRateLimitWait()}; a
+     * call that would have to wait longer is rejected.
+     */
+    QUEUE,
+
+    /**
+     * The call is rejected with a {@link RateLimitExceededException} right away.
+     */
+    REJECT
+}
@@ -0,0 +1,35 @@
+package net.osslabz.mexc.client.rest;
+
+import net.osslabz.mexc.client.jfr.RestCallEvent;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Records each call as {@link RestCallEvent} while a JFR recording has the event enabled. Added ahead of the
+ * {@link net.osslabz.mexc.client.utils.SignatureInterceptor}, so signing counts towards the call.
+ */
+class RestCallEventInterceptor implements Interceptor {
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RestCallEvent event = new RestCallEvent(request.method(), request.url().encodedPath());
+        if (!event.isEnabled()) {
+            return chain.proceed(request);
+        }
+        event.begin();
+        int status = 0;
+        try {
+            Response response = chain.proceed(request);
+            status = response.code();
+            return response;
+        } finally {
+            event.commit(status);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package net.osslabz.mexc.client.rest;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps REST calls within MEXC's request weight limits. Every endpoint has a weight, a call takes its weight from a
+ * bucket of the IP and one of the API key before it is sent. Both buckets refill continuously, so bursts are spread
+ * out instead of running into 429s.
+ * <p>
+ * The buckets are corrected from the responses: a 429 pauses them for the time MEXC asks for in Retry-After and, if
+ * {@link MexcRestClientConfig#getUsedWeightHeader()} is set, the used weight MEXC reports lowers the IP bucket.
+ * <p>
+ * Clients sharing an IP should share a limiter, see {@link MexcRestClientConfig#getRateLimiter()}.
+ */
+@Slf4j
+public class RestRateLimiter implements Interceptor {
+
+    /**
+     * Weights of the endpoints in use, endpoints not listed weigh {@link #DEFAULT_WEIGHT}.
+     */
+    static final Map<String, Integer> ENDPOINT_WEIGHTS = Map.of(
+            UserDataClient.USER_DATA_STREAM_LISTEN_KEY, 1,
+            MarketDataClient.KLINES, 1,
+            MarketDataClient.DEPTH, 1
+    );
+
+    static final int DEFAULT_WEIGHT = 1;
+
+    private static final String HEADER_ACCESS_KEY = "X-MEXC-APIKEY";
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final RateLimitMode mode;
+
+    private final Duration maxWait;
+
+    private final long apiKeyWeightLimit;
+
+    private final Duration interval;
+
+    private final String usedWeightHeader;
+
+    private final Map<String, Integer> endpointWeights;
+
+    private final TokenBucket ipBucket;
+
+    private final Map<String, TokenBucket> apiKeyBuckets = new ConcurrentHashMap<>();
+
+
+    public RestRateLimiter(MexcRestClientConfig config) {
+        this.mode = config.getRateLimitMode();
+        this.maxWait = this.mode == RateLimitMode.REJECT ? Duration.ZERO : config.getMaxRateLimitWait();
+        this.apiKeyWeightLimit = config.getApiKeyWeightLimit();
+        this.interval = config.getRateLimitInterval();
+        this.usedWeightHeader = config.getUsedWeightHeader();
+        this.endpointWeights = new HashMap<>(ENDPOINT_WEIGHTS);
+        this.endpointWeights.putAll(config.getEndpointWeights());
+        this.ipBucket = new TokenBucket(config.getIpWeightLimit(), this.interval);
+    }
+
+
+    public int getWeight(String path) {
+        return this.endpointWeights.getOrDefault(path, DEFAULT_WEIGHT);
+    }
+
+
+    /**
+     * Takes the weight of the endpoint from the buckets of the IP and the API key and returns how many nanos the call
+     * has to wait before it may be sent.
+     *
+     * @throws RateLimitExceededException if the call would have to wait longer than allowed by the mode
+     */
+    long acquire(String apiKey, String path) {
+        if (this.mode == RateLimitMode.DISABLED) {
+            return 0;
+        }
+        int weight = getWeight(path);
+        long maxWaitNanos = this.maxWait.toNanos();
+
+        long ipWait = this.ipBucket.reserve(weight, maxWaitNanos);
+        if (ipWait < 0) {
+            throw new RateLimitExceededException(path, weight, this.maxWait);
+        }
+        if (apiKey == null) {
+            return ipWait;
+        }
+        long apiKeyWait = getApiKeyBucket(apiKey).reserve(weight, maxWaitNanos);
+        if (apiKeyWait < 0) {
+            this.ipBucket.refund(weight);
+            throw new RateLimitExceededException(path, weight, this.maxWait);
+        }
+        return Math.max(ipWait, apiKeyWait);
+    }
+
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (this.mode != RateLimitMode.DISABLED) {
+            onResponse(response);
+        }
+        return response;
+    }
+
+
+    private void onResponse(Response response) {
+        if (response.code() == 429) {
+            Duration retryAfter = parseRetryAfter(response.header("Retry-After"));
+            log.warn("MEXC rate limit hit on {}, pausing requests for {}", response.request().url().encodedPath(), retryAfter);
+            this.ipBucket.pause(retryAfter);
+            String apiKey = response.request().header(HEADER_ACCESS_KEY);
+            if (apiKey != null) {
+                getApiKeyBucket(apiKey).pause(retryAfter);
+            }
+            return;
+        }
+        if (this.usedWeightHeader != null) {
+            String usedWeight = StringUtils.trim(response.header(this.usedWeightHeader));
+            if (NumberUtils.isDigits(usedWeight)) {
+                this.ipBucket.syncUsed(Long.parseLong(usedWeight));
+            }
+        }
+    }
+
+
+    private TokenBucket getApiKeyBucket(String apiKey) {
+        return this.apiKeyBuckets.computeIfAbsent(apiKey, k -> new TokenBucket(this.apiKeyWeightLimit, this.interval));
+    }
+
+
+    private static Duration parseRetryAfter(String retryAfter) {
+        String seconds = StringUtils.trim(retryAfter);
+        return NumberUtils.isDigits(seconds) ? Duration.ofSeconds(Long.parseLong(seconds)) : DEFAULT_RETRY_AFTER;
+    }
+}
@@ -0,0 +1,99 @@
+package net.osslabz.mexc.client.rest;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that refills continuously at capacity per interval. Callers reserve tokens up front: if there aren't
+ * enough the balance goes negative and the caller is told how long to wait, so waiting callers are served in the
+ * order they reserved.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+
+    private long refilledAt;
+
+
+    TokenBucket(long capacity, Duration interval) {
+        this(capacity, interval, System::nanoTime);
+    }
+
+
+    TokenBucket(long capacity, Duration interval, LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (double) interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+
+    /**
+     * Reserves the tokens and returns how many nanos the caller has to wait before using them, 0 if it doesn't have
+     * to wait. If the wait would exceed maxWaitNanos nothing is reserved and -1 is returned.
+     */
+    synchronized long reserve(int weight, long maxWaitNanos) {
+        refill();
+        if (this.tokens >= weight) {
+            this.tokens -= weight;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((weight - this.tokens) / this.tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        this.tokens -= weight;
+        return waitNanos;
+    }
+
+
+    /**
+     * Gives back tokens that were reserved but not used.
+     */
+    synchronized void refund(int weight) {
+        refill();
+        this.tokens = Math.min(this.capacity, this.tokens + weight);
+    }
+
+
+    /**
+     * Aligns the bucket with the weight the exchange reports as used in its current window, it only ever lowers the
+     * balance since the report doesn't include requests still in flight.
+     */
+    synchronized void syncUsed(long usedWeight) {
+        refill();
+        this.tokens = Math.min(this.tokens, this.capacity - usedWeight);
+    }
+
+
+    /**
+     * Lets nothing through for the given time, used when the exchange has answered with 429.
+     */
+    synchronized void pause(Duration duration) {
+        refill();
+        this.tokens = Math.min(this.tokens, -duration.toNanos() * this.tokensPerNano);
+    }
+
+
+    synchronized double getAvailable() {
+        refill();
+        return this.tokens;
+    }
+
+
+    private void refill() {
+        long now = this.nanoClock.getAsLong();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.refilledAt) * this.tokensPerNano);
+        this.refilledAt = now;
+    }
+}
@@ -1,15 +1,19 @@
 package net.osslabz.mexc.client.rest;
 
+import lombok.extern.slf4j.Slf4j;
 import net.osslabz.mexc.client.rest.dto.ListenKey;
 import net.osslabz.mexc.client.rest.dto.ListenKeys;
 
+import java.io.Closeable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-public class UserDataClient {
+@Slf4j
+public class UserDataClient implements Closeable {
 
 
     public static final String USER_DATA_STREAM_LISTEN_KEY = "/api/v3/userDataStream";
@@ -18,25 +22,63 @@ public class UserDataClient {
     private final ScheduledExecutorService scheduler;
 
     public UserDataClient(String acessKey, String secretKey) {
-        this.restClient = new MexcRestClient(acessKey, secretKey);
+        this(acessKey, secretKey, MexcRestClientConfig.DEFAULT);
+    }
+
+    public UserDataClient(String acessKey, String secretKey, MexcRestClientConfig config) {
+        this.restClient = new MexcRestClient(acessKey, secretKey, config);
 
         this.scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(() -> this.getListenKeys().forEach(this::keepAliveListenKey), 0, 30, TimeUnit.MINUTES);
+        scheduler.scheduleAtFixedRate(this::keepAliveListenKeys, 0, 30, TimeUnit.MINUTES);
     }
 
+    @Override
     public void close() {
         scheduler.shutdown();
+        restClient.close();
     }
 
     public List<String> getListenKeys() {
         return this.restClient.get(USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class).getListenKey();
     }
 
+    public CompletableFuture<List<String>> getListenKeysAsync() {
+        return this.restClient.getAsync(USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class).thenApply(ListenKeys::getListenKey);
+    }
+
     public String createListenKey() {
         return this.restClient.post(USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKey.class).getListenKey();
     }
 
-    private void keepAliveListenKey(String listenKey) {
-        this.restClient.put(USER_DATA_STREAM_LISTEN_KEY, Map.of("listenKey", listenKey), ListenKeys.class);
+    public CompletableFuture<String> createListenKeyAsync() {
+        return this.restClient.postAsync(USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKey.class).thenApply(ListenKey::getListenKey);
+    }
+
+    /**
+     * Returns the first existing listen key, creates one if there is none.
+     */
+    public CompletableFuture<String> getOrCreateListenKeyAsync() {
+        return this.getListenKeysAsync().thenCompose(listenKeys -> listenKeys.isEmpty()
+                ? this.createListenKeyAsync()
+                : CompletableFuture.completedFuture(listenKeys.get(0)));
+    }
+
+    public CompletableFuture<Void> keepAliveListenKeyAsync(String listenKey) {
+        return this.restClient.putAsync(USER_DATA_STREAM_LISTEN_KEY, Map.of("listenKey", listenKey), ListenKeys.class).thenApply(response -> null);
+    }
+
+    /**
+     * Extends all listen keys concurrently, the scheduler thread isn't blocked by the requests.
+     */
+    private void keepAliveListenKeys() {
+        this.getListenKeysAsync()
+                .thenCompose(listenKeys -> CompletableFuture.allOf(listenKeys.stream()
+                        .map(this::keepAliveListenKeyAsync)
+                        .toArray(CompletableFuture[]::new)))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.warn("Couldn't keep listen keys alive, will retry with the next run. Error: {}", e.getMessage());
+                    }
+                });
     }
 }
\ No newline at end of file
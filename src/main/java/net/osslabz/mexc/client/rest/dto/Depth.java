@@ -0,0 +1,21 @@
+package net.osslabz.mexc.client.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Order book snapshot of /api/v3/depth. Each level is a [price, quantity] pair, bids and asks are sorted best first.
+ * lastUpdateId is the version of the incremental depth channel the snapshot corresponds to.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Depth {
+
+    private long lastUpdateId;
+
+    private double[][] bids;
+
+    private double[][] asks;
+
+    private long timestamp;
+}
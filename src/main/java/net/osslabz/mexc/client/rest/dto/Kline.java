@@ -0,0 +1,35 @@
+package net.osslabz.mexc.client.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * A row of /api/v3/klines, MEXC sends each kline as array: [openTime, open, high, low, close, volume, closeTime,
+ * quoteAssetVolume]. Times are epoch millis, "volume" is the base quantity.
+ */
+@Data
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"openTime", "openPrice", "highPrice", "lowPrice", "closePrice", "quantity", "closeTime", "volume"})
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Kline {
+
+    private long openTime;
+
+    private BigDecimal openPrice;
+
+    private BigDecimal highPrice;
+
+    private BigDecimal lowPrice;
+
+    private BigDecimal closePrice;
+
+    private BigDecimal quantity;
+
+    private long closeTime;
+
+    private BigDecimal volume;
+}
@@ -0,0 +1,66 @@
+package net.osslabz.mexc.client.utils;
+
+/**
+ * Parses plain decimal strings (e.g. "20281.31") into doubles without creating a String or BigDecimal. Values with
+ * up to 15 significant digits are parsed exactly as {@link Double#parseDouble(String)} would, everything else falls
+ * back to it.
+ */
+public final class DecimalParser {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private DecimalParser() {
+    }
+
+
+    /**
+     * Returns NaN for an empty value.
+     */
+    public static double parseDouble(char[] chars, int offset, int length) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+
+        int i = offset;
+        int end = offset + length;
+        boolean negative = chars[i] == '-';
+        if (negative || chars[i] == '+') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (mantissa > 0 || c != '0') {
+                    digits++;
+                }
+                if (digits > 15) {
+                    return Double.parseDouble(new String(chars, offset, length));
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.parseDouble(new String(chars, offset, length));
+            }
+        }
+
+        if (scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(chars, offset, length));
+        }
+
+        // with at most 15 digits both operands are exact doubles, so the division is correctly rounded
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+}
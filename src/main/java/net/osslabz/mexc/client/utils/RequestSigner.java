@@ -0,0 +1,176 @@
+package net.osslabz.mexc.client.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+/**
+ * HmacSHA256 signer bound to a secret key. The key is set up once, each thread signs with its own clone of the
+ * prepared {@link Mac} and reuses its input and output buffers, so signing an ASCII payload only allocates the
+ * resulting hex String.
+ */
+public final class RequestSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+
+    private final SecretKeySpec key;
+
+    private final Mac prototype;
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(this::createState);
+
+
+    public RequestSigner(String secretKey) {
+        this.key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.prototype = createMac(this.key);
+    }
+
+
+    /**
+     * Returns the lower case hex encoded signature of the UTF-8 encoded payload.
+     */
+    public String sign(String payload) {
+        State state = this.state.get();
+        Mac mac = state.mac;
+
+        int length = payload.length();
+        if (isAscii(payload)) {
+            if (state.input.length < length) {
+                state.input = new byte[Math.max(length, state.input.length * 2)];
+            }
+            byte[] input = state.input;
+            for (int i = 0; i < length; i++) {
+                input[i] = (byte) payload.charAt(i);
+            }
+            mac.update(state.input, 0, length);
+        } else {
+            mac.update(payload.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            mac.doFinal(state.digest, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        char[] hex = state.hex;
+        for (int i = 0; i < state.digest.length; i++) {
+            int b = state.digest[i] & 0xFF;
+            hex[i * 2] = HEX[b >>> 4];
+            hex[i * 2 + 1] = HEX[b & 0x0F];
+        }
+        return new String(hex);
+    }
+
+
+    /**
+     * Joins the parameters to "key=value&amp;key=value" in iteration order, values are optionally URL encoded (see
+     * {@link #urlEncode(StringBuilder, String)}).
+     */
+    public static String toQueryString(Map<String, String> params, boolean encodeValues) {
+        StringBuilder query = new StringBuilder(params.size() * 24);
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (!query.isEmpty()) {
+                query.append('&');
+            }
+            query.append(param.getKey()).append('=');
+            if (encodeValues) {
+                urlEncode(query, param.getValue());
+            } else {
+                query.append(param.getValue());
+            }
+        }
+        return query.toString();
+    }
+
+
+    /**
+     * Appends the value URL encoded the way {@link java.net.URLEncoder} does it with UTF-8, except that a space is
+     * encoded as %20 instead of +.
+     */
+    public static void urlEncode(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                out.append(c);
+            } else if (c < 0x80) {
+                appendEscaped(out, c);
+            } else {
+                int end = i + 1;
+                if (Character.isHighSurrogate(c) && end < value.length() && Character.isLowSurrogate(value.charAt(end))) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendEscaped(out, b & 0xFF);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+
+    private static void appendEscaped(StringBuilder out, int b) {
+        out.append('%').append(HEX_UPPER[b >>> 4]).append(HEX_UPPER[b & 0x0F]);
+    }
+
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private State createState() {
+        try {
+            return new State((Mac) this.prototype.clone());
+        } catch (CloneNotSupportedException e) {
+            // not every provider supports cloning, fall back to a separately initialized instance
+            return new State(createMac(this.key));
+        }
+    }
+
+
+    private static Mac createMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Couldn't initialize %s: %s".formatted(ALGORITHM, e.getMessage()), e);
+        }
+    }
+
+
+    private static final class State {
+
+        private final Mac mac;
+
+        private final byte[] digest;
+
+        private final char[] hex;
+
+        private byte[] input = new byte[256];
+
+
+        private State(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+            this.hex = new char[this.digest.length * 2];
+        }
+    }
+}
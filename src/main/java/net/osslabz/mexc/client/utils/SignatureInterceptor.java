@@ -24,11 +24,11 @@ public class SignatureInterceptor implements Interceptor {
 
     private static final String HEADER_ACCESS_KEY = "X-MEXC-APIKEY";
     private final String accessKey;
-    private final String secretKey;
+    private final RequestSigner signer;
 
     public SignatureInterceptor(String accessKey, String secretKey) {
         this.accessKey = accessKey;
-        this.secretKey = secretKey;
+        this.signer = new RequestSigner(secretKey);
     }
 
 
@@ -69,7 +69,7 @@ public class SignatureInterceptor implements Interceptor {
         String params = bodyToString(origBody);
         params += "&timestamp=" + Instant.now().toEpochMilli();
         String originalParamsStr = SignatureUtil.toQueryStringWithEncoding(body2Map(params));
-        params += "&signature=" + SignatureUtil.actualSignature(originalParamsStr, secretKey);
+        params += "&signature=" + this.signer.sign(originalParamsStr);
 
         if ("POST".equals(method)) {
             return origRequest.newBuilder()
@@ -83,16 +83,16 @@ public class SignatureInterceptor implements Interceptor {
     }
 
     private Request createUrlSignRequest(Request request) {
-        String timestamp = Instant.now().toEpochMilli() + "";
-        HttpUrl url = request.url();
-        HttpUrl.Builder urlBuilder = url
+        HttpUrl url = request.url()
                 .newBuilder()
-                .setQueryParameter("timestamp", timestamp);
-        String queryParams = urlBuilder.build().query();
-        urlBuilder.setQueryParameter("signature", SignatureUtil.actualSignature(queryParams, secretKey));
+                .setQueryParameter("timestamp", Long.toString(Instant.now().toEpochMilli()))
+                .build();
+        HttpUrl signedUrl = url.newBuilder()
+                .setQueryParameter("signature", this.signer.sign(url.query()))
+                .build();
         return request.newBuilder()
                 .addHeader(HEADER_ACCESS_KEY, accessKey)
-                .url(urlBuilder.build()).build();
+                .url(signedUrl).build();
     }
 
 
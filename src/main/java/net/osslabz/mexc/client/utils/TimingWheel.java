@@ -0,0 +1,174 @@
+package net.osslabz.mexc.client.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for many timers with a coarse resolution, e.g. one per candle to close it. Scheduling
+ * and cancelling are O(1), a single thread advances the wheel tick by tick.
+ * <p>
+ * Level 0 has a slot per tick, every higher level a slot per full revolution of the level below. A timer is put on
+ * the lowest level whose current revolution it falls into and moves down a level whenever the wheel reaches its
+ * slot, so it ends up in its tick's slot on level 0 by the time it's due. Deadlines are wall clock epoch millis, so
+ * they can be aligned to candle boundaries.
+ */
+@Slf4j
+public class TimingWheel implements Closeable {
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * With 100ms ticks 6 levels cover more than 200 years.
+     */
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+
+    private final List<Timer>[][] slots;
+
+    private final Thread worker;
+
+    private long currentTick;
+
+    private volatile boolean closed = false;
+
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, String threadName) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive but was " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new List[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                this.slots[level][slot] = new ArrayList<>();
+            }
+        }
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+
+    /**
+     * Runs the task on the wheel's thread once the deadline (epoch millis) has passed, at most one tick late. A
+     * deadline in the past runs with the next tick.
+     */
+    public synchronized Timer schedule(long deadline, Runnable task) {
+        Timer timer = new Timer(Math.floorDiv(deadline + this.tickMillis - 1, this.tickMillis), task);
+        this.add(timer);
+        return timer;
+    }
+
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.worker.interrupt();
+    }
+
+
+    private void add(Timer timer) {
+        long tick = Math.max(timer.tick, this.currentTick + 1);
+        int level = 0;
+        // the lowest level whose current revolution contains the tick
+        while (level < LEVELS - 1 && (tick >> (SLOT_BITS * (level + 1))) != (this.currentTick >> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        this.slots[level][(int) (tick >> (SLOT_BITS * level)) & SLOT_MASK].add(timer);
+    }
+
+
+    private void run() {
+        while (!this.closed) {
+            long nextTickTime = (this.currentTick + 1) * this.tickMillis;
+            long wait = nextTickTime - System.currentTimeMillis();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            for (Timer timer : this.advance()) {
+                if (timer.cancelled) {
+                    continue;
+                }
+                try {
+                    timer.task.run();
+                } catch (Exception e) {
+                    log.warn("Timer task failed. Error: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Moves to the next tick and returns the timers due.
+     */
+    private synchronized List<Timer> advance() {
+        this.currentTick++;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                List<Timer> slot = this.slots[level][(int) (this.currentTick >> (SLOT_BITS * level)) & SLOT_MASK];
+                List<Timer> cascading = new ArrayList<>(slot);
+                slot.clear();
+                for (Timer timer : cascading) {
+                    if (!timer.cancelled) {
+                        this.addDue(timer);
+                    }
+                }
+            }
+        }
+        List<Timer> slot = this.slots[0][(int) this.currentTick & SLOT_MASK];
+        List<Timer> due = new ArrayList<>(slot);
+        slot.clear();
+        return due;
+    }
+
+
+    /**
+     * Like {@link #add(Timer)} but a timer due with the current tick stays on it, it's collected right after.
+     */
+    private void addDue(Timer timer) {
+        if (timer.tick <= this.currentTick) {
+            this.slots[0][(int) this.currentTick & SLOT_MASK].add(timer);
+        } else {
+            this.add(timer);
+        }
+    }
+
+
+    public static final class Timer {
+
+        private final long tick;
+
+        private final Runnable task;
+
+        private volatile boolean cancelled = false;
+
+
+        private Timer(long tick, Runnable task) {
+            this.tick = tick;
+            this.task = task;
+        }
+
+
+        /**
+         * The task won't run unless it's already running, the timer is removed from the wheel once its slot is reached.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+    }
+}
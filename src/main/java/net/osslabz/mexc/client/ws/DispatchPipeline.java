@@ -0,0 +1,269 @@
+package net.osslabz.mexc.client.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.ws.dto.OverflowPolicy;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples the socket threads from message processing. Each subscription queues its frames in a bounded lane of its
+ * own, the lanes of subscriptions with the same shard key are drained by the same worker thread, which parses the
+ * frames and calls the consumers. So frames of a shard are never processed in parallel and, as long as nothing is
+ * dropped, in the order they were received. The overflow policy of a subscription only acts on its own lane, a full
+ * lane doesn't cost other subscriptions of the shard any frames. The receive time travels with the frame, so the
+ * time spent queued counts towards the decode latency.
+ */
+@Slf4j
+public class DispatchPipeline implements Closeable {
+
+    private final FrameHandler handler;
+
+    private final int laneCapacity;
+
+    /**
+     * One entry per queued frame, telling the worker which lane to take the next frame from.
+     */
+    private final BlockingQueue<Lane>[] tickets;
+
+    private final Thread[] workers;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+
+    /**
+     * @param laneCapacity max. number of queued frames per subscription
+     */
+    @SuppressWarnings("unchecked")
+    public DispatchPipeline(int threads, int laneCapacity, FrameHandler handler) {
+        if (threads < 1 || laneCapacity < 1) {
+            throw new IllegalArgumentException("threads and laneCapacity must be positive");
+        }
+        this.handler = handler;
+        this.laneCapacity = laneCapacity;
+        this.tickets = new BlockingQueue[threads];
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            BlockingQueue<Lane> queue = new LinkedBlockingQueue<>();
+            this.tickets[i] = queue;
+            this.workers[i] = new Thread(() -> this.drain(queue), "mexc-dispatch-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+
+    /**
+     * Queues a String or ByteBuffer frame of the subscription received at receiveNanos ({@link System#nanoTime()}),
+     * it's processed by the worker of the shard key. Returns false if the frame was rejected.
+     */
+    public boolean submit(String subscriptionIdentifier, Object shardKey, Object payload, long receiveNanos, OverflowPolicy overflowPolicy) {
+        if (this.closed) {
+            return false;
+        }
+        Lane lane = this.lanes.computeIfAbsent(subscriptionIdentifier, id -> new Lane(this.tickets[Math.floorMod(shardKey.hashCode(), this.tickets.length)]));
+        Frame frame = new Frame(payload, receiveNanos);
+        synchronized (lane) {
+            if (lane.frames.size() >= this.laneCapacity) {
+                switch (overflowPolicy) {
+                    case BLOCK -> {
+                        try {
+                            while (lane.frames.size() >= this.laneCapacity && !this.closed) {
+                                lane.wait();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }
+                    case DROP_OLDEST -> {
+                        // the new frame takes over the dropped one's ticket
+                        lane.frames.pollFirst();
+                        lane.frames.addLast(frame);
+                        lane.droppedCount++;
+                        this.droppedCount.incrementAndGet();
+                        return true;
+                    }
+                    case FAIL -> {
+                        long rejected = ++lane.rejectedCount;
+                        this.rejectedCount.incrementAndGet();
+                        log.warn("Dispatch queue of {} is full, rejected the message ({} rejected so far)", subscriptionIdentifier, rejected);
+                        return false;
+                    }
+                }
+            }
+            if (this.closed) {
+                return false;
+            }
+            lane.frames.addLast(frame);
+        }
+        lane.tickets.add(lane);
+        return true;
+    }
+
+
+    /**
+     * Forgets the lane of a subscription that has been removed, frames that are still queued are processed.
+     */
+    public void remove(String subscriptionIdentifier) {
+        this.lanes.remove(subscriptionIdentifier);
+    }
+
+
+    /**
+     * Returns the number of queued frames over all subscriptions.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<Lane> queue : this.tickets) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+
+    /**
+     * Returns the number of queued frames per worker.
+     */
+    public int[] getQueueDepths() {
+        int[] depths = new int[this.tickets.length];
+        for (int i = 0; i < this.tickets.length; i++) {
+            depths[i] = this.tickets[i].size();
+        }
+        return depths;
+    }
+
+
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+
+    /**
+     * Returns the number of frames of the subscription dropped by {@link OverflowPolicy#DROP_OLDEST}.
+     */
+    public long getDroppedCount(String subscriptionIdentifier) {
+        Lane lane = this.lanes.get(subscriptionIdentifier);
+        if (lane == null) {
+            return 0;
+        }
+        synchronized (lane) {
+            return lane.droppedCount;
+        }
+    }
+
+
+    /**
+     * Returns the number of frames of the subscription rejected by {@link OverflowPolicy#FAIL}.
+     */
+    public long getRejectedCount(String subscriptionIdentifier) {
+        Lane lane = this.lanes.get(subscriptionIdentifier);
+        if (lane == null) {
+            return 0;
+        }
+        synchronized (lane) {
+            return lane.rejectedCount;
+        }
+    }
+
+
+    /**
+     * Stops the workers, frames that are still queued are discarded.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        int discarded = this.getQueueDepth();
+        if (discarded > 0) {
+            log.info("Closing dispatch pipeline, discarding {} queued message(s)", discarded);
+        }
+        for (Thread worker : this.workers) {
+            worker.interrupt();
+        }
+        // wakes up socket threads waiting for room
+        this.lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                lane.frames.clear();
+                lane.notifyAll();
+            }
+        });
+    }
+
+
+    private void drain(BlockingQueue<Lane> queue) {
+        while (!this.closed) {
+            Lane lane;
+            try {
+                lane = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            Frame frame;
+            synchronized (lane) {
+                frame = lane.frames.pollFirst();
+                lane.notifyAll();
+            }
+            if (frame == null) {
+                continue;
+            }
+            try {
+                if (frame.payload() instanceof String message) {
+                    this.handler.onMessage(message, frame.receiveNanos());
+                } else {
+                    this.handler.onMessage((ByteBuffer) frame.payload(), frame.receiveNanos());
+                }
+            } catch (Exception e) {
+                log.warn("Couldn't process message, error: {}", e.getMessage(), e);
+            }
+        }
+        queue.clear();
+    }
+
+
+    public interface FrameHandler {
+
+        void onMessage(String message, long receiveNanos);
+
+        void onMessage(ByteBuffer bytes, long receiveNanos);
+    }
+
+
+    private record Frame(Object payload, long receiveNanos) {
+    }
+
+
+    /**
+     * Frames of a subscription, guarded by the lane's monitor.
+     */
+    private static final class Lane {
+
+        private final BlockingQueue<Lane> tickets;
+
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+        private long droppedCount;
+
+        private long rejectedCount;
+
+        private Lane(BlockingQueue<Lane> tickets) {
+            this.tickets = tickets;
+        }
+    }
+}
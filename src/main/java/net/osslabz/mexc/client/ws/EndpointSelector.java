@@ -0,0 +1,96 @@
+package net.osslabz.mexc.client.ws;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Picks the endpoint a connection (re-)connects to, shared by all connections of a pool. Endpoints that failed
+ * the fewest times in a row are preferred, among those the one with the lowest recent handshake latency, so a
+ * broken endpoint is rotated away from and a healthy one isn't left for a slower one. An endpoint without a
+ * measurement yet counts as fastest, so every endpoint gets tried. Latencies are smoothed exponentially.
+ */
+public class EndpointSelector {
+
+    /**
+     * Weight of a new handshake latency in the smoothed value.
+     */
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    private final Endpoint[] endpoints;
+
+
+    public EndpointSelector(List<URI> endpoints) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        this.endpoints = endpoints.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+    }
+
+
+    public synchronized URI select() {
+        Endpoint best = this.endpoints[0];
+        for (Endpoint endpoint : this.endpoints) {
+            if (endpoint.failures < best.failures || (endpoint.failures == best.failures && endpoint.latencyNanos < best.latencyNanos)) {
+                best = endpoint;
+            }
+        }
+        return best.uri;
+    }
+
+
+    /**
+     * Records a completed handshake, clears the endpoint's failures.
+     */
+    public synchronized void onHandshake(URI uri, long latencyNanos) {
+        Endpoint endpoint = this.find(uri);
+        if (endpoint == null) {
+            return;
+        }
+        endpoint.failures = 0;
+        endpoint.latencyNanos = endpoint.latencyNanos == 0 ? latencyNanos : (long) (LATENCY_WEIGHT * latencyNanos + (1 - LATENCY_WEIGHT) * endpoint.latencyNanos);
+    }
+
+
+    /**
+     * Records a connection attempt that didn't complete its handshake.
+     */
+    public synchronized void onFailure(URI uri) {
+        Endpoint endpoint = this.find(uri);
+        if (endpoint != null) {
+            endpoint.failures++;
+        }
+    }
+
+
+    /**
+     * Returns the smoothed handshake latency of the endpoint in nanos, 0 if it hasn't been measured.
+     */
+    public synchronized long getLatencyNanos(URI uri) {
+        Endpoint endpoint = this.find(uri);
+        return endpoint == null ? 0 : endpoint.latencyNanos;
+    }
+
+
+    private Endpoint find(URI uri) {
+        for (Endpoint endpoint : this.endpoints) {
+            if (endpoint.uri.equals(uri)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+
+    private static final class Endpoint {
+
+        private final URI uri;
+
+        private int failures = 0;
+
+        private long latencyNanos = 0;
+
+        private Endpoint(URI uri) {
+            this.uri = uri;
+        }
+    }
+}
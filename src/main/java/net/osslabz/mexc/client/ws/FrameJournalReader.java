@@ -0,0 +1,145 @@
+package net.osslabz.mexc.client.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.MexcClientException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Reads a journal written by {@link FrameJournalWriter} and hands its frames to a {@link FrameListener}, either
+ * paced like they were received or as fast as possible.
+ */
+@Slf4j
+public class FrameJournalReader {
+
+    private static final String SEGMENT_PREFIX = "frames-";
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+
+
+    public FrameJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+
+    /**
+     * Replays the journal. A speed of 1 keeps the original gaps between the frames, 10 replays ten times faster,
+     * 0 (or infinity) doesn't wait at all. The time between the sessions of a continued journal isn't waited out.
+     * Returns the number of frames replayed.
+     */
+    public long replay(FrameListener listener, double speed) {
+        boolean paced = speed > 0 && !Double.isInfinite(speed);
+        long session = 0;
+        boolean sessionStarted = false;
+        long firstReceiveTime = 0;
+        long startNanos = 0;
+        long count = 0;
+
+        for (Path path : listSegments(this.directory)) {
+            ByteBuffer segment = map(path);
+            if (segment.remaining() < FrameJournalWriter.SEGMENT_HEADER_SIZE || segment.getInt() != FrameJournalWriter.MAGIC) {
+                log.warn("{} isn't a frame journal segment, skipped", path);
+                continue;
+            }
+            long segmentSession = segment.getLong();
+            if (segmentSession != session) {
+                session = segmentSession;
+                sessionStarted = false;
+            }
+            while (segment.remaining() >= FrameJournalWriter.RECORD_HEADER_SIZE) {
+                int start = segment.position();
+                int length = segment.getInt(start);
+                if (length < FrameJournalWriter.RECORD_HEADER_SIZE || length > segment.limit() - start) {
+                    break;
+                }
+                byte type = segment.get(start + 4);
+                long receiveTime = segment.getLong(start + 5);
+
+                if (paced) {
+                    if (!sessionStarted) {
+                        firstReceiveTime = receiveTime;
+                        startNanos = System.nanoTime();
+                        sessionStarted = true;
+                    }
+                    waitUntil(startNanos + (long) ((receiveTime - firstReceiveTime) / speed));
+                }
+
+                ByteBuffer payload = segment.slice(start + FrameJournalWriter.RECORD_HEADER_SIZE, length - FrameJournalWriter.RECORD_HEADER_SIZE);
+                if (type == FrameJournalWriter.TYPE_TEXT) {
+                    listener.onMessage(receiveTime, StandardCharsets.UTF_8.decode(payload).toString());
+                } else {
+                    listener.onMessage(receiveTime, payload);
+                }
+                segment.position(start + length);
+                count++;
+            }
+        }
+        return count;
+    }
+
+
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new MexcClientException("Couldn't read journal segment " + path, e);
+        }
+    }
+
+
+    static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX) && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new MexcClientException("Couldn't list journal segments in " + directory, e);
+        }
+    }
+
+
+    static String segmentName(int index) {
+        return SEGMENT_PREFIX + "%010d".formatted(index) + SEGMENT_SUFFIX;
+    }
+
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+
+    public interface FrameListener {
+
+        /**
+         * @param receiveTime epoch nanos the frame was received at
+         */
+        void onMessage(long receiveTime, String message);
+
+        void onMessage(long receiveTime, ByteBuffer message);
+    }
+}
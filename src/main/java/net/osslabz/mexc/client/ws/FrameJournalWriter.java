@@ -0,0 +1,249 @@
+package net.osslabz.mexc.client.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.MexcClientException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends received frames with their receive time to a journal of memory-mapped segment files, the frames can be
+ * fed back into a client with {@link FrameJournalReader}. Appending copies the frame into the mapped segment, text
+ * frames are encoded straight into it from a reused char buffer, so once that buffer fits the largest frame
+ * recording doesn't allocate and doesn't block on disk IO. When a segment is full the next one is started, it has
+ * been created and mapped ahead of time on a background thread, which also writes the full segment to disk.
+ * <p>
+ * A segment starts with {@link #MAGIC} and the start of the writer's session in epoch nanos, followed by records of
+ * [int record length][byte frame type][long receive time in epoch nanos][payload]. A record length of 0 ends the
+ * segment, segments are mapped at their full size and aren't truncated, so the unused rest of a segment is zero.
+ */
+@Slf4j
+public class FrameJournalWriter implements Closeable {
+
+    static final int MAGIC = 0x4D584A31;
+
+    static final int SEGMENT_HEADER_SIZE = 4 + 8;
+
+    static final int RECORD_HEADER_SIZE = 4 + 1 + 8;
+
+    static final byte TYPE_TEXT = 1;
+
+    static final byte TYPE_BINARY = 2;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long epochNanosBase;
+
+    private final long nanoTimeBase;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /**
+     * Writes full segments to disk and prepares the next one.
+     */
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.setName("mexc-journal");
+        return thread;
+    });
+
+    private CharBuffer chars = CharBuffer.allocate(4096);
+
+    private int segmentIndex;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * The segment after the current one, prepared on the IO thread.
+     */
+    private Future<MappedByteBuffer> nextSegment;
+
+
+    public FrameJournalWriter(Path directory, int segmentSize) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize is too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Instant now = Instant.now();
+        this.epochNanosBase = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.nanoTimeBase = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = FrameJournalReader.listSegments(directory);
+            // an existing journal is continued with a new segment
+            this.segmentIndex = segments.isEmpty() ? 0 : FrameJournalReader.segmentIndex(segments.get(segments.size() - 1)) + 1;
+            this.segment = this.createSegment(this.segmentIndex);
+        } catch (IOException e) {
+            this.ioExecutor.shutdown();
+            throw new MexcClientException("Couldn't open frame journal in " + directory, e);
+        }
+        this.prepareNextSegment();
+    }
+
+
+    public synchronized void append(String message) {
+        long receiveTime = this.now();
+        if (this.chars.capacity() < message.length()) {
+            this.chars = CharBuffer.allocate(Integer.highestOneBit(message.length()) << 1);
+        }
+        message.getChars(0, message.length(), this.chars.array(), 0);
+        while (this.segment != null) {
+            int start = this.segment.position();
+            if (this.segment.remaining() > RECORD_HEADER_SIZE) {
+                this.segment.position(start + RECORD_HEADER_SIZE);
+                this.chars.clear().limit(message.length());
+                this.encoder.reset();
+                CoderResult result = this.encoder.encode(this.chars, this.segment, true);
+                if (!result.isOverflow()) {
+                    result = this.encoder.flush(this.segment);
+                }
+                if (!result.isOverflow()) {
+                    this.finishRecord(start, TYPE_TEXT, receiveTime);
+                    return;
+                }
+                // whatever was encoded stays behind the end of the segment, its length is still 0
+                this.segment.position(start);
+            }
+            if (!this.roll(start, message.length())) {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Appends the remaining bytes of the frame, its position isn't changed.
+     */
+    public synchronized void append(ByteBuffer message) {
+        long receiveTime = this.now();
+        int length = message.remaining();
+        while (this.segment != null) {
+            int start = this.segment.position();
+            if (this.segment.remaining() >= RECORD_HEADER_SIZE + length) {
+                this.segment.put(start + RECORD_HEADER_SIZE, message, message.position(), length);
+                this.segment.position(start + RECORD_HEADER_SIZE + length);
+                this.finishRecord(start, TYPE_BINARY, receiveTime);
+                return;
+            }
+            if (!this.roll(start, length)) {
+                return;
+            }
+        }
+    }
+
+
+    @Override
+    public synchronized void close() {
+        if (this.ioExecutor.isShutdown()) {
+            return;
+        }
+        if (this.segment != null) {
+            this.segment.force();
+            this.segment = null;
+        }
+        // runs after the preparation, the prepared segment hasn't been written to
+        Path unused = this.directory.resolve(FrameJournalReader.segmentName(this.segmentIndex + 1));
+        this.ioExecutor.execute(() -> {
+            try {
+                Files.deleteIfExists(unused);
+            } catch (IOException e) {
+                log.debug("Couldn't delete unused journal segment {}. Error: {}", unused, e.getMessage());
+            }
+        });
+        this.ioExecutor.shutdown();
+        try {
+            if (!this.ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Journal segments in {} haven't been written to disk within 5 seconds", this.directory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private long now() {
+        return this.epochNanosBase + (System.nanoTime() - this.nanoTimeBase);
+    }
+
+
+    /**
+     * Writes the header of the record starting at start, the length last so that it completes the record.
+     */
+    private void finishRecord(int start, byte type, long receiveTime) {
+        this.segment.put(start + 4, type);
+        this.segment.putLong(start + 5, receiveTime);
+        this.segment.putInt(start, this.segment.position() - start);
+    }
+
+
+    /**
+     * Starts the next segment for a record that didn't fit. Returns false if the record is dropped because it
+     * wouldn't even fit into an empty segment or the journal couldn't be continued.
+     */
+    private boolean roll(int start, int payloadSize) {
+        if (start == SEGMENT_HEADER_SIZE) {
+            log.warn("Frame of {} bytes doesn't fit into a journal segment of {} bytes, it isn't recorded", payloadSize, this.segmentSize);
+            return false;
+        }
+        MappedByteBuffer full = this.segment;
+        this.ioExecutor.execute(full::force);
+        this.segmentIndex++;
+        try {
+            // prepared while the previous segment filled up, only waits if the disk can't keep up
+            this.segment = this.nextSegment.get();
+        } catch (ExecutionException e) {
+            log.error("Couldn't start journal segment {} in {}, recording stopped. Error: {}", this.segmentIndex, this.directory, e.getCause().getMessage());
+            this.segment = null;
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while starting journal segment {} in {}, recording stopped", this.segmentIndex, this.directory);
+            this.segment = null;
+            return false;
+        }
+        this.prepareNextSegment();
+        return true;
+    }
+
+
+    private void prepareNextSegment() {
+        int index = this.segmentIndex + 1;
+        this.nextSegment = this.ioExecutor.submit(() -> this.createSegment(index));
+    }
+
+
+    private MappedByteBuffer createSegment(int index) throws IOException {
+        Path path = this.directory.resolve(FrameJournalReader.segmentName(index));
+        MappedByteBuffer created;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            created = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+        }
+        created.putInt(MAGIC);
+        // tells the reader where a continued journal's next session starts
+        created.putLong(this.epochNanosBase);
+        log.debug("Prepared journal segment {}", path);
+        return created;
+    }
+}
@@ -0,0 +1,241 @@
+package net.osslabz.mexc.client.ws;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.orderbook.DepthUpdate;
+import net.osslabz.mexc.client.utils.DecimalParser;
+import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
+import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads the data part ("d") of MEXC push messages straight from a streaming {@link JsonParser} into the raw DTOs,
+ * without building an intermediate tree. All methods expect the parser to be positioned on the START_OBJECT token
+ * of the value to read and leave it on the matching END_OBJECT token.
+ */
+public final class JsonPushMessageReader {
+
+    private static final String CHANNEL_PREFIX = "\"c\":\"";
+
+    private JsonPushMessageReader() {
+    }
+
+
+    /**
+     * Returns the channel ("c") of a compact push message without parsing it, null if there is none.
+     */
+    public static String peekChannel(String message) {
+        int start = message.indexOf(CHANNEL_PREFIX);
+        if (start < 0) {
+            return null;
+        }
+        start += CHANNEL_PREFIX.length();
+        int end = message.indexOf('"', start);
+        return end < 0 ? null : message.substring(start, end);
+    }
+
+
+    public static RawOhlc.OhlData readOhlcData(JsonParser parser) throws IOException {
+        RawOhlc.OhlData data = new RawOhlc.OhlData();
+        if (!startObject(parser)) {
+            return data;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("k".equals(field)) {
+                data.setContent(readOhlcContent(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+
+    static RawOhlc.OhlData.OhlcContent readOhlcContent(JsonParser parser) throws IOException {
+        RawOhlc.OhlData.OhlcContent content = new RawOhlc.OhlData.OhlcContent();
+        if (!startObject(parser)) {
+            return content;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "t" -> content.setOpenTime(readLong(parser));
+                case "T" -> content.setCloseTime(readLong(parser));
+                case "o" -> content.setOpenPrice(readDecimal(parser));
+                case "h" -> content.setHighPrice(readDecimal(parser));
+                case "l" -> content.setLowPrice(readDecimal(parser));
+                case "c" -> content.setClosePrice(readDecimal(parser));
+                case "a" -> content.setVolume(readDecimal(parser));
+                case "v" -> content.setQuantity(readDecimal(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+
+    /**
+     * Reads the data part of a kline message into the given view, which is reset first. Decimals are parsed from the
+     * parser's buffer, neither Strings nor BigDecimals are created.
+     */
+    public static void readCandle(JsonParser parser, CandleView candle) throws IOException {
+        candle.reset();
+        if (!startObject(parser)) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean content = "k".equals(parser.currentName());
+            parser.nextToken();
+            if (content && startObject(parser)) {
+                readCandleContent(parser, candle);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+
+    private static void readCandleContent(JsonParser parser, CandleView candle) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "t" -> candle.setOpenTime(parser.getValueAsLong() * 1000);
+                case "T" -> candle.setCloseTime(parser.getValueAsLong() * 1000);
+                case "o" -> candle.setOpenPrice(readDouble(parser));
+                case "h" -> candle.setHighPrice(readDouble(parser));
+                case "l" -> candle.setLowPrice(readDouble(parser));
+                case "c" -> candle.setClosePrice(readDouble(parser));
+                case "a" -> candle.setVolume(readDouble(parser));
+                case "v" -> candle.setQuantity(readDouble(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+
+    /**
+     * Reads the data part of an incremental depth message into the given update, which is reset first. The levels
+     * are arrays of {"p": price, "v": quantity} objects, the version ("r") is sent as string.
+     */
+    public static void readDepthUpdate(JsonParser parser, DepthUpdate update) throws IOException {
+        update.reset();
+        if (!startObject(parser)) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "asks" -> readDepthLevels(parser, update, false);
+                case "bids" -> readDepthLevels(parser, update, true);
+                case "r" -> update.setVersion(parser.getValueAsLong());
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+
+    private static void readDepthLevels(JsonParser parser, DepthUpdate update, boolean bid) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            double price = Double.NaN;
+            double quantity = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "p" -> price = readDouble(parser);
+                    case "v" -> quantity = readDouble(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (bid) {
+                update.addBid(price, quantity);
+            } else {
+                update.addAsk(price, quantity);
+            }
+        }
+    }
+
+
+    public static RawOrder.OrderData readOrderData(JsonParser parser) throws IOException {
+        RawOrder.OrderData data = new RawOrder.OrderData();
+        if (!startObject(parser)) {
+            return data;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "A" -> data.setRemainAmount(readLong(parser));
+                case "O" -> data.setCreateTime(readLong(parser));
+                case "S" -> data.setType(readInteger(parser));
+                case "V" -> data.setRemainQuantity(readDecimal(parser));
+                case "a" -> data.setAmount(readDecimal(parser));
+                case "i" -> data.setOrderId(parser.getValueAsString());
+                case "c" -> data.setClientOrderId(parser.getValueAsString());
+                case "m" -> data.setIsMaker(readInteger(parser));
+                case "o" -> data.setTradeType(readInteger(parser));
+                case "p" -> data.setPrice(readDecimal(parser));
+                case "s" -> data.setStatus(readInteger(parser));
+                case "v" -> data.setQuantity(readDecimal(parser));
+                case "ap" -> data.setAvgPrice(readDecimal(parser));
+                case "cv" -> data.setCumulativeQuantity(readDecimal(parser));
+                case "ca" -> data.setCumulativeAmount(readDecimal(parser));
+                case "T" -> data.setLimitComparison(readInteger(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+
+    private static boolean startObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+
+    /**
+     * MEXC sends decimals either as JSON numbers or as strings, both are read without an intermediate String.
+     */
+    static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getTextLength() == 0 ? null : new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            default -> null;
+        };
+    }
+
+
+    static double readDouble(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> DecimalParser.parseDouble(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            default -> Double.NaN;
+        };
+    }
+
+
+    private static Long readLong(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsLong();
+    }
+
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
+    }
+}
@@ -1,85 +1,203 @@
 package net.osslabz.mexc.client.ws;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.osslabz.mexc.client.jfr.ConnectionCloseEvent;
+import net.osslabz.mexc.client.jfr.ConnectionOpenEvent;
+import net.osslabz.mexc.client.jfr.ReconnectEvent;
+import net.osslabz.mexc.client.ws.dto.Method;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.java_websocket.handshake.ServerHandshake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
+/**
+ * WebSocket connection that reconnects as soon as it's lost: a close or an error of a connection that isn't open
+ * schedules the next attempt right away, waiting as long as the {@link ReconnectBackoff} says. Every attempt connects
+ * to the endpoint picked by the {@link EndpointSelector}, which is told about the handshake latency or failure.
+ * <p>
+ * While open the connection sends MEXC's PING as configured by the {@link PingPolicy} and records the round trips in
+ * its {@link RttStats}. A spike or a PONG still missing when the next PING is due marks the connection as degraded,
+ * the next regular round trip clears it.
+ * <p>
+ * Handshakes, closes and reconnect backoffs are recorded as JFR events.
+ */
 public class MexcWebSocketClient extends WebSocketClient {
 
     private static final Logger log = LoggerFactory.getLogger(MexcWebSocketClient.class);
+
+    private static final String PING_MESSAGE = "{\"method\":\"" + Method.PING + "\"}";
+
+    private static final String PONG = "PONG";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final WebSocketListener listener;
 
+    private final EndpointSelector endpoints;
+
+    private final UnaryOperator<URI> uriFactory;
+
+    private final ReconnectBackoff backoff;
+
+    private final PingPolicy pingPolicy;
+
+    private final RttStats rttStats = new RttStats();
+
+    private final Object startLock = new Object();
+
+    /**
+     * Guards the reconnect state, never held while connecting.
+     */
     private final Object lock = new Object();
-    private volatile boolean reconnectMonitorStarted = false;
 
     private volatile boolean connected = false;
 
+    private volatile boolean started = false;
+
+    private volatile boolean closed = false;
+
+    private URI endpoint;
+
+    private long connectStartNanos;
+
+    private boolean opened;
+
+    private boolean reconnectScheduled = false;
+
+    private int reconnectAttempt = 0;
+
+    private ScheduledFuture<?> heartbeat;
+
+    private ConnectionOpenEvent openEvent;
+
+    /**
+     * Begun when the connection opened, null while it isn't open.
+     */
+    private ConnectionCloseEvent closeEvent;
+
+    private ReconnectEvent reconnectEvent;
+
+    /**
+     * Time the unanswered PING was sent at, 0 if there is none.
+     */
+    private long pingSentNanos = 0;
+
+    private volatile boolean degraded = false;
+
+    private volatile Thread reconnectThread;
+
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
         Thread thread = new Thread(runnable);
         thread.setDaemon(true);
-        thread.setName("reconnect-monitor");
+        thread.setName("reconnect");
+        this.reconnectThread = thread;
         return thread;
     });
 
 
     public MexcWebSocketClient(URI serverURI, WebSocketListener webSocketListener) {
-        super(serverURI);
+        this(new EndpointSelector(List.of(serverURI)), UnaryOperator.identity(), new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(30)),
+                new PingPolicy(Duration.ofSeconds(15), 3, Duration.ofMillis(250)), webSocketListener);
+    }
+
+
+    /**
+     * @param uriFactory turns the selected endpoint into the URI to connect to, e.g. by adding a query
+     */
+    public MexcWebSocketClient(EndpointSelector endpoints, UnaryOperator<URI> uriFactory, ReconnectBackoff backoff, PingPolicy pingPolicy,
+                               WebSocketListener webSocketListener) {
+        super(uriFactory.apply(endpoints.select()));
         this.setConnectionLostTimeout(5);
         this.listener = webSocketListener;
+        this.endpoints = endpoints;
+        this.uriFactory = uriFactory;
+        this.backoff = backoff;
+        this.pingPolicy = pingPolicy;
     }
 
+
     @Override
-    public void onOpen(ServerHandshake serverHandshake) {
-        log.debug("New connection opened");
-        this.listener.onOpen();
-        this.startMonitoringThread();
+    public void connect() {
+        synchronized (this.lock) {
+            this.connectStartNanos = System.nanoTime();
+            this.opened = false;
+            this.openEvent = new ConnectionOpenEvent(this.endpoint, this.reconnectAttempt);
+            this.openEvent.begin();
+        }
+        super.connect();
     }
 
 
-    private void startMonitoringThread() {
-
-        if (!this.reconnectMonitorStarted) {
-            log.debug("Starting re-reconnect monitor thread...");
-            scheduler.scheduleWithFixedDelay(() -> {
-                try {
-                    if (!this.isOpen()) {
-                        log.debug("Trying to reconnect...");
-                        reconnectBlocking();
-                    }
-                } catch (Exception e) {
-                    log.debug("Couldn't reconnect connection (message={}), will try again!", e.getMessage());
-                }
-            }, 1, 3, TimeUnit.SECONDS);
-            this.reconnectMonitorStarted = true;
+    @Override
+    public void onOpen(ServerHandshake serverHandshake) {
+        URI endpoint;
+        long latency;
+        synchronized (this.lock) {
+            endpoint = this.endpoint;
+            latency = System.nanoTime() - this.connectStartNanos;
+            this.opened = true;
+            this.reconnectAttempt = 0;
+            this.startHeartbeat();
+            if (this.openEvent != null) {
+                this.openEvent.commit();
+                this.openEvent = null;
+            }
+            this.closeEvent = new ConnectionCloseEvent(endpoint);
+            this.closeEvent.begin();
         }
-
+        this.connected = true;
+        this.setDegraded(false);
+        this.endpoints.onHandshake(endpoint, latency);
+        log.debug("New connection to {} opened, handshake took {}ms", endpoint, TimeUnit.NANOSECONDS.toMillis(latency));
+        this.listener.onOpen();
     }
 
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
         log.info("connection closed with code={}, reason={}. Was remotely closed={}", code, reason, remote);
+        synchronized (this.lock) {
+            this.stopHeartbeat();
+            ConnectionCloseEvent event = this.closeEvent != null ? this.closeEvent : new ConnectionCloseEvent(this.endpoint);
+            this.closeEvent = null;
+            event.commit(code, reason, remote);
+        }
         this.listener.onClose(code, reason, remote);
+        this.scheduleReconnect();
     }
 
     @Override
     public void onMessage(String message) {
+        long receiveNanos = System.nanoTime();
         log.trace("received message={}", message);
-        this.listener.onMessage(message);
+        if (message.contains(PONG) && isPong(message)) {
+            this.onPong();
+            return;
+        }
+        this.listener.onMessage(message, receiveNanos);
     }
 
 
     @Override
     public void onMessage(ByteBuffer bytes) {
+        long receiveNanos = System.nanoTime();
         log.trace("received binary message={}", bytes);
-        this.listener.onMessage(bytes);
+        this.listener.onMessage(bytes, receiveNanos);
     }
 
 
@@ -87,12 +205,16 @@ public class MexcWebSocketClient extends WebSocketClient {
     public void onError(Exception e) {
         log.warn("connection error with message={}", e.getMessage());
         this.listener.onError(e);
+        // errors of an open connection don't necessarily close it, a failed connect does
+        if (!this.isOpen()) {
+            this.scheduleReconnect();
+        }
     }
 
     @Override
     public void send(String message) {
-        if (!this.isOpen()) {
-            synchronized (lock) {
+        if (!this.started) {
+            synchronized (this.startLock) {
                 start();
             }
         }
@@ -101,19 +223,201 @@ public class MexcWebSocketClient extends WebSocketClient {
     }
 
     private void start() {
+        if (this.started) {
+            return;
+        }
         try {
-            log.info("Opening connection...");
+            synchronized (this.lock) {
+                this.started = true;
+                this.endpoint = this.endpoints.select();
+                this.uri = this.uriFactory.apply(this.endpoint);
+            }
+            log.info("Opening connection to {}...", this.uri);
             this.connected = this.connectBlocking();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
     }
 
+
+    public RttStats getRttStats() {
+        return this.rttStats;
+    }
+
+
+    public boolean isDegraded() {
+        return this.degraded;
+    }
+
+
+    private void startHeartbeat() {
+        this.stopHeartbeat();
+        long interval = this.pingPolicy.getIntervalNanos();
+        if (interval > 0) {
+            try {
+                this.heartbeat = this.scheduler.scheduleAtFixedRate(this::ping, interval, interval, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the client has been closed
+            }
+        }
+    }
+
+
+    private void stopHeartbeat() {
+        if (this.heartbeat != null) {
+            this.heartbeat.cancel(false);
+            this.heartbeat = null;
+        }
+        this.pingSentNanos = 0;
+    }
+
+
+    private void ping() {
+        boolean missed;
+        synchronized (this.lock) {
+            if (!this.isOpen()) {
+                return;
+            }
+            long now = System.nanoTime();
+            missed = this.pingSentNanos != 0;
+            this.pingSentNanos = now;
+        }
+        if (missed) {
+            log.debug("No PONG within the ping interval");
+            this.setDegraded(true);
+        }
+        try {
+            super.send(PING_MESSAGE);
+        } catch (WebsocketNotConnectedException e) {
+            // onClose stops the heartbeat
+        }
+    }
+
+
+    /**
+     * Returns true if the message is the command response {"id":0,"code":0,"msg":"PONG"}. A push message is given up
+     * on at its channel or data.
+     */
+    static boolean isPong(String message) {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            boolean hasCode = false;
+            String msg = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "c", "d" -> {
+                        return false;
+                    }
+                    case "code" -> hasCode = true;
+                    case "msg" -> msg = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            return hasCode && PONG.equals(msg);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+
+    private void onPong() {
+        long rtt;
+        synchronized (this.lock) {
+            if (this.pingSentNanos == 0) {
+                return;
+            }
+            rtt = System.nanoTime() - this.pingSentNanos;
+            this.pingSentNanos = 0;
+        }
+        boolean spike = this.pingPolicy.isSpike(rtt, this.rttStats.getPercentile(50));
+        this.rttStats.record(rtt);
+        log.trace("PING round trip took {}us", TimeUnit.NANOSECONDS.toMicros(rtt));
+        this.setDegraded(spike);
+    }
+
+
+    private void setDegraded(boolean degraded) {
+        if (this.degraded == degraded) {
+            return;
+        }
+        this.degraded = degraded;
+        if (degraded) {
+            log.warn("Connection to {} is degraded, last PING round trip {}ms, median {}ms", this.uri, TimeUnit.NANOSECONDS.toMillis(this.rttStats.getLast()),
+                    TimeUnit.NANOSECONDS.toMillis(this.rttStats.getPercentile(50)));
+        } else {
+            log.info("Connection to {} has recovered", this.uri);
+        }
+        this.listener.onDegraded(degraded);
+    }
+
+
+    /**
+     * Schedules the next connection attempt unless one is scheduled already, the client has been closed or it hasn't
+     * been started by the first {@link #send(String)}.
+     */
+    private void scheduleReconnect() {
+        long delay;
+        synchronized (this.lock) {
+            if (this.closed || this.reconnectScheduled || !this.started) {
+                return;
+            }
+            if (!this.opened) {
+                this.endpoints.onFailure(this.endpoint);
+            }
+            this.reconnectEvent = new ReconnectEvent(this.endpoint, this.reconnectAttempt + 1);
+            this.reconnectEvent.begin();
+            delay = this.backoff.delayNanos(this.reconnectAttempt++);
+            this.reconnectScheduled = true;
+        }
+        log.debug("Reconnecting in {}ms (attempt {})", TimeUnit.NANOSECONDS.toMillis(delay), this.reconnectAttempt);
+        try {
+            this.scheduler.schedule(this::reconnectNow, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the client has been closed
+        }
+    }
+
+
+    private void reconnectNow() {
+        synchronized (this.lock) {
+            this.reconnectScheduled = false;
+            if (this.closed || this.isOpen()) {
+                return;
+            }
+            this.endpoint = this.endpoints.select();
+            this.uri = this.uriFactory.apply(this.endpoint);
+            if (this.reconnectEvent != null) {
+                this.reconnectEvent.commit(this.endpoint);
+                this.reconnectEvent = null;
+            }
+        }
+        log.debug("Trying to reconnect to {}...", this.uri);
+        try {
+            // a failed attempt ends with onClose, which schedules the next one
+            this.reconnect();
+        } catch (Exception e) {
+            log.debug("Couldn't reconnect connection (message={}), will try again!", e.getMessage());
+            synchronized (this.lock) {
+                this.opened = false;
+            }
+            this.scheduleReconnect();
+        }
+    }
+
     @Override
     public void close() {
-        this.scheduler.shutdown();
+        if (Thread.currentThread() == this.reconnectThread) {
+            // reconnect() closes the previous connection, that doesn't close the client
+            super.close();
+            return;
+        }
+        this.closed = true;
+        this.scheduler.shutdownNow();
         super.close();
-        this.reconnectMonitorStarted = false;
     }
 
     boolean isConnected() {
@@ -123,4 +427,4 @@ public class MexcWebSocketClient extends WebSocketClient {
     public boolean isConnectionAlive() {
         return this.isConnected() && this.isOpen();
     }
-}
\ No newline at end of file
+}
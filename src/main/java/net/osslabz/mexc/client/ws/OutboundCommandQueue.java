@@ -0,0 +1,165 @@
+package net.osslabz.mexc.client.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import net.osslabz.mexc.client.ws.dto.Method;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects pending (un)subscriptions of a single connection and sends them packed into as few frames as possible.
+ * Frames are spaced so that the connection never exceeds the configured messages per second, pending changes
+ * accumulate in the meantime and go out with the next frame. Unsubscriptions are sent before subscriptions, an
+ * identifier that is subscribed and unsubscribed before being sent only keeps the last request.
+ * <p>
+ * Subscriptions that are being sent aren't queued again. The first send opens the connection, whose resubscribe
+ * would otherwise repeat them in a second frame.
+ */
+@Slf4j
+public class OutboundCommandQueue {
+
+    private final MexcWebSocketClient connection;
+
+    private final CommandSender sender;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final int maxParamsPerFrame;
+
+    private final long nanosPerFrame;
+
+    private final Set<String> pendingSubscriptions = new LinkedHashSet<>();
+
+    private final Set<String> pendingUnsubscriptions = new LinkedHashSet<>();
+
+    private final Set<String> sendingSubscriptions = new HashSet<>();
+
+    private long nextSendNanos = System.nanoTime();
+
+    private boolean flushScheduled = false;
+
+
+    public OutboundCommandQueue(MexcWebSocketClient connection, CommandSender sender, ScheduledExecutorService scheduler, int maxMessagesPerSecond, int maxParamsPerFrame) {
+        if (maxMessagesPerSecond < 1 || maxParamsPerFrame < 1) {
+            throw new IllegalArgumentException("maxMessagesPerSecond and maxParamsPerFrame must be positive");
+        }
+        this.connection = connection;
+        this.sender = sender;
+        this.scheduler = scheduler;
+        this.maxParamsPerFrame = maxParamsPerFrame;
+        this.nanosPerFrame = TimeUnit.SECONDS.toNanos(1) / maxMessagesPerSecond;
+    }
+
+
+    public synchronized void subscribe(Collection<String> subscriptionIdentifiers) {
+        this.pendingUnsubscriptions.removeAll(subscriptionIdentifiers);
+        for (String subscriptionIdentifier : subscriptionIdentifiers) {
+            if (!this.sendingSubscriptions.contains(subscriptionIdentifier)) {
+                this.pendingSubscriptions.add(subscriptionIdentifier);
+            }
+        }
+        this.scheduleFlush();
+    }
+
+
+    public synchronized void unsubscribe(Collection<String> subscriptionIdentifiers) {
+        this.pendingSubscriptions.removeAll(subscriptionIdentifiers);
+        this.pendingUnsubscriptions.addAll(subscriptionIdentifiers);
+        this.scheduleFlush();
+    }
+
+
+    public synchronized int getPendingCount() {
+        return this.pendingSubscriptions.size() + this.pendingUnsubscriptions.size();
+    }
+
+
+    /**
+     * Sends everything that is pending right away, regardless of the rate limit. Used before closing the connection.
+     */
+    public void flushNow() {
+        while (this.getPendingCount() > 0) {
+            this.sendNextFrame();
+        }
+    }
+
+
+    private void scheduleFlush() {
+        if (this.flushScheduled || this.scheduler.isShutdown()) {
+            return;
+        }
+        this.flushScheduled = true;
+        long delay = Math.max(0, this.nextSendNanos - System.nanoTime());
+        this.scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+    }
+
+
+    private void flush() {
+        synchronized (this) {
+            this.flushScheduled = false;
+            this.nextSendNanos = Math.max(System.nanoTime(), this.nextSendNanos) + this.nanosPerFrame;
+        }
+
+        this.sendNextFrame();
+
+        synchronized (this) {
+            if (!this.pendingSubscriptions.isEmpty() || !this.pendingUnsubscriptions.isEmpty()) {
+                this.scheduleFlush();
+            }
+        }
+    }
+
+
+    private void sendNextFrame() {
+        Method method;
+        List<String> params;
+        synchronized (this) {
+            if (!this.pendingUnsubscriptions.isEmpty()) {
+                method = Method.UNSUBSCRIPTION;
+                params = this.take(this.pendingUnsubscriptions);
+            } else if (!this.pendingSubscriptions.isEmpty()) {
+                method = Method.SUBSCRIPTION;
+                params = this.take(this.pendingSubscriptions);
+                this.sendingSubscriptions.addAll(params);
+            } else {
+                return;
+            }
+        }
+
+        try {
+            this.sender.send(this.connection, method, params);
+        } catch (Exception e) {
+            log.warn("Couldn't send {} for {} channel(s), error: {}", method, params.size(), e.getMessage());
+        } finally {
+            if (method == Method.SUBSCRIPTION) {
+                synchronized (this) {
+                    params.forEach(this.sendingSubscriptions::remove);
+                }
+            }
+        }
+    }
+
+
+    private List<String> take(Set<String> pending) {
+        List<String> params = new ArrayList<>(Math.min(pending.size(), this.maxParamsPerFrame));
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext() && params.size() < this.maxParamsPerFrame) {
+            params.add(iterator.next());
+            iterator.remove();
+        }
+        return params;
+    }
+
+
+    public interface CommandSender {
+
+        void send(MexcWebSocketClient connection, Method method, List<String> subscriptionIdentifiers);
+    }
+}
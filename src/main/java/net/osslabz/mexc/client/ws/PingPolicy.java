@@ -0,0 +1,40 @@
+package net.osslabz.mexc.client.ws;
+
+import java.time.Duration;
+
+/**
+ * When a connection sends MEXC's application level PING and when a round trip counts as a latency spike that marks
+ * the connection as degraded: above the floor and, once there is a baseline, above factor times the median of the
+ * recent round trips.
+ */
+public class PingPolicy {
+
+    private final long intervalNanos;
+
+    private final double degradedRttFactor;
+
+    private final long degradedRttFloorNanos;
+
+
+    /**
+     * @param interval time between two PINGs, 0 doesn't send any
+     */
+    public PingPolicy(Duration interval, double degradedRttFactor, Duration degradedRttFloor) {
+        if (interval.isNegative() || degradedRttFactor < 1) {
+            throw new IllegalArgumentException("Invalid ping policy, interval=%s, degradedRttFactor=%s".formatted(interval, degradedRttFactor));
+        }
+        this.intervalNanos = interval.toNanos();
+        this.degradedRttFactor = degradedRttFactor;
+        this.degradedRttFloorNanos = degradedRttFloor.toNanos();
+    }
+
+
+    public long getIntervalNanos() {
+        return this.intervalNanos;
+    }
+
+
+    public boolean isSpike(long rttNanos, long medianNanos) {
+        return rttNanos > this.degradedRttFloorNanos && (medianNanos == 0 || rttNanos > this.degradedRttFactor * medianNanos);
+    }
+}
@@ -0,0 +1,157 @@
+package net.osslabz.mexc.client.ws;
+
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.orderbook.DepthUpdate;
+import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
+import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the bodies of MEXC's protobuf push messages (PushDataV3ApiWrapper) into the same raw DTOs the JSON channels
+ * use. Field numbers are taken from MEXC's published websocket-proto definitions.
+ */
+public final class ProtobufPushMessageReader {
+
+    // PushDataV3ApiWrapper
+    public static final int WRAPPER_CHANNEL = 1;
+    public static final int WRAPPER_SYMBOL = 3;
+    public static final int WRAPPER_CREATE_TIME = 5;
+    public static final int WRAPPER_SEND_TIME = 6;
+
+    public static final int BODY_PUBLIC_INCREASE_DEPTHS = 302;
+    public static final int BODY_PRIVATE_ORDERS = 304;
+    public static final int BODY_PUBLIC_SPOT_KLINE = 308;
+
+    private ProtobufPushMessageReader() {
+    }
+
+
+    /**
+     * Returns the channel of a PushDataV3ApiWrapper without reading the body, null if there is none.
+     */
+    public static String peekChannel(ByteBuffer frame) {
+        ProtobufReader reader = new ProtobufReader(frame);
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            if (ProtobufReader.fieldNumber(tag) == WRAPPER_CHANNEL) {
+                return reader.readString();
+            }
+            reader.skipField(tag);
+        }
+        return null;
+    }
+
+
+    /**
+     * Reads a PublicSpotKlineV3Api message. MEXC's "volume" is the base quantity and "amount" the quote volume, which
+     * matches "v" and "a" of the JSON channel.
+     */
+    public static RawOhlc.OhlData readOhlcData(ProtobufReader reader) {
+        RawOhlc.OhlData.OhlcContent content = new RawOhlc.OhlData.OhlcContent();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 2 -> content.setOpenTime(reader.readInt64());
+                case 3 -> content.setOpenPrice(reader.readDecimal());
+                case 4 -> content.setClosePrice(reader.readDecimal());
+                case 5 -> content.setHighPrice(reader.readDecimal());
+                case 6 -> content.setLowPrice(reader.readDecimal());
+                case 7 -> content.setQuantity(reader.readDecimal());
+                case 8 -> content.setVolume(reader.readDecimal());
+                case 9 -> content.setCloseTime(reader.readInt64());
+                default -> reader.skipField(tag);
+            }
+        }
+        RawOhlc.OhlData data = new RawOhlc.OhlData();
+        data.setContent(content);
+        return data;
+    }
+
+
+    /**
+     * Reads a PublicSpotKlineV3Api message into the given view, which is reset first.
+     */
+    public static void readCandle(ProtobufReader reader, CandleView candle) {
+        candle.reset();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 2 -> candle.setOpenTime(reader.readInt64() * 1000);
+                case 3 -> candle.setOpenPrice(reader.readDouble());
+                case 4 -> candle.setClosePrice(reader.readDouble());
+                case 5 -> candle.setHighPrice(reader.readDouble());
+                case 6 -> candle.setLowPrice(reader.readDouble());
+                case 7 -> candle.setQuantity(reader.readDouble());
+                case 8 -> candle.setVolume(reader.readDouble());
+                case 9 -> candle.setCloseTime(reader.readInt64() * 1000);
+                default -> reader.skipField(tag);
+            }
+        }
+    }
+
+
+    /**
+     * Reads a PublicIncreaseDepthsV3Api message into the given update, which is reset first.
+     */
+    public static void readDepthUpdate(ProtobufReader reader, DepthUpdate update) {
+        update.reset();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> readDepthLevel(reader.readMessage(), update, false);
+                case 2 -> readDepthLevel(reader.readMessage(), update, true);
+                case 4 -> update.setVersion(reader.readLongString());
+                default -> reader.skipField(tag);
+            }
+        }
+    }
+
+
+    private static void readDepthLevel(ProtobufReader reader, DepthUpdate update, boolean bid) {
+        double price = Double.NaN;
+        double quantity = Double.NaN;
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> price = reader.readDouble();
+                case 2 -> quantity = reader.readDouble();
+                default -> reader.skipField(tag);
+            }
+        }
+        if (bid) {
+            update.addBid(price, quantity);
+        } else {
+            update.addAsk(price, quantity);
+        }
+    }
+
+
+    /**
+     * Reads a PrivateOrdersV3Api message.
+     */
+    public static RawOrder.OrderData readOrderData(ProtobufReader reader) {
+        RawOrder.OrderData data = new RawOrder.OrderData();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> data.setOrderId(reader.readString());
+                case 2 -> data.setClientOrderId(reader.readString());
+                case 3 -> data.setPrice(reader.readDecimal());
+                case 4 -> data.setQuantity(reader.readDecimal());
+                case 5 -> data.setAmount(reader.readDecimal());
+                case 6 -> data.setAvgPrice(reader.readDecimal());
+                case 7 -> data.setTradeType(reader.readInt32());
+                case 8 -> data.setType(reader.readInt32());
+                case 9 -> data.setIsMaker(reader.readBool() ? 1 : 0);
+                case 11 -> data.setRemainQuantity(reader.readDecimal());
+                case 13 -> data.setCumulativeQuantity(reader.readDecimal());
+                case 14 -> data.setCumulativeAmount(reader.readDecimal());
+                case 15 -> data.setStatus(reader.readInt32());
+                case 16 -> data.setCreateTime(reader.readInt64());
+                default -> reader.skipField(tag);
+            }
+        }
+        return data;
+    }
+}
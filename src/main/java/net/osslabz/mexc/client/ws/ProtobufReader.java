@@ -0,0 +1,213 @@
+package net.osslabz.mexc.client.ws;
+
+import net.osslabz.mexc.client.MexcClientException;
+import net.osslabz.mexc.client.SymbolTable;
+import net.osslabz.mexc.client.utils.DecimalParser;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal reader for the protobuf wire format. Reads directly from a {@link ByteBuffer} using absolute positions, so
+ * neither the frame nor the buffer's position is touched. Nested messages are read through a new reader sharing the
+ * same buffer, bounded to the message's bytes.
+ */
+public final class ProtobufReader {
+
+    public static final int WIRE_TYPE_VARINT = 0;
+    public static final int WIRE_TYPE_FIXED64 = 1;
+    public static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    public static final int WIRE_TYPE_FIXED32 = 5;
+
+    private final ByteBuffer buffer;
+
+    private final int limit;
+
+    private int position;
+
+    private char[] chars;
+
+
+    public ProtobufReader(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+
+    private ProtobufReader(ByteBuffer buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+    }
+
+
+    public static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+
+
+    public static int wireType(int tag) {
+        return tag & 0x7;
+    }
+
+
+    public boolean hasRemaining() {
+        return this.position < this.limit;
+    }
+
+
+    public int readTag() {
+        return (int) this.readVarint();
+    }
+
+
+    public long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = this.nextByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new MexcClientException("Malformed varint at position %d".formatted(this.position));
+    }
+
+
+    public long readInt64() {
+        return this.readVarint();
+    }
+
+
+    public int readInt32() {
+        return (int) this.readVarint();
+    }
+
+
+    public boolean readBool() {
+        return this.readVarint() != 0;
+    }
+
+
+    public String readString() {
+        int length = this.readLength();
+        byte[] bytes = new byte[length];
+        this.buffer.get(this.position, bytes);
+        this.position += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Reads a string field as interned symbol.
+     */
+    public SymbolTable.Symbol readSymbol(SymbolTable symbolTable) {
+        int length = this.readLength();
+        SymbolTable.Symbol symbol = symbolTable.lookup(this.buffer, this.position, length);
+        this.position += length;
+        return symbol;
+    }
+
+
+    /**
+     * Reads a decimal that is encoded as string field. The ASCII digits are converted in a reusable char buffer, no
+     * intermediate String is created. An empty string is read as null.
+     */
+    public BigDecimal readDecimal() {
+        int length = this.readLength();
+        if (length == 0) {
+            return null;
+        }
+        if (this.chars == null || this.chars.length < length) {
+            this.chars = new char[Math.max(32, length)];
+        }
+        for (int i = 0; i < length; i++) {
+            this.chars[i] = (char) this.buffer.get(this.position + i);
+        }
+        this.position += length;
+        return new BigDecimal(this.chars, 0, length);
+    }
+
+
+    /**
+     * Reads a decimal that is encoded as string field as double, see {@link DecimalParser}. An empty string is read as
+     * NaN.
+     */
+    public double readDouble() {
+        int length = this.readLength();
+        if (this.chars == null || this.chars.length < length) {
+            this.chars = new char[Math.max(32, length)];
+        }
+        for (int i = 0; i < length; i++) {
+            this.chars[i] = (char) this.buffer.get(this.position + i);
+        }
+        this.position += length;
+        return DecimalParser.parseDouble(this.chars, 0, length);
+    }
+
+
+    /**
+     * Reads an unsigned integer that is encoded as string field (e.g. the version of a depth update) without creating
+     * a String.
+     */
+    public long readLongString() {
+        int length = this.readLength();
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = this.buffer.get(this.position + i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new MexcClientException("Invalid integer at position %d".formatted(this.position));
+            }
+            value = value * 10 + digit;
+        }
+        this.position += length;
+        return value;
+    }
+
+
+    /**
+     * Returns a reader for the embedded message at the current position and moves this reader behind it.
+     */
+    public ProtobufReader readMessage() {
+        int length = this.readLength();
+        ProtobufReader messageReader = new ProtobufReader(this.buffer, this.position, this.position + length);
+        this.position += length;
+        return messageReader;
+    }
+
+
+    public void skipField(int tag) {
+        switch (wireType(tag)) {
+            case WIRE_TYPE_VARINT -> this.readVarint();
+            case WIRE_TYPE_FIXED64 -> this.skip(8);
+            case WIRE_TYPE_LENGTH_DELIMITED -> this.skip(this.readLength());
+            case WIRE_TYPE_FIXED32 -> this.skip(4);
+            default -> throw new MexcClientException("Unsupported wire type %d at position %d".formatted(wireType(tag), this.position));
+        }
+    }
+
+
+    private int readLength() {
+        int length = this.readInt32();
+        if (length < 0 || this.position + length > this.limit) {
+            throw new MexcClientException("Invalid length %d at position %d".formatted(length, this.position));
+        }
+        return length;
+    }
+
+
+    private void skip(int count) {
+        if (this.position + count > this.limit) {
+            throw new MexcClientException("Truncated message at position %d".formatted(this.position));
+        }
+        this.position += count;
+    }
+
+
+    private byte nextByte() {
+        if (this.position >= this.limit) {
+            throw new MexcClientException("Truncated message at position %d".formatted(this.position));
+        }
+        return this.buffer.get(this.position++);
+    }
+}
@@ -0,0 +1,37 @@
+package net.osslabz.mexc.client.ws;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Capped exponential backoff with jitter between reconnect attempts: the n-th attempt waits a random time between
+ * half and all of min(maxDelay, initialDelay * 2^n), so connections dropped at the same time don't reconnect in
+ * lockstep.
+ */
+public class ReconnectBackoff {
+
+    private final long initialDelayNanos;
+
+    private final long maxDelayNanos;
+
+
+    public ReconnectBackoff(Duration initialDelay, Duration maxDelay) {
+        if (initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0) {
+            throw new IllegalArgumentException("Invalid backoff, initialDelay=%s, maxDelay=%s".formatted(initialDelay, maxDelay));
+        }
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+
+    /**
+     * @param attempt 0 for the first attempt after the connection was lost
+     */
+    public long delayNanos(int attempt) {
+        long delay = attempt >= 62 || this.initialDelayNanos > (this.maxDelayNanos >> attempt)
+                ? this.maxDelayNanos
+                : this.initialDelayNanos << attempt;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
@@ -0,0 +1,51 @@
+package net.osslabz.mexc.client.ws;
+
+import java.util.Arrays;
+
+/**
+ * Rolling distribution of a connection's PING round trip times, keeps the last {@link #CAPACITY} samples.
+ */
+public class RttStats {
+
+    static final int CAPACITY = 64;
+
+    private final long[] samples = new long[CAPACITY];
+
+    private long count = 0;
+
+
+    synchronized void record(long rttNanos) {
+        this.samples[(int) (this.count++ % CAPACITY)] = rttNanos;
+    }
+
+
+    /**
+     * Returns the total number of samples recorded, including the ones that have rolled out.
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+
+    /**
+     * Returns the last round trip time in nanos, 0 without samples.
+     */
+    public synchronized long getLast() {
+        return this.count == 0 ? 0 : this.samples[(int) ((this.count - 1) % CAPACITY)];
+    }
+
+
+    /**
+     * Returns the percentile (0-100) of the kept samples in nanos, 0 without samples.
+     */
+    public synchronized long getPercentile(double percentile) {
+        int size = (int) Math.min(this.count, CAPACITY);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(this.samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
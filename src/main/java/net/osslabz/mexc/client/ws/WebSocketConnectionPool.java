@@ -0,0 +1,412 @@
+package net.osslabz.mexc.client.ws;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Manages the WebSocket connections of a client. MEXC limits the number of subscriptions per connection, so
+ * subscriptions are sharded across connections: a new subscription is assigned to the connection with the fewest
+ * subscriptions that still has capacity, a new connection is created on demand. Each connection has its own read
+ * thread, so incoming messages are processed in parallel across connections.
+ * <p>
+ * When a connection is (re-)opened only the subscriptions assigned to it are handed to the {@link PoolListener} for
+ * resubscribing, the other connections aren't affected. Lost connections reconnect on their own, to the endpoint the
+ * pool's shared {@link EndpointSelector} prefers.
+ * <p>
+ * A connection marked as degraded by its PING round trips doesn't get new subscriptions, its subscriptions are moved
+ * to other connections. The degraded connection stays open for a while, so nothing is missed until the new
+ * subscriptions are active. A channel confirmed on its new connection is dropped from the degraded one right away,
+ * it would arrive twice otherwise, once all of them are the degraded connection is closed.
+ * <p>
+ * (Un)subscriptions go through an {@link OutboundCommandQueue} per connection, which packs them into multi channel
+ * frames and keeps the connection within its message rate limit.
+ */
+@Slf4j
+public class WebSocketConnectionPool implements Closeable {
+
+    /**
+     * Time a degraded connection stays open after its subscriptions have been moved.
+     */
+    private static final long MIGRATION_OVERLAP_SECONDS = 10;
+
+    /**
+     * Min. time between two moves, so that a network that is slow as a whole doesn't make subscriptions hop around.
+     */
+    private static final long MIGRATION_COOLDOWN_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final EndpointSelector endpoints;
+
+    private final UnaryOperator<URI> uriFactory;
+
+    private final ReconnectBackoff backoff;
+
+    private final PingPolicy pingPolicy;
+
+    private final int maxSubscriptionsPerConnection;
+
+    private final int maxMessagesPerSecond;
+
+    private final int maxParamsPerFrame;
+
+    private final PoolListener listener;
+
+    private final OutboundCommandQueue.CommandSender commandSender;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.setName("outbound-commands");
+        return thread;
+    });
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    private final Map<String, Connection> assignments = new HashMap<>();
+
+    /**
+     * Degraded connections whose subscriptions have been moved, closed after the overlap.
+     */
+    private final List<Connection> retiring = new ArrayList<>();
+
+    private long lastMigrationNanos = System.nanoTime() - MIGRATION_COOLDOWN_NANOS;
+
+    private int connectionIdCounter = 0;
+
+
+    /**
+     * @param uriFactory turns the selected endpoint into the URI a connection connects to
+     */
+    public WebSocketConnectionPool(EndpointSelector endpoints, UnaryOperator<URI> uriFactory, ReconnectBackoff backoff, PingPolicy pingPolicy,
+                                   int maxSubscriptionsPerConnection, int maxMessagesPerSecond, int maxParamsPerFrame, PoolListener listener,
+                                   OutboundCommandQueue.CommandSender commandSender) {
+        if (maxSubscriptionsPerConnection < 1) {
+            throw new IllegalArgumentException("maxSubscriptionsPerConnection must be positive but was " + maxSubscriptionsPerConnection);
+        }
+        this.endpoints = endpoints;
+        this.uriFactory = uriFactory;
+        this.backoff = backoff;
+        this.pingPolicy = pingPolicy;
+        this.maxSubscriptionsPerConnection = maxSubscriptionsPerConnection;
+        this.maxMessagesPerSecond = maxMessagesPerSecond;
+        this.maxParamsPerFrame = maxParamsPerFrame;
+        this.listener = listener;
+        this.commandSender = commandSender;
+    }
+
+
+    /**
+     * Assigns the subscriptions to connections and queues the subscribe commands, subscriptions sharing a connection
+     * are sent together.
+     */
+    public synchronized void subscribe(Collection<String> subscriptionIdentifiers) {
+        Map<Connection, List<String>> byConnection = new LinkedHashMap<>();
+        for (String subscriptionIdentifier : subscriptionIdentifiers) {
+            this.acquire(subscriptionIdentifier);
+            byConnection.computeIfAbsent(this.assignments.get(subscriptionIdentifier), c -> new ArrayList<>()).add(subscriptionIdentifier);
+        }
+        byConnection.forEach((connection, identifiers) -> connection.queue.subscribe(identifiers));
+    }
+
+
+    /**
+     * Queues the unsubscribe commands, the subscriptions stay assigned until they are released.
+     */
+    public synchronized void unsubscribe(Collection<String> subscriptionIdentifiers) {
+        Map<Connection, List<String>> byConnection = new LinkedHashMap<>();
+        for (String subscriptionIdentifier : subscriptionIdentifiers) {
+            Connection connection = this.assignments.get(subscriptionIdentifier);
+            if (connection == null) {
+                log.warn("Subscription {} isn't assigned to a connection, nothing to unsubscribe.", subscriptionIdentifier);
+                continue;
+            }
+            byConnection.computeIfAbsent(connection, c -> new ArrayList<>()).add(subscriptionIdentifier);
+        }
+        byConnection.forEach((connection, identifiers) -> connection.queue.unsubscribe(identifiers));
+    }
+
+
+    /**
+     * Returns the connection the subscription is assigned to, assigns it to the least loaded connection with free
+     * capacity that isn't degraded if it isn't assigned yet.
+     */
+    public synchronized MexcWebSocketClient acquire(String subscriptionIdentifier) {
+        Connection connection = this.assignments.get(subscriptionIdentifier);
+        if (connection == null) {
+            connection = this.connections.stream()
+                    .filter(c -> c.subscriptionIdentifiers.size() < this.maxSubscriptionsPerConnection && !c.client.isDegraded())
+                    .min(Comparator.comparingInt(c -> c.subscriptionIdentifiers.size()))
+                    .orElseGet(this::openConnection);
+            connection.subscriptionIdentifiers.add(subscriptionIdentifier);
+            this.assignments.put(subscriptionIdentifier, connection);
+            log.debug("Assigned {} to connection {} ({} subscription(s))", subscriptionIdentifier, connection.id, connection.subscriptionIdentifiers.size());
+        }
+        return connection.client;
+    }
+
+
+    /**
+     * Called when subscriptions have been confirmed on the connection. From then on their pushes on the degraded
+     * connection they were moved off are dropped, a degraded connection whose moved subscriptions are all active on
+     * their new connections is closed without waiting for the rest of the overlap.
+     */
+    public synchronized void confirmSubscribed(MexcWebSocketClient client, Collection<String> subscriptionIdentifiers) {
+        for (Connection connection : this.retiring) {
+            boolean confirmed = false;
+            for (String subscriptionIdentifier : subscriptionIdentifiers) {
+                Connection assigned = this.assignments.get(subscriptionIdentifier);
+                // a late answer on the degraded connection itself doesn't count
+                if (assigned != null && assigned.client == client && connection.movedSubscriptionIdentifiers.remove(subscriptionIdentifier)) {
+                    connection.confirmedSubscriptionIdentifiers.add(subscriptionIdentifier);
+                    confirmed = true;
+                }
+            }
+            if (confirmed && connection.movedSubscriptionIdentifiers.isEmpty()) {
+                log.debug("Subscriptions of degraded connection {} are active on other connections", connection.id);
+                connection.muted = true;
+                this.scheduler.execute(() -> this.retire(connection));
+            }
+        }
+    }
+
+
+    /**
+     * Returns the connection the subscription is assigned to or null if it isn't assigned.
+     */
+    public synchronized MexcWebSocketClient get(String subscriptionIdentifier) {
+        Connection connection = this.assignments.get(subscriptionIdentifier);
+        return connection == null ? null : connection.client;
+    }
+
+
+    /**
+     * Removes the subscription from its connection, a connection without subscriptions is closed.
+     */
+    public synchronized void release(String subscriptionIdentifier) {
+        Connection connection = this.assignments.remove(subscriptionIdentifier);
+        if (connection == null) {
+            return;
+        }
+        connection.subscriptionIdentifiers.remove(subscriptionIdentifier);
+        if (connection.subscriptionIdentifiers.isEmpty()) {
+            log.info("No open subscriptions on connection {}, closing it.", connection.id);
+            this.connections.remove(connection);
+            connection.client.close();
+        }
+    }
+
+
+    public synchronized int getConnectionCount() {
+        return this.connections.size();
+    }
+
+
+    /**
+     * Returns the number of subscriptions per connection id.
+     */
+    public synchronized Map<Integer, Integer> getLoad() {
+        Map<Integer, Integer> load = new HashMap<>();
+        this.connections.forEach(c -> load.put(c.id, c.subscriptionIdentifiers.size()));
+        return load;
+    }
+
+
+    /**
+     * Returns the PING round trip times per connection id.
+     */
+    public synchronized Map<Integer, RttStats> getRttStats() {
+        Map<Integer, RttStats> rttStats = new HashMap<>();
+        this.connections.forEach(c -> rttStats.put(c.id, c.client.getRttStats()));
+        return rttStats;
+    }
+
+
+    /**
+     * Returns the number of (un)subscriptions waiting to be sent.
+     */
+    public synchronized int getPendingCommandCount() {
+        return this.connections.stream().mapToInt(c -> c.queue.getPendingCount()).sum();
+    }
+
+
+    @Override
+    public synchronized void close() {
+        this.connections.forEach(c -> {
+            if (c.client.isOpen()) {
+                c.queue.flushNow();
+            }
+            c.client.close();
+        });
+        this.connections.clear();
+        this.assignments.clear();
+        this.retiring.forEach(c -> c.client.close());
+        this.retiring.clear();
+        this.scheduler.shutdown();
+    }
+
+
+    private Connection openConnection() {
+        int id = ++this.connectionIdCounter;
+        Connection connection = new Connection(id);
+        connection.client = new MexcWebSocketClient(this.endpoints, this.uriFactory, this.backoff, this.pingPolicy, new WebSocketListener() {
+            @Override
+            public void onOpen() {
+                listener.onOpen(id, getSubscriptionIdentifiers(connection));
+            }
+
+            @Override
+            public void onMessage(String message, long receiveNanos) {
+                if (connection.confirmedSubscriptionIdentifiers.isEmpty() || !connection.isConfirmedElsewhere(JsonPushMessageReader.peekChannel(message))) {
+                    listener.onMessage(message, receiveNanos);
+                }
+            }
+
+            @Override
+            public void onMessage(ByteBuffer bytes, long receiveNanos) {
+                if (connection.confirmedSubscriptionIdentifiers.isEmpty() || !connection.isConfirmedElsewhere(ProtobufPushMessageReader.peekChannel(bytes))) {
+                    listener.onMessage(bytes, receiveNanos);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                listener.onClose(connection.client);
+            }
+
+            @Override
+            public void onDegraded(boolean degraded) {
+                if (degraded) {
+                    migrate(connection.client);
+                }
+            }
+        });
+        connection.queue = new OutboundCommandQueue(connection.client, this.commandSender, this.scheduler, this.maxMessagesPerSecond, this.maxParamsPerFrame);
+        this.connections.add(connection);
+        log.debug("Created connection {}, pool size is {}", id, this.connections.size());
+        return connection;
+    }
+
+
+    /**
+     * Moves the subscriptions of the connection to other connections, new ones if needed. The connection is closed
+     * after the overlap.
+     */
+    synchronized void migrate(MexcWebSocketClient client) {
+        Connection connection = this.connections.stream().filter(c -> c.client == client).findFirst().orElse(null);
+        if (connection == null || connection.subscriptionIdentifiers.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - this.lastMigrationNanos < MIGRATION_COOLDOWN_NANOS) {
+            log.debug("Connection {} is degraded, its subscriptions have been moved recently, they stay", connection.id);
+            return;
+        }
+        this.lastMigrationNanos = now;
+
+        List<String> subscriptionIdentifiers = new ArrayList<>(connection.subscriptionIdentifiers);
+        log.warn("Connection {} is degraded, moving its {} subscription(s)", connection.id, subscriptionIdentifiers.size());
+        this.connections.remove(connection);
+        // if it reconnects during the overlap it has nothing to resubscribe
+        connection.subscriptionIdentifiers.clear();
+        connection.movedSubscriptionIdentifiers.addAll(subscriptionIdentifiers);
+        subscriptionIdentifiers.forEach(this.assignments::remove);
+        this.subscribe(subscriptionIdentifiers);
+
+        this.retiring.add(connection);
+        this.scheduler.schedule(() -> this.retire(connection), MIGRATION_OVERLAP_SECONDS, TimeUnit.SECONDS);
+    }
+
+
+    private void retire(Connection connection) {
+        synchronized (this) {
+            if (!this.retiring.remove(connection)) {
+                return;
+            }
+        }
+        log.info("Closing degraded connection {}", connection.id);
+        connection.client.close();
+    }
+
+
+    private synchronized Set<String> getSubscriptionIdentifiers(Connection connection) {
+        return new LinkedHashSet<>(connection.subscriptionIdentifiers);
+    }
+
+
+    public interface PoolListener {
+
+        /**
+         * Called when a connection has been (re-)opened with the subscriptions assigned to it.
+         */
+        void onOpen(int connectionId, Set<String> subscriptionIdentifiers);
+
+        /**
+         * Called when a connection has been closed or couldn't be opened, commands sent on it won't be answered.
+         */
+        void onClose(MexcWebSocketClient connection);
+
+        /**
+         * @param receiveNanos {@link System#nanoTime()} the frame arrived at
+         */
+        void onMessage(String message, long receiveNanos);
+
+        void onMessage(ByteBuffer bytes, long receiveNanos);
+    }
+
+
+    private static final class Connection {
+
+        private final int id;
+
+        private final Set<String> subscriptionIdentifiers = new LinkedHashSet<>();
+
+        /**
+         * Subscriptions moved off the degraded connection that aren't confirmed on their new connection yet.
+         */
+        private final Set<String> movedSubscriptionIdentifiers = new HashSet<>();
+
+        /**
+         * Moved subscriptions that are active on their new connection, their pushes on this connection are dropped.
+         */
+        private final Set<String> confirmedSubscriptionIdentifiers = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Set when the moved subscriptions are all active elsewhere, the connection's frames are dropped from then on.
+         */
+        private volatile boolean muted = false;
+
+        private MexcWebSocketClient client;
+
+        private OutboundCommandQueue queue;
+
+        private Connection(int id) {
+            this.id = id;
+        }
+
+
+        private boolean isConfirmedElsewhere(String channel) {
+            return this.muted || channel != null && this.confirmedSubscriptionIdentifiers.contains(channel);
+        }
+    }
+}
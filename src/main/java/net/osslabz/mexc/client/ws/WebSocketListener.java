@@ -5,11 +5,21 @@ import java.nio.ByteBuffer;
 public interface WebSocketListener {
 
     void onOpen();
-    void onMessage(String message);
 
-    void onMessage(ByteBuffer bytes);
+    /**
+     * @param receiveNanos {@link System#nanoTime()} the frame arrived at
+     */
+    void onMessage(String message, long receiveNanos);
+
+    void onMessage(ByteBuffer bytes, long receiveNanos);
 
     void onError(Exception e);
 
     void onClose(int code, String reason, boolean remote);
+
+    /**
+     * Called when the connection's PING round trips become or stop being degraded.
+     */
+    default void onDegraded(boolean degraded) {
+    }
 }
\ No newline at end of file
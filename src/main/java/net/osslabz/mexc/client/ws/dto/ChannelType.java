@@ -0,0 +1,12 @@
+package net.osslabz.mexc.client.ws.dto;
+
+/**
+ * Kind of push channel a subscription is for, decides how its messages are decoded and mapped.
+ */
+public enum ChannelType {
+    KLINE,
+
+    DEPTH,
+
+    ORDERS
+}
@@ -0,0 +1,42 @@
+package net.osslabz.mexc.client.ws.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.OhlcAsset;
+import net.osslabz.mexc.client.SymbolTable;
+
+/**
+ * Everything needed to decode and map the messages of a subscription, computed once when subscribing so that
+ * handling a message doesn't have to inspect the channel name or create asset objects.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DecodeContext {
+
+    public static final DecodeContext ORDERS = new DecodeContext(ChannelType.ORDERS, null, null, null);
+
+    private final ChannelType channelType;
+
+    /**
+     * Null for channels that aren't bound to a single symbol.
+     */
+    private final SymbolTable.Symbol symbol;
+
+    private final Interval interval;
+
+    private final OhlcAsset ohlcAsset;
+
+
+    public static DecodeContext kline(SymbolTable.Symbol symbol, Interval interval) {
+        return new DecodeContext(ChannelType.KLINE, symbol, interval, new OhlcAsset(symbol.getTradingAsset(), interval));
+    }
+
+
+    public static DecodeContext depth(SymbolTable.Symbol symbol) {
+        return new DecodeContext(ChannelType.DEPTH, symbol, null, null);
+    }
+}
@@ -0,0 +1,38 @@
+package net.osslabz.mexc.client.ws.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.mexc.client.orderbook.OrderBookSynchronizer;
+import net.osslabz.mexc.client.ws.dto.raw.RawDepth;
+
+@Getter
+@SuperBuilder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepthSubscriptionInfo extends SubscriptionInfo {
+
+    private CurrencyPair currencyPair;
+
+    /**
+     * Every message is decoded into its update.
+     */
+    private RawDepth rawDepth;
+
+    /**
+     * Applies the decoded updates to the subscription's order book and hands it to the consumer. Set once the
+     * subscription info exists, since it delivers to the info's (possibly conflating) consumer.
+     */
+    @Setter
+    private OrderBookSynchronizer synchronizer;
+
+
+    @Override
+    public Object getShardKey() {
+        return this.currencyPair;
+    }
+}
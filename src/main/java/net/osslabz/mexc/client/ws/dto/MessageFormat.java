@@ -0,0 +1,18 @@
+package net.osslabz.mexc.client.ws.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encoding of push messages. MEXC serves every channel as JSON text frames and, with the ".pb" channel suffix, as
+ * protobuf encoded binary frames.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MessageFormat {
+    JSON(""),
+
+    PROTOBUF(".pb");
+
+    private final String channelSuffix;
+}
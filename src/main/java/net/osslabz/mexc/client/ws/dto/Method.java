@@ -2,5 +2,9 @@ package net.osslabz.mexc.client.ws.dto;
 
 public enum Method {
     SUBSCRIPTION,
-    UNSUBSCRIPTION
+    UNSUBSCRIPTION,
+    /**
+     * Application level heartbeat, answered with a "PONG" message.
+     */
+    PING
 }
\ No newline at end of file
@@ -4,9 +4,16 @@ package net.osslabz.mexc.client.ws.dto;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import net.osslabz.crypto.CurrencyPair;
 import net.osslabz.crypto.Interval;
+import net.osslabz.mexc.client.candle.BarCloser;
+import net.osslabz.mexc.client.candle.CandleSeries;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.ws.dto.raw.RawCandle;
+
+import java.util.List;
 
 @Getter
 @SuperBuilder(toBuilder = true)
@@ -17,4 +24,44 @@ public class OhlcSubscriptionInfo extends SubscriptionInfo {
     private CurrencyPair currencyPair;
 
     private Interval interval;
+
+    /**
+     * Set for candle subscriptions, updates are decoded into its {@link RawCandle#getCandle() view} instead of
+     * being mapped to new Ohlc objects.
+     */
+    private RawCandle rawCandle;
+
+    /**
+     * Series of the client's candle store every delivered kline is written to, null if the client has no store.
+     */
+    private CandleSeries candleSeries;
+
+    /**
+     * Emits the closed bars, null unless they have been subscribed to.
+     */
+    private BarCloser barCloser;
+
+    /**
+     * Values of the last delivered update, an update repeating them exactly is dropped.
+     */
+    private CandleView lastUpdate;
+
+    /**
+     * Open time (epoch millis) of the last kline handed to the consumer, 0 before the first one. A gap fill after a
+     * reconnect starts here.
+     */
+    @Setter
+    private long lastOpenTime;
+
+    /**
+     * Live updates held back while a gap fill is running, null otherwise.
+     */
+    @Setter
+    private List<Object> pendingUpdates;
+
+
+    @Override
+    public Object getShardKey() {
+        return this.currencyPair;
+    }
 }
\ No newline at end of file
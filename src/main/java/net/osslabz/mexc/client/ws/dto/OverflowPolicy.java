@@ -0,0 +1,24 @@
+package net.osslabz.mexc.client.ws.dto;
+
+/**
+ * What happens to a message of a subscription when its dispatch queue is full, only relevant if the client runs a
+ * dispatch pipeline. Every subscription has a queue of its own, the policy never touches messages of other
+ * subscriptions, even if they are processed by the same worker.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The socket thread waits until there's room in the queue, which pushes back on the connection.
+     */
+    BLOCK,
+
+    /**
+     * The subscription's oldest queued message is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new message is rejected and counted, the queue isn't touched.
+     */
+    FAIL
+}
@@ -1,9 +1,11 @@
 package net.osslabz.mexc.client.ws.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import net.osslabz.mexc.client.metrics.LatencyRecorder;
 
 import java.util.function.Consumer;
 
@@ -22,4 +24,22 @@ public class SubscriptionInfo {
     private SubscriptionState state;
 
     private Consumer consumer;
+
+    private DecodeContext decodeContext;
+
+    @Builder.Default
+    private SubscriptionOptions options = SubscriptionOptions.DEFAULT;
+
+    /**
+     * Null if latencies aren't measured.
+     */
+    private LatencyRecorder latencyRecorder;
+
+
+    /**
+     * Messages of subscriptions with the same shard key are processed by the same dispatch worker, in order.
+     */
+    public Object getShardKey() {
+        return this.subscriptionIdentifier;
+    }
 }
\ No newline at end of file
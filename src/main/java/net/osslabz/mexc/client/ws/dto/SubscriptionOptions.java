@@ -0,0 +1,33 @@
+package net.osslabz.mexc.client.ws.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Per subscription settings, the defaults match the behaviour of a plain subscribe call.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class SubscriptionOptions {
+
+    public static final SubscriptionOptions DEFAULT = SubscriptionOptions.builder().build();
+
+    @Builder.Default
+    private final MessageFormat format = MessageFormat.JSON;
+
+    /**
+     * Applies when the client runs a dispatch pipeline and this subscription's dispatch queue is full.
+     */
+    @Builder.Default
+    private final OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * If set, only the newest update is delivered, at most once per interval and only when the consumer is free, see
+     * {@link net.osslabz.mexc.client.ConflatingConsumer}. Duration.ZERO delivers whenever the consumer is free.
+     */
+    private final Duration conflationInterval;
+}
@@ -0,0 +1,20 @@
+package net.osslabz.mexc.client.ws.dto.raw;
+
+import lombok.Getter;
+import lombok.ToString;
+import net.osslabz.mexc.client.candle.CandleView;
+
+/**
+ * Reused envelope of a candle subscription, the data is decoded straight into the subscription's {@link CandleView}.
+ */
+@Getter
+@ToString(callSuper = true)
+public class RawCandle extends RawBaseMessage {
+
+    private final CandleView candle;
+
+
+    public RawCandle(CandleView candle) {
+        this.candle = candle;
+    }
+}
@@ -0,0 +1,21 @@
+package net.osslabz.mexc.client.ws.dto.raw;
+
+import lombok.Getter;
+import lombok.ToString;
+import net.osslabz.mexc.client.orderbook.DepthUpdate;
+
+/**
+ * Reused envelope of an order book subscription, the data is decoded straight into the subscription's
+ * {@link DepthUpdate}.
+ */
+@Getter
+@ToString(callSuper = true)
+public class RawDepth extends RawBaseMessage {
+
+    private final DepthUpdate update;
+
+
+    public RawDepth(DepthUpdate update) {
+        this.update = update;
+    }
+}
@@ -15,14 +15,14 @@ public class RawOhlc extends RawBaseMessage {
 
     @Data
     @NoArgsConstructor
-    public class OhlData {
+    public static class OhlData {
 
         @JsonProperty("k")
         private OhlcContent content;
 
         @Data
         @NoArgsConstructor
-        public class OhlcContent {
+        public static class OhlcContent {
 
             @JsonProperty("t")
             private Long openTime;
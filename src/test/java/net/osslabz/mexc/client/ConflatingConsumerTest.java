@@ -0,0 +1,143 @@
+package net.osslabz.mexc.client;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.mexc.client.candle.CandleView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConflatingConsumerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+
+    @AfterEach
+    void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+
+
+    @Test
+    void testSlowConsumerOnlySeesNewestUpdates() throws InterruptedException {
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        ConflatingConsumer<Integer> consumer = ConflatingConsumer.latest(update -> {
+            delivered.add(update);
+            sleep(5);
+        }, Duration.ZERO, this.scheduler);
+
+        for (int i = 0; i < 100_000; i++) {
+            consumer.accept(i);
+        }
+        awaitLast(delivered, 99_999);
+
+        assertTrue(delivered.size() < 1000, "delivered " + delivered.size());
+        for (int i = 1; i < delivered.size(); i++) {
+            assertTrue(delivered.get(i) > delivered.get(i - 1));
+        }
+    }
+
+
+    @Test
+    void testDeliversAtMostOncePerInterval() throws InterruptedException {
+        List<Long> deliveryTimes = new CopyOnWriteArrayList<>();
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        ConflatingConsumer<Integer> consumer = ConflatingConsumer.latest(update -> {
+            deliveryTimes.add(System.nanoTime());
+            delivered.add(update);
+        }, Duration.ofMillis(50), this.scheduler);
+
+        for (int i = 0; i < 30; i++) {
+            consumer.accept(i);
+            sleep(10);
+        }
+        awaitLast(delivered, 29);
+
+        for (int i = 1; i < deliveryTimes.size(); i++) {
+            assertTrue(deliveryTimes.get(i) - deliveryTimes.get(i - 1) >= Duration.ofMillis(50).toNanos());
+        }
+        assertTrue(delivered.size() <= 8, "delivered " + delivered.size());
+    }
+
+
+    @Test
+    void testCandleViewsAreCopied() throws InterruptedException {
+        List<Double> closePrices = new CopyOnWriteArrayList<>();
+        ConflatingConsumer<CandleView> consumer = ConflatingConsumer.candles(candle -> closePrices.add(candle.getClosePrice()), Duration.ZERO, this.scheduler);
+
+        // the producer reuses its view like a candle subscription
+        CandleView view = new CandleView(new CurrencyPair("BTC", "USDT"), Interval.PT1M);
+        for (int i = 1; i <= 1000; i++) {
+            view.setClosePrice(i);
+            consumer.accept(view);
+        }
+        view.setClosePrice(-1);
+        awaitLast(closePrices, 1000.0);
+
+        assertEquals(1000.0, closePrices.get(closePrices.size() - 1));
+    }
+
+
+    @Test
+    void testBlockedConsumerDoesntDelayOthers() throws InterruptedException {
+        ScheduledExecutorService pool = Executors.newScheduledThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<Integer> blockedDelivered = new CopyOnWriteArrayList<>();
+            ConflatingConsumer<Integer> blocked = ConflatingConsumer.latest(update -> {
+                blockedDelivered.add(update);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, Duration.ZERO, pool);
+            List<Integer> delivered = new CopyOnWriteArrayList<>();
+            ConflatingConsumer<Integer> other = ConflatingConsumer.latest(delivered::add, Duration.ZERO, pool);
+
+            blocked.accept(1);
+            awaitLast(blockedDelivered, 1);
+            // the blocked consumer holds one thread, its next update waits, the other consumer keeps receiving
+            blocked.accept(2);
+            for (int i = 0; i < 10; i++) {
+                other.accept(i);
+                awaitLast(delivered, i);
+            }
+            assertEquals(List.of(1), blockedDelivered);
+
+            release.countDown();
+            awaitLast(blockedDelivered, 2);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+
+    private static <T> void awaitLast(List<T> delivered, T expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((delivered.isEmpty() || !delivered.get(delivered.size() - 1).equals(expected)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, delivered.get(delivered.size() - 1));
+    }
+
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
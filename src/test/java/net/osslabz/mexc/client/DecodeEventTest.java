@@ -0,0 +1,53 @@
+package net.osslabz.mexc.client;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecodeEventTest {
+
+    private static final String CHANNEL = "spot@public.kline.v3.api@BTCUSDT@Min1";
+
+
+    @Test
+    void testEveryNthMessageIsRecorded() throws IOException {
+        Path file = Files.createTempFile("decode", ".jfr");
+        try (PublicMexcClient client = new PublicMexcClient(MexcClientConfig.builder().offline(true).decodeEventSampleRate(2).build());
+             Recording recording = new Recording()) {
+            client.subscribeToOhlc(new CurrencyPair("BTC", "USDT"), Interval.PT1M, ohlc -> {
+            });
+            recording.enable("net.osslabz.mexc.Decode");
+            recording.start();
+
+            for (int i = 0; i < 4; i++) {
+                client.handleMessage(kline(1_700_000_040L + i * 60));
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(2, events.size());
+        assertEquals(CHANNEL, events.get(0).getString("subscription"));
+        assertEquals("json", events.get(0).getString("encoding"));
+    }
+
+
+    private static String kline(long openTime) {
+        return """
+                {"c":"%s","d":{"k":{"t":%d,"o":"1","c":"1","h":"1","l":"1","v":"1","a":"1","T":%d,"i":"Min1"},"e":"spot@public.kline.v3.api"},"s":"BTCUSDT","t":%d}
+                """.formatted(CHANNEL, openTime, openTime + 60, openTime * 1000);
+    }
+}
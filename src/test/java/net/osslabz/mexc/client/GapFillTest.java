@@ -0,0 +1,136 @@
+package net.osslabz.mexc.client;
+
+import com.sun.net.httpserver.HttpServer;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.rest.MarketDataClient;
+import net.osslabz.mexc.client.rest.MexcRestClientConfig;
+import net.osslabz.mexc.client.ws.dto.OhlcSubscriptionInfo;
+import net.osslabz.mexc.client.ws.dto.SubscriptionOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GapFillTest {
+
+    /**
+     * Open time (epoch seconds) of the last kline delivered before the outage, recent enough to fit into one page.
+     */
+    private static final long T0 = Instant.now().getEpochSecond() / 60 * 60 - 180;
+
+    private final CountDownLatch releaseKlines = new CountDownLatch(1);
+
+    private final List<Long> delivered = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private PublicMexcClient client;
+
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // the klines missed during the outage: the last delivered one and the two after it
+        this.server.createContext(MarketDataClient.KLINES, exchange -> {
+            try {
+                this.releaseKlines.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < 3; i++) {
+                long openTime = (T0 + i * 60) * 1000;
+                body.append(i > 0 ? "," : "").append("[%d,\"1\",\"1\",\"1\",\"1\",\"1\",%d,\"1\"]".formatted(openTime, openTime + 59_999));
+            }
+            byte[] bytes = body.append("]").toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        this.server.start();
+
+        this.client = new PublicMexcClient(MexcClientConfig.builder()
+                .restClientConfig(MexcRestClientConfig.builder().baseUrl("http://localhost:" + this.server.getAddress().getPort()).build())
+                .build());
+    }
+
+
+    @AfterEach
+    void stopServer() {
+        this.client.close();
+        this.server.stop(0);
+    }
+
+
+    @Test
+    void testMissedKlinesAreDeliveredBeforeLiveUpdates() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(4);
+        Consumer<Ohlc> consumer = ohlc -> {
+            this.delivered.add(ohlc.getOpenTime().toEpochSecond());
+            done.countDown();
+        };
+        OhlcSubscriptionInfo subscriptionInfo = this.client.createOhlcSubscriptionInfo(new CurrencyPair("BTC", "USDT"), Interval.PT1M, consumer, SubscriptionOptions.DEFAULT);
+        this.client.activeSubscriptions.put(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo);
+
+        this.client.handleMessage(kline(T0));
+        this.client.beforeResubscribe(List.of(subscriptionInfo));
+
+        // live updates arriving during the fill are held back, the one older than the fill is dropped
+        this.client.handleMessage(kline(T0 - 60));
+        this.client.handleMessage(kline(T0 + 120));
+        this.client.handleMessage(kline(T0 + 180));
+        assertEquals(List.of(T0), this.delivered);
+
+        this.releaseKlines.countDown();
+        done.await(5, TimeUnit.SECONDS);
+
+        // the refetched T0 and the held back T0 + 120 repeat what has been delivered already and are dropped
+        assertEquals(List.of(T0, T0 + 60, T0 + 120, T0 + 180), this.delivered);
+    }
+
+
+    @Test
+    void testSynchronousFetchFailureDoesntHoldBackLiveUpdates() {
+        // the HTTP client rejects the config, the fetch throws before returning a future
+        PublicMexcClient failingClient = new PublicMexcClient(MexcClientConfig.builder()
+                .restClientConfig(MexcRestClientConfig.builder().maxRequestsPerHost(0).build())
+                .build());
+        try {
+            Consumer<Ohlc> consumer = ohlc -> this.delivered.add(ohlc.getOpenTime().toEpochSecond());
+            OhlcSubscriptionInfo subscriptionInfo = failingClient.createOhlcSubscriptionInfo(new CurrencyPair("BTC", "USDT"), Interval.PT1M, consumer, SubscriptionOptions.DEFAULT);
+            failingClient.activeSubscriptions.put(subscriptionInfo.getSubscriptionIdentifier(), subscriptionInfo);
+
+            failingClient.handleMessage(kline(T0));
+            failingClient.beforeResubscribe(List.of(subscriptionInfo));
+            failingClient.handleMessage(kline(T0 + 60));
+
+            assertNull(subscriptionInfo.getPendingUpdates());
+            assertEquals(List.of(T0, T0 + 60), this.delivered);
+        } finally {
+            failingClient.close();
+        }
+    }
+
+
+    private static String kline(long openTime) {
+        return """
+                {"c":"spot@public.kline.v3.api@BTCUSDT@Min1","d":{"k":{"t":%d,"o":"1","c":"1","h":"1","l":"1","v":"1","a":"1","T":%d,"i":"Min1"},"e":"spot@public.kline.v3.api"},"s":"BTCUSDT","t":%d}
+                """.formatted(openTime, openTime + 60, openTime * 1000);
+    }
+}
@@ -0,0 +1,58 @@
+package net.osslabz.mexc.client;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.mexc.client.metrics.HistogramLatencyMetrics;
+import net.osslabz.mexc.client.metrics.LatencyHistogram;
+import net.osslabz.mexc.client.metrics.LatencyStage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyMetricsTest {
+
+    private static final String CHANNEL = "spot@public.kline.v3.api@BTCUSDT@Min1";
+
+
+    @Test
+    void testStagesAreRecordedPerSubscription() {
+        HistogramLatencyMetrics metrics = new HistogramLatencyMetrics();
+        try (PublicMexcClient client = new PublicMexcClient(MexcClientConfig.builder().offline(true).latencyMetrics(metrics).build())) {
+            client.subscribeToOhlc(new CurrencyPair("BTC", "USDT"), Interval.PT1M, ohlc -> sleep(5));
+
+            // sent by the exchange 200ms ago
+            client.handleMessage(kline(System.currentTimeMillis() - 200));
+
+            assertEquals(Set.of(CHANNEL), metrics.getSubscriptionIdentifiers());
+            LatencyHistogram exchangeToReceive = metrics.getHistogram(CHANNEL, LatencyStage.EXCHANGE_TO_RECEIVE);
+            assertEquals(1, exchangeToReceive.getCount());
+            assertTrue(exchangeToReceive.getMax() >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertEquals(1, metrics.getHistogram(CHANNEL, LatencyStage.RECEIVE_TO_DECODED).getCount());
+            assertTrue(metrics.getHistogram(CHANNEL, LatencyStage.DECODED_TO_CONSUMED).getMax() >= TimeUnit.MILLISECONDS.toNanos(5));
+
+            client.unsubscribeFromOhlc(new CurrencyPair("BTC", "USDT"), Interval.PT1M);
+            assertEquals(Set.of(), metrics.getSubscriptionIdentifiers());
+        }
+    }
+
+
+    private static String kline(long time) {
+        long openTime = time / 60_000 * 60;
+        return """
+                {"c":"%s","d":{"k":{"t":%d,"o":"1","c":"1","h":"1","l":"1","v":"1","a":"1","T":%d,"i":"Min1"},"e":"spot@public.kline.v3.api"},"s":"BTCUSDT","t":%d}
+                """.formatted(CHANNEL, openTime, openTime + 60, time);
+    }
+
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.osslabz.mexc.client;
+
+import com.sun.net.httpserver.HttpServer;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.mexc.client.rest.MarketDataClient;
+import net.osslabz.mexc.client.rest.MexcRestClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderBookSubscriptionTest {
+
+    private final CountDownLatch releaseSnapshot = new CountDownLatch(1);
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private PublicMexcClient client;
+
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext(MarketDataClient.DEPTH, exchange -> {
+            try {
+                this.releaseSnapshot.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = """
+                    {"lastUpdateId":101,"bids":[["20000.5","1.5"],["19999","2"]],"asks":[["20001","0.5"],["20002.25","3"]],"timestamp":1700000000000}
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        this.server.start();
+
+        this.client = new PublicMexcClient(MexcClientConfig.builder()
+                .offline(true)
+                .restClientConfig(MexcRestClientConfig.builder().baseUrl("http://localhost:" + this.server.getAddress().getPort()).build())
+                .build());
+    }
+
+
+    @AfterEach
+    void stopServer() {
+        this.client.close();
+        this.server.stop(0);
+    }
+
+
+    @Test
+    void testBookIsSeededFromSnapshotAndUpdated() throws InterruptedException {
+        CountDownLatch synced = new CountDownLatch(1);
+        this.client.subscribeToOrderBook(new CurrencyPair("BTC", "USDT"), book -> {
+            this.delivered.add("%d %s@%s %s@%s".formatted(book.getVersion(), book.getBestBidQuantity(), book.getBestBidPrice(),
+                    book.getBestAskQuantity(), book.getBestAskPrice()));
+            synced.countDown();
+        });
+
+        // buffered until the snapshot arrives, 101 is part of it
+        this.client.handleMessage(depth(101, "[{\"p\":\"20000.5\",\"v\":\"9\"}]", "[]"));
+        this.client.handleMessage(depth(102, "[{\"p\":\"20000.5\",\"v\":\"0\"}]", "[{\"p\":\"20000.75\",\"v\":\"1\"}]"));
+        assertTrue(this.delivered.isEmpty());
+
+        this.releaseSnapshot.countDown();
+        assertTrue(synced.await(5, TimeUnit.SECONDS));
+
+        this.client.handleMessage(depth(103, "[{\"p\":\"20000\",\"v\":\"4\"}]", "[]"));
+
+        assertEquals(List.of("102 2.0@19999.0 1.0@20000.75", "103 4.0@20000.0 1.0@20000.75"), this.delivered);
+    }
+
+
+    private static String depth(long version, String bids, String asks) {
+        return """
+                {"c":"spot@public.increase.depth.v3.api@BTCUSDT","d":{"asks":%s,"bids":%s,"e":"spot@public.increase.depth.v3.api","r":"%d"},"s":"BTCUSDT","t":1700000000123}
+                """.formatted(asks, bids, version);
+    }
+}
@@ -0,0 +1,86 @@
+package net.osslabz.mexc.client;
+
+import net.osslabz.crypto.CurrencyPair;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SymbolTableTest {
+
+    private final SymbolTable symbolTable = new SymbolTable();
+
+
+    @Test
+    void testLookupsReturnTheInternedSymbol() {
+        SymbolTable.Symbol symbol = this.symbolTable.intern(new CurrencyPair("BTC", "USDT"));
+
+        assertEquals("BTCUSDT", symbol.getName());
+        assertSame(symbol, this.symbolTable.lookup("BTCUSDT"));
+        assertSame(symbol, this.symbolTable.lookup("xBTCUSDTx".toCharArray(), 1, 7));
+        assertSame(symbol, this.symbolTable.lookup(ByteBuffer.wrap("xxBTCUSDT".getBytes(StandardCharsets.US_ASCII)), 2, 7));
+        assertSame(symbol, this.symbolTable.get(symbol.getId()));
+        assertSame(symbol.getTradingAsset(), this.symbolTable.lookup("BTCUSDT").getTradingAsset());
+    }
+
+
+    @Test
+    void testUnknownSymbolsAreParsed() {
+        assertEquals(new CurrencyPair("MX", "USDT"), this.symbolTable.lookup("MXUSDT").getCurrencyPair());
+
+        SymbolTable.Symbol unknown = this.symbolTable.lookup("ETHBTC");
+        assertNull(unknown.getCurrencyPair());
+
+        // registering the pair later keeps the id
+        SymbolTable.Symbol known = this.symbolTable.intern(new CurrencyPair("ETH", "BTC"));
+        assertEquals(unknown.getId(), known.getId());
+        assertEquals(new CurrencyPair("ETH", "BTC"), this.symbolTable.lookup("ETHBTC").getCurrencyPair());
+    }
+
+
+    @Test
+    void testGrows() {
+        for (int i = 0; i < 1000; i++) {
+            this.symbolTable.intern(new CurrencyPair("C" + i, "USDT"));
+        }
+
+        assertEquals(1000, this.symbolTable.size());
+        for (int i = 0; i < 1000; i++) {
+            SymbolTable.Symbol symbol = this.symbolTable.lookup("C" + i + "USDT");
+            assertEquals(i, symbol.getId());
+            assertSame(symbol, this.symbolTable.get(i));
+        }
+    }
+
+
+    @Test
+    void testConcurrentInternsAgreeOnSymbols() {
+        List<CompletableFuture<SymbolTable.Symbol[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                SymbolTable.Symbol[] symbols = new SymbolTable.Symbol[1000];
+                for (int i = 0; i < symbols.length; i++) {
+                    symbols[i] = this.symbolTable.intern(new CurrencyPair("C" + i, "USDT"));
+                }
+                return symbols;
+            }));
+        }
+
+        SymbolTable.Symbol[] first = futures.get(0).join();
+        for (CompletableFuture<SymbolTable.Symbol[]> future : futures) {
+            SymbolTable.Symbol[] symbols = future.join();
+            for (int i = 0; i < symbols.length; i++) {
+                assertSame(first[i], symbols[i]);
+                assertSame(first[i], this.symbolTable.get(first[i].getId()));
+            }
+        }
+        assertEquals(1000, this.symbolTable.size());
+    }
+}
@@ -0,0 +1,153 @@
+package net.osslabz.mexc.client.candle;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.utils.TimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BarCloserTest {
+
+    private static final CurrencyPair BTC_USDT = new CurrencyPair("BTC", "USDT");
+
+    private static final long MINUTE = 60_000;
+
+    private final TimingWheel wheel = new TimingWheel(5, "test-bar-close");
+
+    private final CandleView update = new CandleView(BTC_USDT, Interval.PT1M);
+
+    private final List<Ohlc> closed = new CopyOnWriteArrayList<>();
+
+
+    @AfterEach
+    void closeWheel() {
+        this.wheel.close();
+    }
+
+
+    @Test
+    void testClosesBarWithFirstUpdateOfNextBar() {
+        BarCloser barCloser = new BarCloser(BTC_USDT, Interval.PT1M, 1000, this.wheel, this.closed::add, Runnable::run);
+        long openTime = System.currentTimeMillis() / MINUTE * MINUTE;
+
+        this.update(barCloser, openTime, 100, 101, 99, 100.5);
+        this.update(barCloser, openTime, 100, 102, 99, 101);
+        assertTrue(this.closed.isEmpty());
+
+        this.update(barCloser, openTime + MINUTE, 101, 101, 101, 101);
+        assertEquals(1, this.closed.size());
+        assertEquals(openTime, this.closed.get(0).getOpenTime().toInstant().toEpochMilli());
+        assertEquals(new BigDecimal("102.0"), this.closed.get(0).getHighPrice());
+        assertEquals(new BigDecimal("101.0"), this.closed.get(0).getClosePrice());
+
+        // a late update of the closed bar doesn't change it
+        this.update(barCloser, openTime, 100, 103, 99, 103);
+        assertEquals(1, this.closed.size());
+        barCloser.stop();
+    }
+
+
+    @Test
+    void testClosesBarAtCloseTimeAndContinuesFlat() throws InterruptedException {
+        BarCloser barCloser = new BarCloser(BTC_USDT, Interval.PT1M, 0, this.wheel, this.closed::add, Runnable::run);
+        // the bar closes right away, the flat bar after it 200ms from now
+        long openTime = System.currentTimeMillis() - 2 * MINUTE + 200;
+
+        this.update(barCloser, openTime, 100, 101, 99, 100.5);
+        this.awaitClosed(2);
+        barCloser.stop();
+
+        Ohlc flat = this.closed.get(1);
+        assertEquals(openTime + MINUTE, flat.getOpenTime().toInstant().toEpochMilli());
+        assertEquals(openTime + 2 * MINUTE, flat.getCloseTime().toInstant().toEpochMilli());
+        assertEquals(new BigDecimal("100.5"), flat.getOpenPrice());
+        assertEquals(new BigDecimal("100.5"), flat.getHighPrice());
+        assertEquals(new BigDecimal("100.5"), flat.getLowPrice());
+        assertEquals(new BigDecimal("100.5"), flat.getClosePrice());
+        assertEquals(new BigDecimal("0.0"), flat.getVolume());
+    }
+
+
+    @Test
+    void testDoesNotStartFlatBarsForThePast() throws InterruptedException {
+        BarCloser barCloser = new BarCloser(BTC_USDT, Interval.PT1M, 0, this.wheel, this.closed::add, Runnable::run);
+        long openTime = System.currentTimeMillis() / MINUTE * MINUTE - 10 * MINUTE;
+
+        this.update(barCloser, openTime, 100, 101, 99, 100.5);
+        this.awaitClosed(1);
+        Thread.sleep(50);
+        assertEquals(1, this.closed.size());
+        barCloser.stop();
+    }
+
+
+    @Test
+    void testSlowConsumerDoesntBlockUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch consuming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BarCloser barCloser = new BarCloser(BTC_USDT, Interval.PT1M, 0, this.wheel, ohlc -> {
+            consuming.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.closed.add(ohlc);
+        }, executor);
+        try {
+            long openTime = System.currentTimeMillis() / MINUTE * MINUTE - 10 * MINUTE;
+            this.update(barCloser, openTime, 100, 101, 99, 100.5);
+            assertTrue(consuming.await(5, TimeUnit.SECONDS));
+
+            // the consumer is stuck with the bar closed by the wheel, updates still go through
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> this.update(barCloser, openTime + 10 * MINUTE, 101, 101, 101, 101));
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> this.update(barCloser, openTime + 11 * MINUTE, 102, 102, 102, 102));
+
+            release.countDown();
+            this.awaitClosed(2);
+            assertEquals(openTime + 10 * MINUTE, this.closed.get(1).getOpenTime().toInstant().toEpochMilli());
+        } finally {
+            release.countDown();
+            barCloser.stop();
+            executor.shutdownNow();
+        }
+    }
+
+
+    private void awaitClosed(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.closed.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, this.closed.size());
+    }
+
+
+    private void update(BarCloser barCloser, long openTime, double open, double high, double low, double close) {
+        this.update.setEventTime(openTime);
+        this.update.setOpenTime(openTime);
+        this.update.setCloseTime(openTime + MINUTE);
+        this.update.setOpenPrice(open);
+        this.update.setHighPrice(high);
+        this.update.setLowPrice(low);
+        this.update.setClosePrice(close);
+        this.update.setVolume(1);
+        this.update.setQuantity(1);
+        barCloser.onUpdate(this.update);
+    }
+}
@@ -0,0 +1,82 @@
+package net.osslabz.mexc.client.candle;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CandleAggregatorTest {
+
+    private static final CurrencyPair BTC_USDT = new CurrencyPair("BTC", "USDT");
+
+    private static final long MINUTE = 60_000;
+
+    private final CandleView fine = new CandleView(BTC_USDT, Interval.PT1M);
+
+
+    @Test
+    void testFoldsFineCandles() {
+        List<Ohlc> emitted = new ArrayList<>();
+        CandleAggregator aggregator = new CandleAggregator(BTC_USDT, Interval.PT2H, emitted::add);
+        long start = Instant.parse("2024-01-01T02:00:00Z").toEpochMilli();
+
+        // two updates of the first minute, the second one carries its cumulated values
+        this.update(aggregator, start, 100, 101, 99, 100.5, 1);
+        this.update(aggregator, start, 100, 105, 99, 104, 2);
+        this.update(aggregator, start + MINUTE, 104, 104.5, 97, 98, 3);
+        // older updates are ignored
+        this.update(aggregator, start, 100, 200, 1, 150, 99);
+
+        assertEquals(3, emitted.size());
+        Ohlc last = emitted.get(2);
+        assertEquals(Instant.parse("2024-01-01T02:00:00Z"), last.getOpenTime().toInstant());
+        assertEquals(Instant.parse("2024-01-01T04:00:00Z"), last.getCloseTime().toInstant());
+        assertEquals(new BigDecimal("100.0"), last.getOpenPrice());
+        assertEquals(new BigDecimal("105.0"), last.getHighPrice());
+        assertEquals(new BigDecimal("97.0"), last.getLowPrice());
+        assertEquals(new BigDecimal("98.0"), last.getClosePrice());
+        assertEquals(new BigDecimal("5.0"), last.getQuantity());
+
+        // the next 2h candle starts from scratch
+        this.update(aggregator, start + 120 * MINUTE, 98, 99, 96, 97, 1);
+        Ohlc next = emitted.get(3);
+        assertEquals(Instant.parse("2024-01-01T04:00:00Z"), next.getOpenTime().toInstant());
+        assertEquals(new BigDecimal("98.0"), next.getOpenPrice());
+        assertEquals(new BigDecimal("96.0"), next.getLowPrice());
+        assertEquals(new BigDecimal("1.0"), next.getQuantity());
+    }
+
+
+    @Test
+    void testWeeksStartOnMonday() {
+        List<Ohlc> emitted = new ArrayList<>();
+        CandleAggregator aggregator = new CandleAggregator(BTC_USDT, Interval.P1W, emitted::add);
+
+        // a Thursday
+        this.update(aggregator, Instant.parse("2024-01-04T10:00:00Z").toEpochMilli(), 1, 1, 1, 1, 1);
+
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), emitted.get(0).getOpenTime().toInstant());
+        assertEquals(Instant.parse("2024-01-08T00:00:00Z"), emitted.get(0).getCloseTime().toInstant());
+    }
+
+
+    private void update(CandleAggregator aggregator, long openTime, double open, double high, double low, double close, double quantity) {
+        this.fine.reset();
+        this.fine.setOpenTime(openTime);
+        this.fine.setCloseTime(openTime + MINUTE);
+        this.fine.setOpenPrice(open);
+        this.fine.setHighPrice(high);
+        this.fine.setLowPrice(low);
+        this.fine.setClosePrice(close);
+        this.fine.setQuantity(quantity);
+        this.fine.setVolume(quantity * close);
+        aggregator.onCandle(this.fine);
+    }
+}
@@ -0,0 +1,86 @@
+package net.osslabz.mexc.client.candle;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CandleSeriesTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final CandleSeries series = new CandleSeries(new CurrencyPair("BTC", "USDT"), Interval.PT1M, 4);
+
+
+    @Test
+    void testRingKeepsNewestCandles() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(this.update(i, i));
+        }
+        // the current candle is updated in place
+        assertTrue(this.update(5, 50));
+
+        assertEquals(4, this.series.size());
+        CandleColumns last = this.series.last(10);
+        assertArrayEquals(new long[]{2 * MINUTE, 3 * MINUTE, 4 * MINUTE, 5 * MINUTE}, last.getOpenTimes());
+        assertArrayEquals(new double[]{2, 3, 4, 50}, last.getClosePrices());
+        assertArrayEquals(new double[]{4, 50}, this.series.last(2).getClosePrices());
+
+        // a kept candle can still be corrected, an evicted one is ignored
+        assertTrue(this.update(3, 30));
+        assertFalse(this.update(1, 10));
+
+        CandleColumns range = this.series.range(3 * MINUTE, 5 * MINUTE);
+        assertArrayEquals(new long[]{3 * MINUTE, 4 * MINUTE}, range.getOpenTimes());
+        assertArrayEquals(new double[]{30, 4}, range.getClosePrices());
+        assertEquals(0, this.series.range(10 * MINUTE, 20 * MINUTE).getSize());
+
+        CandleView view = new CandleView(this.series.getCurrencyPair(), this.series.getInterval());
+        assertTrue(this.series.last(view));
+        assertEquals(5 * MINUTE, view.getOpenTime());
+        assertEquals(50, view.getClosePrice());
+    }
+
+
+    @Test
+    void testReadersSeeConsistentCandles() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> inconsistency = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                CandleColumns columns = this.series.last(4);
+                for (int i = 0; i < columns.getSize(); i++) {
+                    // the writer sets every value of a candle to its open time in minutes
+                    if (columns.getClosePrices()[i] != columns.getOpenTimes()[i] / MINUTE || columns.getOpenPrices()[i] != columns.getClosePrices()[i]) {
+                        inconsistency.set("torn candle at " + columns.getOpenTimes()[i]);
+                    }
+                    if (i > 0 && columns.getOpenTimes()[i] != columns.getOpenTimes()[i - 1] + MINUTE) {
+                        inconsistency.set("unordered candles at " + columns.getOpenTimes()[i]);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200_000; i++) {
+            this.update(i, i);
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(inconsistency.get());
+    }
+
+
+    private boolean update(int minute, double value) {
+        return this.series.update(minute * MINUTE, (minute + 1) * MINUTE, value, value, value, value, 1, 1);
+    }
+}
@@ -0,0 +1,53 @@
+package net.osslabz.mexc.client.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguous() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.highestValue(index));
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.highestValue(index - 1));
+            }
+        }
+    }
+
+
+    @Test
+    void testPercentilesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500, histogram.getMean(), 1);
+        assertWithin(5_000_000, histogram.getPercentile(50));
+        assertWithin(9_900_000, histogram.getPercentile(99));
+        assertEquals(10_000_000, histogram.getPercentile(100));
+    }
+
+
+    @Test
+    void testOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(0, new LatencyHistogram().getPercentile(99));
+    }
+
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32, "expected ~" + expected + " but was " + actual);
+    }
+}
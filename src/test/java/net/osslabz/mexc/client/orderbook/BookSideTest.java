@@ -0,0 +1,84 @@
+package net.osslabz.mexc.client.orderbook;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BookSideTest {
+
+    @Test
+    void testBidsAreSortedBestFirst() {
+        BookSide bids = new BookSide(true);
+        bids.update(100.5, 1);
+        bids.update(101, 2);
+        bids.update(99, 3);
+        bids.update(100.5, 4);
+
+        assertEquals(3, bids.size());
+        assertEquals(101, bids.getBestPrice());
+        assertEquals(2, bids.getBestQuantity());
+        assertEquals(100.5, bids.getPrice(1));
+        assertEquals(4, bids.getQuantity(1));
+        assertEquals(99, bids.getPrice(2));
+        assertEquals(4, bids.getQuantityAt(100.5));
+        assertEquals(0, bids.getQuantityAt(100));
+    }
+
+
+    @Test
+    void testAsksAreSortedBestFirst() {
+        BookSide asks = new BookSide(false);
+        asks.update(100.5, 1);
+        asks.update(101, 2);
+        asks.update(99, 3);
+
+        assertEquals(99, asks.getPrice(0));
+        assertEquals(100.5, asks.getPrice(1));
+        assertEquals(101, asks.getPrice(2));
+    }
+
+
+    @Test
+    void testZeroQuantityRemovesLevel() {
+        BookSide asks = new BookSide(false);
+        asks.update(99, 1);
+        asks.update(100, 2);
+        asks.update(99, 0);
+        // removing a level that doesn't exist changes nothing
+        asks.update(98, 0);
+
+        assertEquals(1, asks.size());
+        assertEquals(100, asks.getBestPrice());
+
+        asks.update(100, 0);
+        assertTrue(asks.isEmpty());
+        assertTrue(Double.isNaN(asks.getBestPrice()));
+        assertThrows(IndexOutOfBoundsException.class, () -> asks.getPrice(0));
+    }
+
+
+    @Test
+    void testCopyTop() {
+        BookSide bids = new BookSide(true);
+        // more levels than the initial capacity, in random order
+        for (int i = 0; i < 200; i++) {
+            bids.update((i * 37) % 200, i + 1);
+        }
+        assertEquals(200, bids.size());
+
+        double[] prices = new double[3];
+        double[] quantities = new double[3];
+        assertEquals(3, bids.copyTop(5, prices, quantities));
+        assertEquals(199, prices[0]);
+        assertEquals(198, prices[1]);
+        assertEquals(197, prices[2]);
+        assertEquals(bids.getQuantityAt(198), quantities[1]);
+
+        BookSide copy = new BookSide(true);
+        copy.set(bids);
+        assertEquals(200, copy.size());
+        assertEquals(0, copy.getPrice(199));
+    }
+}
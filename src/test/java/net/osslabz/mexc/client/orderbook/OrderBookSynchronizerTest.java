@@ -0,0 +1,134 @@
+package net.osslabz.mexc.client.orderbook;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.mexc.client.rest.dto.Depth;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderBookSynchronizerTest {
+
+    private final LinkedBlockingQueue<CompletableFuture<Depth>> snapshotRequests = new LinkedBlockingQueue<>();
+
+    private final List<Long> deliveredVersions = new ArrayList<>();
+
+    private final OrderBookSynchronizer synchronizer = new OrderBookSynchronizer(new CurrencyPair("BTC", "USDT"), () -> {
+        CompletableFuture<Depth> snapshot = new CompletableFuture<>();
+        this.snapshotRequests.add(snapshot);
+        return snapshot;
+    }, Duration.ofMillis(10), book -> this.deliveredVersions.add(book.getVersion()));
+
+    private final OrderBook book = this.synchronizer.getBook();
+
+
+    @Test
+    void testBufferedUpdatesAreAppliedOnTopOfSnapshot() throws InterruptedException {
+        this.synchronizer.onUpdate(update(10, 100, 1, 101, 1));
+        this.synchronizer.onUpdate(update(11, 100, 2, 101, 0));
+        this.synchronizer.onUpdate(update(12, 99, 3, 102, 4));
+        assertTrue(this.deliveredVersions.isEmpty());
+
+        CompletableFuture<Depth> snapshot = this.nextSnapshotRequest();
+        assertTrue(this.snapshotRequests.isEmpty(), "only one snapshot is requested at a time");
+        snapshot.complete(depth(10, new double[][]{{100, 1}, {98, 5}}, new double[][]{{101, 1}, {103, 6}}));
+
+        // 10 is part of the snapshot, 11 and 12 are applied
+        assertTrue(this.synchronizer.isSynced());
+        assertEquals(List.of(12L), this.deliveredVersions);
+        assertEquals(12, this.book.getVersion());
+        assertEquals(100, this.book.getBestBidPrice());
+        assertEquals(2, this.book.getBestBidQuantity());
+        assertEquals(3, this.book.getBids().size());
+        assertEquals(102, this.book.getBestAskPrice());
+        assertEquals(2, this.book.getAsks().size());
+
+        this.synchronizer.onUpdate(update(13, 100, 0, 102, 0));
+        // repeated updates are ignored
+        this.synchronizer.onUpdate(update(13, 100, 5, 102, 5));
+        assertEquals(List.of(12L, 13L), this.deliveredVersions);
+        assertEquals(99, this.book.getBestBidPrice());
+        assertEquals(103, this.book.getBestAskPrice());
+    }
+
+
+    @Test
+    void testGapResyncs() throws InterruptedException {
+        this.synchronizer.onUpdate(update(5, 100, 1, 101, 1));
+        this.nextSnapshotRequest().complete(depth(4, new double[][]{{100, 9}}, new double[][]{{101, 9}}));
+        assertEquals(List.of(5L), this.deliveredVersions);
+
+        // 6 and 7 are missing
+        this.synchronizer.onUpdate(update(8, 100, 2, 101, 2));
+        assertFalse(this.synchronizer.isSynced());
+        assertTrue(this.book.getBids().isEmpty());
+        this.synchronizer.onUpdate(update(9, 100, 3, 101, 3));
+
+        this.nextSnapshotRequest().complete(depth(8, new double[][]{{100, 2}}, new double[][]{{101, 2}}));
+        assertTrue(this.synchronizer.isSynced());
+        assertEquals(List.of(5L, 9L), this.deliveredVersions);
+        assertEquals(3, this.book.getBestBidQuantity());
+    }
+
+
+    @Test
+    void testOutdatedOrFailedSnapshotIsRequestedAgain() throws InterruptedException {
+        this.synchronizer.onUpdate(update(20, 100, 1, 101, 1));
+
+        this.nextSnapshotRequest().completeExceptionally(new IllegalStateException("503"));
+        // older than the first buffered update
+        this.nextSnapshotRequest().complete(depth(15, new double[][]{{100, 1}}, new double[][]{{101, 1}}));
+        assertFalse(this.synchronizer.isSynced());
+
+        this.nextSnapshotRequest().complete(depth(19, new double[][]{{100, 1}}, new double[][]{{101, 1}}));
+        assertTrue(this.synchronizer.isSynced());
+        assertEquals(List.of(20L), this.deliveredVersions);
+    }
+
+
+    @Test
+    void testStoppedSynchronizerIgnoresUpdates() throws InterruptedException {
+        this.synchronizer.onUpdate(update(1, 100, 1, 101, 1));
+        this.synchronizer.stop();
+        this.nextSnapshotRequest().complete(depth(0, new double[][]{}, new double[][]{}));
+        this.synchronizer.onUpdate(update(2, 100, 1, 101, 1));
+
+        assertFalse(this.synchronizer.isSynced());
+        assertTrue(this.deliveredVersions.isEmpty());
+        assertTrue(this.snapshotRequests.isEmpty());
+    }
+
+
+    private CompletableFuture<Depth> nextSnapshotRequest() throws InterruptedException {
+        CompletableFuture<Depth> snapshot = this.snapshotRequests.poll(5, TimeUnit.SECONDS);
+        assertNotNull(snapshot);
+        return snapshot;
+    }
+
+
+    private static DepthUpdate update(long version, double bidPrice, double bidQuantity, double askPrice, double askQuantity) {
+        DepthUpdate update = new DepthUpdate();
+        update.setVersion(version);
+        update.addBid(bidPrice, bidQuantity);
+        update.addAsk(askPrice, askQuantity);
+        return update;
+    }
+
+
+    private static Depth depth(long lastUpdateId, double[][] bids, double[][] asks) {
+        Depth depth = new Depth();
+        depth.setLastUpdateId(lastUpdateId);
+        depth.setBids(bids);
+        depth.setAsks(asks);
+        return depth;
+    }
+}
@@ -0,0 +1,141 @@
+package net.osslabz.mexc.client.rest;
+
+import com.sun.net.httpserver.HttpServer;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MarketDataClientTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+    private HttpServer server;
+
+    private MarketDataClient client;
+
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(this.serverExecutor);
+        // answers with a 1m kline for every minute of the requested range, like MEXC does
+        this.server.createContext(MarketDataClient.KLINES, exchange -> {
+            this.requests.incrementAndGet();
+            this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+            try {
+                Map<String, String> params = new HashMap<>();
+                for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                    String[] keyValue = param.split("=");
+                    params.put(keyValue[0], keyValue[1]);
+                }
+                assertEquals("BTCUSDT", params.get("symbol"));
+                assertEquals("1m", params.get("interval"));
+
+                StringBuilder body = new StringBuilder("[");
+                for (long openTime = Long.parseLong(params.get("startTime")); openTime <= Long.parseLong(params.get("endTime")); openTime += MINUTE) {
+                    body.append(body.length() > 1 ? "," : "")
+                            .append("[%d,\"1.0\",\"3.0\",\"0.5\",\"2.0\",\"4\",%d,\"8\"]".formatted(openTime, openTime + MINUTE - 1));
+                }
+                Thread.sleep(20);
+                MexcRestClientTest.respond(exchange, 200, body.append("]").toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.inFlight.decrementAndGet();
+            }
+        });
+        this.server.start();
+
+        this.client = new MarketDataClient(MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .backfillParallelism(3)
+                .build());
+    }
+
+
+    @AfterEach
+    void stopServer() {
+        this.client.close();
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+
+    @Test
+    void testBackfillIsPagedAndOrdered() {
+        Instant from = Instant.parse("2024-01-01T00:00:30Z");
+        Instant to = from.plus(Duration.ofMinutes(10_500));
+
+        List<Ohlc> ohlcs = this.client.getKlines(new CurrencyPair("BTC", "USDT"), Interval.PT1M, from, to);
+
+        // the start is aligned to the interval, 10501 minutes fit into 11 pages
+        assertEquals(11, this.requests.get());
+        assertTrue(this.maxInFlight.get() <= 3);
+        assertEquals(10_501, ohlcs.size());
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), ohlcs.get(0).getOpenTime().toInstant());
+        for (int i = 1; i < ohlcs.size(); i++) {
+            assertEquals(MINUTE, ohlcs.get(i).getOpenTime().toInstant().toEpochMilli() - ohlcs.get(i - 1).getOpenTime().toInstant().toEpochMilli());
+        }
+
+        Ohlc first = ohlcs.get(0);
+        assertEquals(Instant.parse("2024-01-01T00:01:00Z"), first.getCloseTime().toInstant());
+        assertEquals(new BigDecimal("4"), first.getQuantity());
+        assertEquals(new BigDecimal("8"), first.getVolume());
+        assertEquals(new BigDecimal("2.00000000"), first.getAvgPrice());
+    }
+
+
+    @Test
+    void testStreamKlines() {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+
+        assertEquals(2_500, this.client.streamKlines(new CurrencyPair("BTC", "USDT"), Interval.PT1M, from, from.plus(Duration.ofMinutes(2_500))).count());
+        assertEquals(3, this.requests.get());
+    }
+
+
+    @Test
+    void testRejectedPagesFailWithoutRecursion() {
+        try (MarketDataClient rejectingClient = new MarketDataClient(MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .rateLimitMode(RateLimitMode.REJECT)
+                .ipWeightLimit(1)
+                .rateLimitInterval(Duration.ofMinutes(1))
+                .backfillParallelism(1)
+                .build())) {
+
+            // every page but the first is rejected right away, each one starts the next
+            Instant from = Instant.parse("1990-01-01T00:00:00Z");
+            Instant to = from.plus(Duration.ofMinutes(1000L * 20_000));
+            assertThrows(RateLimitExceededException.class, () -> rejectingClient.getKlines(new CurrencyPair("BTC", "USDT"), Interval.PT1M, from, to));
+        }
+        assertEquals(1, this.requests.get());
+    }
+}
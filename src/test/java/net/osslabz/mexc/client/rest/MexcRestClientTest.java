@@ -0,0 +1,213 @@
+package net.osslabz.mexc.client.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.osslabz.mexc.client.rest.dto.ListenKeys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MexcRestClientTest {
+
+    private final List<String> receivedQueries = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private MexcRestClient restClient;
+
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/api/v3/userDataStream", exchange -> {
+            this.receivedQueries.add(exchange.getRequestURI().getRawQuery());
+            respond(exchange, 200, "{\"listenKey\":[\"key-1\",\"key-2\"]}");
+        });
+        this.server.createContext("/api/v3/order", exchange ->
+                respond(exchange, 400, "{\"code\":700002,\"msg\":\"Signature for this request is not valid.\"}"));
+        this.server.createContext("/api/v3/account", exchange -> respond(exchange, 502, "<html>Bad Gateway</html>"));
+        this.server.createContext("/api/v3/myTrades", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "60");
+            respond(exchange, 429, "{\"code\":429,\"msg\":\"Too many requests\"}");
+        });
+        this.server.start();
+
+        this.restClient = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .logMode(HttpLogMode.SAMPLED_BODIES)
+                .bodyLogSampleRate(2)
+                .build());
+    }
+
+
+    @AfterEach
+    void stopServer() {
+        this.restClient.close();
+        this.server.stop(0);
+    }
+
+
+    @Test
+    void testGet() {
+        ListenKeys listenKeys = this.restClient.get(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of("symbol", "BTCUSDT"), ListenKeys.class);
+
+        assertEquals(List.of("key-1", "key-2"), listenKeys.getListenKey());
+        String query = this.receivedQueries.get(0);
+        assertTrue(query.startsWith("symbol=BTCUSDT&timestamp="), query);
+        assertTrue(query.contains("&signature="), query);
+    }
+
+
+    @Test
+    void testGetAsync() throws Exception {
+        List<CompletableFuture<ListenKeys>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(this.restClient.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class));
+        }
+
+        for (CompletableFuture<ListenKeys> future : futures) {
+            assertEquals(List.of("key-1", "key-2"), future.get(5, TimeUnit.SECONDS).getListenKey());
+        }
+        assertEquals(10, this.receivedQueries.size());
+    }
+
+
+    @ParameterizedTest
+    @EnumSource(MexcRestClient.AsyncMode.class)
+    void testGetAsyncInEveryMode(MexcRestClient.AsyncMode asyncMode) throws Exception {
+        try (MexcRestClient client = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .asyncMode(asyncMode)
+                .build())) {
+
+            List<CompletableFuture<ListenKeys>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(client.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class));
+            }
+            for (CompletableFuture<ListenKeys> future : futures) {
+                assertEquals(List.of("key-1", "key-2"), future.get(5, TimeUnit.SECONDS).getListenKey());
+            }
+        }
+        assertEquals(5, this.receivedQueries.size());
+    }
+
+
+    @ParameterizedTest
+    @EnumSource(MexcRestClient.AsyncMode.class)
+    void testAsyncCallsOfClosedClientFail(MexcRestClient.AsyncMode asyncMode) throws Exception {
+        MexcRestClient client = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .asyncMode(asyncMode)
+                .rateLimitMode(RateLimitMode.QUEUE)
+                .apiKeyWeightLimit(1)
+                .rateLimitInterval(Duration.ofMillis(500))
+                .build());
+
+        client.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class).get(5, TimeUnit.SECONDS);
+        // has to wait for request weight, it's started after the client has been closed
+        CompletableFuture<ListenKeys> delayed = client.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class);
+        client.close();
+
+        assertThrows(ExecutionException.class, () -> delayed.get(5, TimeUnit.SECONDS));
+
+        MexcRestClient closedClient = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .asyncMode(asyncMode)
+                .build());
+        closedClient.close();
+        CompletableFuture<ListenKeys> afterClose = closedClient.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class);
+        assertThrows(ExecutionException.class, () -> afterClose.get(5, TimeUnit.SECONDS));
+        assertEquals(1, this.receivedQueries.size());
+    }
+
+
+    @Test
+    void testErrorResponse() {
+        MexcApiException e = assertThrows(MexcApiException.class, () -> this.restClient.get("/api/v3/order", Map.of(), ListenKeys.class));
+        assertEquals(400, e.getHttpStatus());
+        assertEquals(700002, e.getCode());
+        assertTrue(e.getMessage().startsWith("Signature for this request is not valid."), e.getMessage());
+
+        MexcApiException gatewayError = assertThrows(MexcApiException.class, () -> this.restClient.get("/api/v3/account", Map.of(), ListenKeys.class));
+        assertEquals(502, gatewayError.getHttpStatus());
+        assertNull(gatewayError.getCode());
+    }
+
+
+    @Test
+    void testErrorResponseAsync() {
+        CompletableFuture<ListenKeys> future = this.restClient.getAsync("/api/v3/order", Map.of(), ListenKeys.class);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(700002, ((MexcApiException) e.getCause()).getCode());
+    }
+
+
+    @Test
+    void testRateLimitRejectsBeforeSending() {
+        try (MexcRestClient limitedClient = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .rateLimitMode(RateLimitMode.REJECT)
+                .apiKeyWeightLimit(2)
+                .rateLimitInterval(Duration.ofMinutes(1))
+                .build())) {
+
+            limitedClient.get(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class);
+            limitedClient.get(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class);
+            assertThrows(RateLimitExceededException.class, () -> limitedClient.get(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class));
+
+            CompletableFuture<ListenKeys> future = limitedClient.getAsync(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RateLimitExceededException.class, e.getCause());
+            assertEquals(2, this.receivedQueries.size());
+        }
+    }
+
+
+    @Test
+    void testTooManyRequestsPausesCalls() {
+        try (MexcRestClient limitedClient = new MexcRestClient("access-key", "secret-key", MexcRestClientConfig.builder()
+                .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+                .rateLimitMode(RateLimitMode.REJECT)
+                .build())) {
+
+            MexcApiException e = assertThrows(MexcApiException.class, () -> limitedClient.get("/api/v3/myTrades", Map.of(), ListenKeys.class));
+            assertEquals(429, e.getHttpStatus());
+
+            // MEXC asked for 60s of silence, nothing is sent until then
+            assertThrows(RateLimitExceededException.class, () -> limitedClient.get(UserDataClient.USER_DATA_STREAM_LISTEN_KEY, Map.of(), ListenKeys.class));
+            assertTrue(this.receivedQueries.isEmpty());
+        }
+    }
+
+
+    static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
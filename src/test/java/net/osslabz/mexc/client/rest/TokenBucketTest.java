@@ -0,0 +1,46 @@
+package net.osslabz.mexc.client.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(10), this.now::get);
+
+
+    @Test
+    void testReservesInOrder() {
+        long maxWait = TimeUnit.SECONDS.toNanos(5);
+        assertEquals(0, this.bucket.reserve(8, maxWait));
+        // 2 tokens left, the 3rd one refills after 1s, the 5th after 3s
+        assertEquals(TimeUnit.SECONDS.toNanos(1), this.bucket.reserve(3, maxWait));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), this.bucket.reserve(2, maxWait));
+        // would have to wait 8s, nothing is reserved
+        assertEquals(-1, this.bucket.reserve(5, maxWait));
+        assertEquals(-3, this.bucket.getAvailable(), 1e-9);
+
+        this.now.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertEquals(0, this.bucket.reserve(1, 0));
+    }
+
+
+    @Test
+    void testSyncAndPause() {
+        this.bucket.syncUsed(7);
+        assertEquals(3, this.bucket.getAvailable(), 1e-9);
+        // a report lower than the own count doesn't give tokens back
+        this.bucket.syncUsed(1);
+        assertEquals(3, this.bucket.getAvailable(), 1e-9);
+
+        this.bucket.pause(Duration.ofSeconds(2));
+        assertEquals(-1, this.bucket.reserve(1, TimeUnit.SECONDS.toNanos(2)));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), this.bucket.reserve(1, TimeUnit.SECONDS.toNanos(3)));
+    }
+}
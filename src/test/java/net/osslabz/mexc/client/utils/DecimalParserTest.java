@@ -0,0 +1,49 @@
+package net.osslabz.mexc.client.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecimalParserTest {
+
+    @Test
+    void testMatchesDoubleParseDouble() {
+        String[] values = {"0", "1", "-1", "+2.5", "20281.31", "0.00001234", "24339.69", "123456789012345",
+                "0.123456789012345", "1234567890.1234567", "12345678901234567890", "1e5", "0.1000000000000000000000001"};
+        for (String value : values) {
+            assertEquals(Double.parseDouble(value), parse(value), value);
+        }
+    }
+
+
+    @Test
+    void testRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String value = BigDecimal.valueOf(random.nextLong() % 1_000_000_000_000L, random.nextInt(12)).toPlainString();
+            assertEquals(Double.parseDouble(value), parse(value), value);
+        }
+    }
+
+
+    @Test
+    void testEmptyIsNaN() {
+        assertTrue(Double.isNaN(parse("")));
+    }
+
+
+    @Test
+    void testRespectsOffset() {
+        char[] chars = "xx20281.31yy".toCharArray();
+        assertEquals(20281.31, DecimalParser.parseDouble(chars, 2, 8));
+    }
+
+
+    private static double parse(String value) {
+        return DecimalParser.parseDouble(value.toCharArray(), 0, value.length());
+    }
+}
@@ -0,0 +1,81 @@
+package net.osslabz.mexc.client.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestSignerTest {
+
+    private static final String SECRET_KEY = "45d0b3c26f2644f19bfb98b07741b2f5";
+
+    private final RequestSigner signer = new RequestSigner(SECRET_KEY);
+
+
+    @Test
+    void testSignMatchesPlainMac() throws Exception {
+        for (String payload : List.of("", "symbol=BTCUSDT&timestamp=1661938138000", "clientOrderId=ä€😀", "x".repeat(1000))) {
+            assertEquals(referenceSignature(payload), this.signer.sign(payload), payload);
+        }
+    }
+
+
+    @Test
+    void testSignIsThreadSafe() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String payload = "symbol=BTCUSDT&timestamp=" + i;
+                String expected = referenceSignature(payload);
+                results.add(executor.submit(() -> expected.equals(this.signer.sign(payload))));
+            }
+            for (Future<Boolean> result : results) {
+                assertEquals(true, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    @Test
+    void testToQueryString() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", "BTCUSDT");
+        params.put("newClientOrderId", "strategy-1 42+ä/*");
+
+        assertEquals("symbol=BTCUSDT&newClientOrderId=strategy-1 42+ä/*", RequestSigner.toQueryString(params, false));
+        assertEquals("symbol=BTCUSDT&newClientOrderId=strategy-1%2042%2B%C3%A4%2F*", RequestSigner.toQueryString(params, true));
+        assertEquals("", RequestSigner.toQueryString(Map.of(), true));
+    }
+
+
+    @Test
+    void testUrlEncodeMatchesUrlEncoder() {
+        for (String value : List.of("abc-._*~", "a b+c&d=e", "ä€😀", "\u0000\u007f")) {
+            StringBuilder encoded = new StringBuilder();
+            RequestSigner.urlEncode(encoded, value);
+            assertEquals(URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20"), encoded.toString(), value);
+        }
+    }
+
+
+    private static String referenceSignature(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
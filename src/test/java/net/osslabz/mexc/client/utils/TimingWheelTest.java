@@ -0,0 +1,46 @@
+package net.osslabz.mexc.client.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    void testRunsTimersInDeadlineOrderAcrossLevels() throws InterruptedException {
+        try (TimingWheel wheel = new TimingWheel(1, "test-wheel")) {
+            long now = System.currentTimeMillis();
+            List<Integer> fired = new CopyOnWriteArrayList<>();
+            List<Long> lateness = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(4);
+
+            // 1ms ticks: 70 and 300 ticks ahead are on level 1 and cascade down, the past deadline is scheduled first
+            // so it's due before the 20ms one however long scheduling takes
+            long[] deadlines = {now - 10, now + 300, now + 20, now + 70};
+            for (int i = 0; i < deadlines.length; i++) {
+                int id = i;
+                long deadline = deadlines[i];
+                wheel.schedule(deadline, () -> {
+                    lateness.add(System.currentTimeMillis() - deadline);
+                    fired.add(id);
+                    done.countDown();
+                });
+            }
+            TimingWheel.Timer cancelled = wheel.schedule(now + 100, () -> fired.add(99));
+            cancelled.cancel();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(20);
+            assertEquals(List.of(0, 2, 3, 1), fired);
+            for (long late : lateness) {
+                assertTrue(late >= 0, "fired early: " + late);
+            }
+        }
+    }
+}
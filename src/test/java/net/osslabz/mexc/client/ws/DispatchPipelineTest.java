@@ -0,0 +1,148 @@
+package net.osslabz.mexc.client.ws;
+
+import net.osslabz.mexc.client.ws.dto.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DispatchPipelineTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<String> handled = new CopyOnWriteArrayList<>();
+
+    private final Map<String, String> threadByMessage = new ConcurrentHashMap<>();
+
+
+    @Test
+    void testKeepsOrderPerShardKey() throws InterruptedException {
+        this.release.countDown();
+        DispatchPipeline pipeline = new DispatchPipeline(4, 16, this.handler());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(pipeline.submit(i % 2 == 0 ? "btc" : "eth", i % 2 == 0 ? "BTCUSDT" : "ETHUSDT", (i % 2 == 0 ? "BTC-" : "ETH-") + i, System.nanoTime(), OverflowPolicy.BLOCK));
+        }
+        this.awaitHandled(100);
+
+        List<String> btc = this.handled.stream().filter(m -> m.startsWith("BTC")).toList();
+        for (int i = 0; i < btc.size(); i++) {
+            assertEquals("BTC-" + (i * 2), btc.get(i));
+        }
+        assertEquals(1, btc.stream().map(this.threadByMessage::get).distinct().count());
+
+        pipeline.close();
+    }
+
+
+    @Test
+    void testDropOldestWhenFull() throws InterruptedException {
+        DispatchPipeline pipeline = new DispatchPipeline(1, 2, this.handler());
+
+        // the worker takes the first message and blocks, the queue holds two more
+        pipeline.submit("kline", "BTCUSDT", "1", System.nanoTime(), OverflowPolicy.DROP_OLDEST);
+        this.awaitQueueDepth(pipeline, 0);
+        pipeline.submit("kline", "BTCUSDT", "2", System.nanoTime(), OverflowPolicy.DROP_OLDEST);
+        pipeline.submit("kline", "BTCUSDT", "3", System.nanoTime(), OverflowPolicy.DROP_OLDEST);
+        assertTrue(pipeline.submit("kline", "BTCUSDT", "4", System.nanoTime(), OverflowPolicy.DROP_OLDEST));
+
+        assertEquals(2, pipeline.getQueueDepth());
+        assertEquals(1, pipeline.getDroppedCount());
+
+        this.release.countDown();
+        this.awaitHandled(3);
+        assertEquals(List.of("1", "3", "4"), this.handled);
+
+        pipeline.close();
+    }
+
+
+    @Test
+    void testFailRejectsWhenFull() throws InterruptedException {
+        DispatchPipeline pipeline = new DispatchPipeline(1, 1, this.handler());
+
+        pipeline.submit("kline", "BTCUSDT", "1", System.nanoTime(), OverflowPolicy.FAIL);
+        this.awaitQueueDepth(pipeline, 0);
+        assertTrue(pipeline.submit("kline", "BTCUSDT", "2", System.nanoTime(), OverflowPolicy.FAIL));
+        assertFalse(pipeline.submit("kline", "BTCUSDT", "3", System.nanoTime(), OverflowPolicy.FAIL));
+
+        assertEquals(1, pipeline.getRejectedCount());
+        assertEquals(1, pipeline.getRejectedCount("kline"));
+        assertEquals(1, pipeline.getQueueDepths()[0]);
+
+        this.release.countDown();
+        this.awaitHandled(2);
+        assertEquals(List.of("1", "2"), this.handled);
+
+        pipeline.close();
+    }
+
+
+    @Test
+    void testDropOldestOnlyDropsFramesOfItsOwnSubscription() throws InterruptedException {
+        DispatchPipeline pipeline = new DispatchPipeline(1, 2, this.handler());
+
+        // both subscriptions share the worker, which blocks on the first message
+        pipeline.submit("kline", "BTCUSDT", "kline-1", System.nanoTime(), OverflowPolicy.BLOCK);
+        this.awaitQueueDepth(pipeline, 0);
+        pipeline.submit("kline", "BTCUSDT", "kline-2", System.nanoTime(), OverflowPolicy.BLOCK);
+        pipeline.submit("depth", "BTCUSDT", "depth-1", System.nanoTime(), OverflowPolicy.DROP_OLDEST);
+        pipeline.submit("depth", "BTCUSDT", "depth-2", System.nanoTime(), OverflowPolicy.DROP_OLDEST);
+        assertTrue(pipeline.submit("depth", "BTCUSDT", "depth-3", System.nanoTime(), OverflowPolicy.DROP_OLDEST));
+
+        assertEquals(1, pipeline.getDroppedCount("depth"));
+        assertEquals(0, pipeline.getDroppedCount("kline"));
+
+        this.release.countDown();
+        this.awaitHandled(4);
+        assertEquals(List.of("kline-1", "kline-2", "depth-2", "depth-3"), this.handled);
+
+        pipeline.close();
+    }
+
+
+    private DispatchPipeline.FrameHandler handler() {
+        return new DispatchPipeline.FrameHandler() {
+            @Override
+            public void onMessage(String message, long receiveNanos) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                threadByMessage.put(message, Thread.currentThread().getName());
+                handled.add(message);
+            }
+
+            @Override
+            public void onMessage(ByteBuffer bytes, long receiveNanos) {
+            }
+        };
+    }
+
+
+    private void awaitHandled(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.handled.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, this.handled.size());
+    }
+
+
+    private void awaitQueueDepth(DispatchPipeline pipeline, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getQueueDepth() != depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.osslabz.mexc.client.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndpointSelectorTest {
+
+    private static final URI A = URI.create("wss://a.example/ws");
+
+    private static final URI B = URI.create("wss://b.example/ws");
+
+    private static final URI C = URI.create("wss://c.example/ws");
+
+
+    @Test
+    void testRotatesAwayFromFailingEndpoints() {
+        EndpointSelector selector = new EndpointSelector(List.of(A, B, C));
+        assertEquals(A, selector.select());
+
+        selector.onFailure(A);
+        assertEquals(B, selector.select());
+        selector.onFailure(B);
+        assertEquals(C, selector.select());
+        selector.onFailure(C);
+        // all failed once, round two starts over
+        assertEquals(A, selector.select());
+
+        selector.onHandshake(B, 1_000_000);
+        assertEquals(B, selector.select());
+    }
+
+
+    @Test
+    void testPrefersLowestRecentHandshakeLatency() {
+        EndpointSelector selector = new EndpointSelector(List.of(A, B));
+        selector.onHandshake(A, 50_000_000);
+        // B hasn't been measured yet, so it's tried
+        assertEquals(B, selector.select());
+
+        selector.onHandshake(B, 20_000_000);
+        assertEquals(B, selector.select());
+
+        // B gets slower, the smoothed latency follows
+        for (int i = 0; i < 5; i++) {
+            selector.onHandshake(B, 200_000_000);
+        }
+        assertTrue(selector.getLatencyNanos(B) > selector.getLatencyNanos(A));
+        assertEquals(A, selector.select());
+    }
+
+
+    @Test
+    void testBackoffIsCappedAndJittered() {
+        ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(5));
+        for (int attempt = 0; attempt < 100; attempt++) {
+            long expected = Math.min(Duration.ofSeconds(5).toNanos(), Duration.ofMillis(100).toNanos() << Math.min(attempt, 20));
+            long delay = backoff.delayNanos(attempt);
+            assertTrue(delay >= expected / 2 && delay <= expected, "attempt " + attempt + ": " + delay);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.osslabz.mexc.client.ws;
+
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.crypto.Ohlc;
+import net.osslabz.mexc.client.MexcClientConfig;
+import net.osslabz.mexc.client.PublicMexcClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameJournalTest {
+
+    @TempDir
+    Path directory;
+
+
+    @Test
+    void testFramesSurviveSegmentRolls() {
+        FrameJournalWriter writer = new FrameJournalWriter(this.directory, 256);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String message = "{\"frame\":" + i + ",\"text\":\"äöü\"}";
+            expected.add(message);
+            writer.append(message);
+
+            ByteBuffer binary = ByteBuffer.wrap(("binary-" + i).getBytes(StandardCharsets.US_ASCII));
+            expected.add("binary-" + i);
+            writer.append(binary);
+            assertEquals(0, binary.position());
+        }
+        writer.close();
+        assertTrue(FrameJournalReader.listSegments(this.directory).size() > 1);
+
+        List<String> replayed = new ArrayList<>();
+        List<Long> receiveTimes = new ArrayList<>();
+        long count = new FrameJournalReader(this.directory).replay(new FrameJournalReader.FrameListener() {
+            @Override
+            public void onMessage(long receiveTime, String message) {
+                replayed.add(message);
+                receiveTimes.add(receiveTime);
+            }
+
+            @Override
+            public void onMessage(long receiveTime, ByteBuffer message) {
+                replayed.add(StandardCharsets.US_ASCII.decode(message).toString());
+                receiveTimes.add(receiveTime);
+            }
+        }, 0);
+
+        assertEquals(100, count);
+        assertEquals(expected, replayed);
+        for (int i = 1; i < receiveTimes.size(); i++) {
+            assertTrue(receiveTimes.get(i) >= receiveTimes.get(i - 1));
+        }
+    }
+
+
+    @Test
+    void testPacedReplayDoesntWaitBetweenSessions() throws InterruptedException {
+        try (FrameJournalWriter writer = new FrameJournalWriter(this.directory, 1024)) {
+            writer.append("first");
+        }
+        Thread.sleep(1000);
+        try (FrameJournalWriter writer = new FrameJournalWriter(this.directory, 1024)) {
+            writer.append("second");
+        }
+        // the segments prepared ahead of time are removed on close
+        assertEquals(2, FrameJournalReader.listSegments(this.directory).size());
+
+        List<String> replayed = new ArrayList<>();
+        long start = System.nanoTime();
+        new FrameJournalReader(this.directory).replay(new FrameJournalReader.FrameListener() {
+            @Override
+            public void onMessage(long receiveTime, String message) {
+                replayed.add(message);
+            }
+
+            @Override
+            public void onMessage(long receiveTime, ByteBuffer message) {
+            }
+        }, 1);
+
+        assertEquals(List.of("first", "second"), replayed);
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+    }
+
+
+    @Test
+    void testReplayThroughOfflineClient() {
+        try (FrameJournalWriter writer = new FrameJournalWriter(this.directory, 1024 * 1024)) {
+            for (int i = 0; i < 3; i++) {
+                long openTime = 1661931900L + i * 60;
+                writer.append("""
+                        {"c":"spot@public.kline.v3.api@BTCUSDT@Min1","d":{"k":{"t":%d,"o":"1","c":"2","h":"3","l":"0.5","v":"1","a":"2","T":%d,"i":"Min1"},"e":"spot@public.kline.v3.api"},"s":"BTCUSDT","t":%d}
+                        """.formatted(openTime, openTime + 60, openTime * 1000));
+            }
+            // not subscribed, ignored
+            writer.append("{\"c\":\"spot@public.kline.v3.api@ETHUSDT@Min1\",\"d\":{},\"s\":\"ETHUSDT\",\"t\":1}");
+        }
+
+        List<Ohlc> received = new ArrayList<>();
+        try (PublicMexcClient client = new PublicMexcClient(MexcClientConfig.builder().offline(true).build())) {
+            client.subscribeToOhlc(new CurrencyPair("BTC", "USDT"), Interval.PT1M, received::add);
+
+            assertEquals(4, client.replay(this.directory, 0));
+            assertEquals(0, client.getConnectionCount());
+        }
+        assertEquals(3, received.size());
+        assertEquals(1661932020L, received.get(2).getOpenTime().toEpochSecond());
+    }
+}
@@ -0,0 +1,107 @@
+package net.osslabz.mexc.client.ws;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.osslabz.crypto.CurrencyPair;
+import net.osslabz.crypto.Interval;
+import net.osslabz.mexc.client.candle.CandleView;
+import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
+import net.osslabz.mexc.client.ws.dto.raw.RawOrder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonPushMessageReaderTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Test
+    void testReadOhlcData() throws IOException {
+        String json = """
+                {"k":{"t":1661931900,"o":"20281.31","c":"20283.59","h":20284.11,"l":"20279.92","v":"1.2","a":"24339.69","T":1661932800,"i":"Min15"},"e":"spot@public.kline.v3.api"}
+                """;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            RawOhlc.OhlData.OhlcContent content = JsonPushMessageReader.readOhlcData(parser).getContent();
+
+            assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+            assertEquals(1661931900L, content.getOpenTime());
+            assertEquals(1661932800L, content.getCloseTime());
+            assertEquals(new BigDecimal("20281.31"), content.getOpenPrice());
+            assertEquals(new BigDecimal("20284.11"), content.getHighPrice());
+            assertEquals(new BigDecimal("20279.92"), content.getLowPrice());
+            assertEquals(new BigDecimal("20283.59"), content.getClosePrice());
+            assertEquals(new BigDecimal("24339.69"), content.getVolume());
+            assertEquals(new BigDecimal("1.2"), content.getQuantity());
+        }
+    }
+
+    @Test
+    void testReadOrderData() throws IOException {
+        String json = """
+                {"A":8.0,"O":1661938138000,"S":1,"V":10,"a":8,"c":"","i":"e03a5c7441e44ed899466a7140b71391","m":0,"o":1,"p":0.8,"s":1,"v":10,"ap":0,"cv":0,"ca":0}
+                """;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            RawOrder.OrderData data = JsonPushMessageReader.readOrderData(parser);
+
+            assertEquals("e03a5c7441e44ed899466a7140b71391", data.getOrderId());
+            assertEquals(1661938138000L, data.getCreateTime());
+            assertEquals(1, data.getType());
+            assertEquals(1, data.getTradeType());
+            assertEquals(1, data.getStatus());
+            assertEquals(new BigDecimal("0.8"), data.getPrice());
+            assertEquals(new BigDecimal("10"), data.getQuantity());
+        }
+    }
+
+    @Test
+    void testReadNullContent() throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser("{\"k\":null}")) {
+            parser.nextToken();
+            assertNull(JsonPushMessageReader.readOhlcData(parser).getContent().getOpenPrice());
+        }
+    }
+
+    @Test
+    void testPeekChannel() {
+        assertEquals("spot@public.kline.v3.api@BTCUSDT@Min15",
+                JsonPushMessageReader.peekChannel("{\"c\":\"spot@public.kline.v3.api@BTCUSDT@Min15\",\"d\":{},\"s\":\"BTCUSDT\"}"));
+        assertNull(JsonPushMessageReader.peekChannel("{\"id\":1,\"code\":0,\"msg\":\"spot@public.kline.v3.api@BTCUSDT@Min15\"}"));
+    }
+
+    @Test
+    void testReadCandle() throws IOException {
+        CandleView candle = new CandleView(new CurrencyPair("BTC", "USDT"), Interval.PT15M);
+        try (JsonParser parser = JSON_FACTORY.createParser("{\"k\":{\"t\":1661931900,\"o\":\"20281.31\",\"c\":\"20283.59\",\"h\":\"20284.11\","
+                + "\"l\":\"20279.92\",\"v\":\"1.2\",\"a\":\"24339.69\",\"T\":1661932800,\"i\":\"Min15\"},\"e\":\"spot@public.kline.v3.api\"}")) {
+            parser.nextToken();
+            JsonPushMessageReader.readCandle(parser, candle);
+        }
+
+        assertEquals(1661931900000L, candle.getOpenTime());
+        assertEquals(1661932800000L, candle.getCloseTime());
+        assertEquals(20281.31, candle.getOpenPrice());
+        assertEquals(20283.59, candle.getClosePrice());
+        assertEquals(20284.11, candle.getHighPrice());
+        assertEquals(20279.92, candle.getLowPrice());
+        assertEquals(1.2, candle.getQuantity());
+        assertEquals(24339.69, candle.getVolume());
+
+        try (JsonParser parser = JSON_FACTORY.createParser("{\"k\":{\"o\":\"1.5\"}}")) {
+            parser.nextToken();
+            JsonPushMessageReader.readCandle(parser, candle);
+        }
+        // values of the previous update don't leak into the next one
+        assertEquals(1.5, candle.getOpenPrice());
+        assertTrue(Double.isNaN(candle.getClosePrice()));
+    }
+}
@@ -0,0 +1,227 @@
+package net.osslabz.mexc.client.ws;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.java_websocket.WebSocket;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MexcWebSocketClientTest {
+
+    private final Semaphore opened = new Semaphore(0);
+
+    private final List<Boolean> degradedEvents = new CopyOnWriteArrayList<>();
+
+    private volatile boolean answerPings = true;
+
+    private WebSocketServer server;
+
+    private MexcWebSocketClient client;
+
+
+    @BeforeEach
+    void startServer() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        this.server = new WebSocketServer(new InetSocketAddress("localhost", 0)) {
+            @Override
+            public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            }
+
+            @Override
+            public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onMessage(WebSocket conn, String message) {
+                if (message.contains("PING") && answerPings) {
+                    conn.send("{\"id\":0,\"code\":0,\"msg\":\"PONG\"}");
+                }
+            }
+
+            @Override
+            public void onError(WebSocket conn, Exception ex) {
+            }
+
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        this.server.setReuseAddr(true);
+        this.server.start();
+        // the port is bound asynchronously
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        if (this.client != null) {
+            this.client.close();
+        }
+        this.server.stop(1000);
+    }
+
+
+    @Test
+    void testFailsOverAndReconnectsWhenClosed() throws Exception {
+        URI unreachable = URI.create("ws://localhost:" + freePort() + "/ws");
+        URI reachable = URI.create("ws://localhost:" + this.server.getPort() + "/ws");
+        EndpointSelector endpoints = new EndpointSelector(List.of(unreachable, reachable));
+        this.client = new MexcWebSocketClient(endpoints, UnaryOperator.identity(), new ReconnectBackoff(Duration.ofMillis(20), Duration.ofMillis(200)),
+                new PingPolicy(Duration.ZERO, 3, Duration.ofMillis(250)), this.listener());
+
+        // the first endpoint refuses the connection, the next attempt goes to the second one
+        assertThrows(WebsocketNotConnectedException.class, () -> this.client.send("ping"));
+        assertTrue(this.opened.tryAcquire(5, TimeUnit.SECONDS));
+        assertTrue(endpoints.getLatencyNanos(reachable) > 0);
+
+        // the server drops the connection, it's reconnected without a monitor polling it
+        // (the server registers it only after answering the handshake)
+        this.await(() -> !this.server.getConnections().isEmpty());
+        this.server.getConnections().forEach(WebSocket::close);
+        assertTrue(this.opened.tryAcquire(5, TimeUnit.SECONDS));
+        assertTrue(this.client.isConnectionAlive());
+    }
+
+
+    @Test
+    void testPingTracksRoundTripsAndMarksMissedPongsDegraded() throws Exception {
+        URI endpoint = URI.create("ws://localhost:" + this.server.getPort() + "/ws");
+        this.client = new MexcWebSocketClient(new EndpointSelector(List.of(endpoint)), UnaryOperator.identity(), new ReconnectBackoff(Duration.ofMillis(20), Duration.ofMillis(200)),
+                new PingPolicy(Duration.ofMillis(50), 3, Duration.ofMillis(100)), this.listener());
+        this.client.send("hello");
+        assertTrue(this.opened.tryAcquire(5, TimeUnit.SECONDS));
+
+        this.await(() -> this.client.getRttStats().getCount() >= 3);
+        assertTrue(this.client.getRttStats().getPercentile(50) > 0);
+        assertFalse(this.client.isDegraded());
+
+        this.answerPings = false;
+        this.await(this.client::isDegraded);
+
+        this.answerPings = true;
+        this.await(() -> !this.client.isDegraded());
+        assertEquals(List.of(true, false), this.degradedEvents);
+    }
+
+
+    @Test
+    void testRecordsConnectionEvents() throws Exception {
+        URI endpoint = URI.create("ws://localhost:" + this.server.getPort() + "/ws");
+        Path file = Files.createTempFile("connection", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.osslabz.mexc.ConnectionOpen");
+            recording.enable("net.osslabz.mexc.ConnectionClose");
+            recording.enable("net.osslabz.mexc.Reconnect");
+            recording.start();
+
+            this.client = new MexcWebSocketClient(new EndpointSelector(List.of(endpoint)), UnaryOperator.identity(), new ReconnectBackoff(Duration.ofMillis(20), Duration.ofMillis(200)),
+                    new PingPolicy(Duration.ZERO, 3, Duration.ofMillis(250)), this.listener());
+            this.client.send("hello");
+            assertTrue(this.opened.tryAcquire(5, TimeUnit.SECONDS));
+            this.await(() -> !this.server.getConnections().isEmpty());
+            this.server.getConnections().forEach(WebSocket::close);
+            assertTrue(this.opened.tryAcquire(5, TimeUnit.SECONDS));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // each thread's events are written as a batch, sorted they are in the order they started
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream().sorted(Comparator.comparing(RecordedEvent::getStartTime)).toList();
+        Files.delete(file);
+        List<RecordedEvent> opens = events.stream().filter(event -> event.getEventType().getName().equals("net.osslabz.mexc.ConnectionOpen")).toList();
+        List<RecordedEvent> closes = events.stream().filter(event -> event.getEventType().getName().equals("net.osslabz.mexc.ConnectionClose")).toList();
+        List<RecordedEvent> reconnects = events.stream().filter(event -> event.getEventType().getName().equals("net.osslabz.mexc.Reconnect")).toList();
+        assertEquals(2, opens.size());
+        assertEquals(endpoint.toString(), opens.get(0).getString("endpoint"));
+        assertEquals(1, opens.get(1).getInt("attempt"));
+        assertEquals(1, closes.size());
+        assertTrue(closes.get(0).getBoolean("remote"));
+        assertEquals(1, reconnects.size());
+        assertEquals(endpoint.toString(), reconnects.get(0).getString("endpoint"));
+    }
+
+
+    @Test
+    void testOnlyPongResponsesArePongs() {
+        assertTrue(MexcWebSocketClient.isPong("{\"id\":0,\"code\":0,\"msg\":\"PONG\"}"));
+        assertFalse(MexcWebSocketClient.isPong("{\"id\":1,\"code\":0,\"msg\":\"spot@public.kline.v3.api@PONGUSDT@Min1\"}"));
+        assertFalse(MexcWebSocketClient.isPong("{\"c\":\"spot@public.deals.v3.api@PONGUSDT\",\"d\":{},\"msg\":\"PONG\"}"));
+    }
+
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+
+    private WebSocketListener listener() {
+        return new WebSocketListener() {
+            @Override
+            public void onOpen() {
+                opened.release();
+            }
+
+            @Override
+            public void onMessage(String message, long receiveNanos) {
+            }
+
+            @Override
+            public void onMessage(ByteBuffer bytes, long receiveNanos) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onDegraded(boolean degraded) {
+                degradedEvents.add(degraded);
+            }
+        };
+    }
+
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.osslabz.mexc.client.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutboundCommandQueueTest {
+
+    private final MexcWebSocketClient connection = new MexcWebSocketClient(URI.create("wss://localhost/ws"), null);
+
+    private final List<String> sentFrames = new CopyOnWriteArrayList<>();
+
+    private final List<Long> sentAt = new CopyOnWriteArrayList<>();
+
+    private final OutboundCommandQueue.CommandSender sender = (connection, method, subscriptionIdentifiers) -> {
+        this.sentAt.add(System.nanoTime());
+        this.sentFrames.add(method + " " + subscriptionIdentifiers);
+    };
+
+    @Test
+    void testPacksPendingCommandsIntoFrames() {
+        ScheduledExecutorService stopped = Executors.newSingleThreadScheduledExecutor();
+        stopped.shutdown();
+        OutboundCommandQueue queue = new OutboundCommandQueue(this.connection, this.sender, stopped, 10, 2);
+
+        queue.subscribe(List.of("a", "b", "c"));
+        queue.unsubscribe(List.of("x"));
+        queue.subscribe(List.of("x"));
+        queue.unsubscribe(List.of("c"));
+        assertEquals(4, queue.getPendingCount());
+
+        queue.flushNow();
+
+        assertEquals(List.of("UNSUBSCRIPTION [c]", "SUBSCRIPTION [a, b]", "SUBSCRIPTION [x]"), this.sentFrames);
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void testSubscriptionsBeingSentAreNotQueuedAgain() {
+        ScheduledExecutorService stopped = Executors.newSingleThreadScheduledExecutor();
+        stopped.shutdown();
+        List<OutboundCommandQueue> queues = new CopyOnWriteArrayList<>();
+        // the first send opens the connection, which resubscribes everything assigned to it
+        OutboundCommandQueue queue = new OutboundCommandQueue(this.connection, (connection, method, subscriptionIdentifiers) -> {
+            this.sender.send(connection, method, subscriptionIdentifiers);
+            if (this.sentFrames.size() == 1) {
+                queues.get(0).subscribe(List.of("a", "b", "c"));
+            }
+        }, stopped, 10, 2);
+        queues.add(queue);
+
+        queue.subscribe(List.of("a", "b", "c"));
+        queue.flushNow();
+
+        assertEquals(List.of("SUBSCRIPTION [a, b]", "SUBSCRIPTION [c]"), this.sentFrames);
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void testRespectsMessagesPerSecond() throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        OutboundCommandQueue queue = new OutboundCommandQueue(this.connection, this.sender, scheduler, 20, 1);
+
+        queue.subscribe(List.of("a", "b", "c"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.sentFrames.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.shutdown();
+
+        assertEquals(List.of("SUBSCRIPTION [a]", "SUBSCRIPTION [b]", "SUBSCRIPTION [c]"), this.sentFrames);
+        // 20 messages per second means at least 50ms between two frames
+        assertTrue(this.sentAt.get(2) - this.sentAt.get(0) >= 2 * 50_000_000L - 1_000_000L);
+    }
+}
@@ -0,0 +1,141 @@
+package net.osslabz.mexc.client.ws;
+
+import net.osslabz.mexc.client.orderbook.DepthUpdate;
+import net.osslabz.mexc.client.ws.dto.raw.RawOhlc;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProtobufPushMessageReaderTest {
+
+    @Test
+    void testReadKlineWrapper() {
+        ByteArrayOutputStream kline = new ByteArrayOutputStream();
+        writeString(kline, 1, "Min15");
+        writeVarint(kline, 2, 1661931900L);
+        writeString(kline, 3, "20281.31");
+        writeString(kline, 4, "20283.59");
+        writeString(kline, 5, "20284.11");
+        writeString(kline, 6, "20279.92");
+        writeString(kline, 7, "1.2");
+        writeString(kline, 8, "24339.69");
+        writeVarint(kline, 9, 1661932800L);
+
+        ByteArrayOutputStream wrapper = new ByteArrayOutputStream();
+        writeString(wrapper, 1, "spot@public.kline.v3.api.pb@BTCUSDT@Min15");
+        writeBytes(wrapper, 308, kline.toByteArray());
+        writeString(wrapper, 3, "BTCUSDT");
+        writeVarint(wrapper, 6, 1661931016878L);
+
+        // the frame doesn't start at index 0 to make sure absolute positions are respected
+        byte[] bytes = wrapper.toByteArray();
+        ByteBuffer frame = ByteBuffer.allocate(bytes.length + 3);
+        frame.position(3);
+        frame.put(bytes);
+        frame.position(3);
+
+        ProtobufReader reader = new ProtobufReader(frame);
+        String channel = null;
+        String symbol = null;
+        long sendTime = 0;
+        RawOhlc.OhlData data = null;
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case ProtobufPushMessageReader.WRAPPER_CHANNEL -> channel = reader.readString();
+                case ProtobufPushMessageReader.WRAPPER_SYMBOL -> symbol = reader.readString();
+                case ProtobufPushMessageReader.WRAPPER_SEND_TIME -> sendTime = reader.readInt64();
+                case ProtobufPushMessageReader.BODY_PUBLIC_SPOT_KLINE -> data = ProtobufPushMessageReader.readOhlcData(reader.readMessage());
+                default -> reader.skipField(tag);
+            }
+        }
+
+        assertEquals(3, frame.position());
+        assertEquals("spot@public.kline.v3.api.pb@BTCUSDT@Min15", channel);
+        assertEquals("BTCUSDT", symbol);
+        assertEquals(1661931016878L, sendTime);
+
+        RawOhlc.OhlData.OhlcContent content = data.getContent();
+        assertEquals(1661931900L, content.getOpenTime());
+        assertEquals(1661932800L, content.getCloseTime());
+        assertEquals(new BigDecimal("20281.31"), content.getOpenPrice());
+        assertEquals(new BigDecimal("20283.59"), content.getClosePrice());
+        assertEquals(new BigDecimal("20284.11"), content.getHighPrice());
+        assertEquals(new BigDecimal("20279.92"), content.getLowPrice());
+        assertEquals(new BigDecimal("1.2"), content.getQuantity());
+        assertEquals(new BigDecimal("24339.69"), content.getVolume());
+    }
+
+    @Test
+    void testEmptyDecimalIsNull() {
+        ByteArrayOutputStream kline = new ByteArrayOutputStream();
+        writeString(kline, 3, "");
+
+        RawOhlc.OhlData data = ProtobufPushMessageReader.readOhlcData(new ProtobufReader(ByteBuffer.wrap(kline.toByteArray())));
+
+        assertNull(data.getContent().getOpenPrice());
+    }
+
+
+    @Test
+    void testReadDepthUpdate() {
+        ByteArrayOutputStream depth = new ByteArrayOutputStream();
+        writeBytes(depth, 1, level("20283.59", "0"));
+        writeBytes(depth, 1, level("20284.11", "1.5"));
+        writeBytes(depth, 2, level("20281.31", "0.25"));
+        writeString(depth, 3, "spot@public.increase.depth.v3.api.pb");
+        writeString(depth, 4, "3407459756");
+
+        DepthUpdate update = new DepthUpdate();
+        update.addBid(1, 1);
+        ProtobufPushMessageReader.readDepthUpdate(new ProtobufReader(ByteBuffer.wrap(depth.toByteArray())), update);
+
+        assertEquals(3407459756L, update.getVersion());
+        assertEquals(2, update.getAskCount());
+        assertEquals(20283.59, update.getAskPrice(0));
+        assertEquals(0, update.getAskQuantity(0));
+        assertEquals(20284.11, update.getAskPrice(1));
+        assertEquals(1.5, update.getAskQuantity(1));
+        assertEquals(1, update.getBidCount());
+        assertEquals(20281.31, update.getBidPrice(0));
+        assertEquals(0.25, update.getBidQuantity(0));
+    }
+
+
+    private static byte[] level(String price, String quantity) {
+        ByteArrayOutputStream level = new ByteArrayOutputStream();
+        writeString(level, 1, price);
+        writeString(level, 2, quantity);
+        return level.toByteArray();
+    }
+
+
+    private static void writeVarint(ByteArrayOutputStream out, int field, long value) {
+        writeRawVarint(out, (long) field << 3);
+        writeRawVarint(out, value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int field, String value) {
+        writeBytes(out, field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] value) {
+        writeRawVarint(out, ((long) field << 3) | 2);
+        writeRawVarint(out, value.length);
+        out.writeBytes(value);
+    }
+
+    private static void writeRawVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
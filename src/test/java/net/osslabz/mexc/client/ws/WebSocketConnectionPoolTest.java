@@ -0,0 +1,144 @@
+package net.osslabz.mexc.client.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class WebSocketConnectionPoolTest {
+
+    private final List<List<String>> sentFrames = new CopyOnWriteArrayList<>();
+
+    private final List<String> receivedMessages = new CopyOnWriteArrayList<>();
+
+    private final WebSocketConnectionPool pool = new WebSocketConnectionPool(new EndpointSelector(List.of(URI.create("wss://localhost/ws"))), UnaryOperator.identity(),
+            new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(1)), new PingPolicy(Duration.ZERO, 3, Duration.ofMillis(250)), 2, 100, 30, new WebSocketConnectionPool.PoolListener() {
+        @Override
+        public void onOpen(int connectionId, Set<String> subscriptionIdentifiers) {
+        }
+
+        @Override
+        public void onClose(MexcWebSocketClient connection) {
+        }
+
+        @Override
+        public void onMessage(String message, long receiveNanos) {
+            receivedMessages.add(message);
+        }
+
+        @Override
+        public void onMessage(ByteBuffer bytes, long receiveNanos) {
+        }
+    }, (connection, method, subscriptionIdentifiers) -> this.sentFrames.add(subscriptionIdentifiers));
+
+    @Test
+    void testShardsByLoad() {
+        MexcWebSocketClient first = this.pool.acquire("a");
+        assertSame(first, this.pool.acquire("b"));
+        assertSame(first, this.pool.acquire("a"));
+
+        MexcWebSocketClient second = this.pool.acquire("c");
+        assertNotSame(first, second);
+        assertEquals(2, this.pool.getConnectionCount());
+
+        this.pool.release("a");
+        // the least loaded connection with free capacity is preferred
+        assertSame(first, this.pool.acquire("d"));
+        assertSame(second, this.pool.acquire("e"));
+        assertEquals(Map.of(1, 2, 2, 2), this.pool.getLoad());
+
+        this.pool.close();
+    }
+
+    @Test
+    void testSubscribeSendsOneFramePerConnection() throws InterruptedException {
+        this.pool.subscribe(List.of("a", "b", "c"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.sentFrames.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, this.pool.getConnectionCount());
+        assertEquals(Set.of(List.of("a", "b"), List.of("c")), Set.copyOf(this.sentFrames));
+        assertEquals(0, this.pool.getPendingCommandCount());
+
+        this.pool.close();
+    }
+
+    @Test
+    void testReleaseClosesEmptyConnection() {
+        this.pool.acquire("a");
+        this.pool.acquire("b");
+        this.pool.acquire("c");
+        assertEquals(2, this.pool.getConnectionCount());
+
+        this.pool.release("c");
+        assertEquals(1, this.pool.getConnectionCount());
+        assertNull(this.pool.get("c"));
+
+        this.pool.close();
+        assertEquals(0, this.pool.getConnectionCount());
+    }
+
+
+    @Test
+    void testMigratesSubscriptionsOffDegradedConnection() {
+        MexcWebSocketClient degraded = this.pool.acquire("a");
+        this.pool.acquire("b");
+
+        this.pool.migrate(degraded);
+        MexcWebSocketClient moved = this.pool.get("a");
+        assertNotSame(degraded, moved);
+        assertSame(moved, this.pool.get("b"));
+        // the degraded connection is retired, it doesn't count anymore
+        assertEquals(Map.of(2, 2), this.pool.getLoad());
+
+        // moves are rate limited
+        this.pool.migrate(moved);
+        assertSame(moved, this.pool.get("a"));
+
+        this.pool.close();
+    }
+
+
+    @Test
+    void testDropsFramesOfDegradedConnectionOnceMovedSubscriptionsAreActive() {
+        MexcWebSocketClient degraded = this.pool.acquire("a");
+        this.pool.acquire("b");
+        this.pool.migrate(degraded);
+        MexcWebSocketClient moved = this.pool.get("a");
+
+        // until a moved subscription is confirmed the degraded connection still delivers it
+        degraded.onMessage(push("a", 1));
+        this.pool.confirmSubscribed(degraded, List.of("a", "b"));
+        degraded.onMessage(push("a", 2));
+
+        this.pool.confirmSubscribed(moved, List.of("a"));
+        degraded.onMessage(push("a", 3));
+        degraded.onMessage(push("b", 4));
+
+        this.pool.confirmSubscribed(moved, List.of("b"));
+        degraded.onMessage(push("b", 5));
+        moved.onMessage(push("b", 6));
+        assertEquals(List.of(push("a", 1), push("a", 2), push("b", 4), push("b", 6)), this.receivedMessages);
+
+        this.pool.close();
+    }
+
+
+    private static String push(String channel, int time) {
+        return "{\"c\":\"%s\",\"d\":{},\"t\":%d}".formatted(channel, time);
+    }
+}